@@ -0,0 +1,109 @@
+// Load test for the MCP tools and the REST reads behind them.
+//
+// Run it once per threading mode against the same database and compare http_reqs/s and the
+// p95/p99 of http_req_duration. No measurements have been recorded yet; add them to the
+// "Hilos Virtuales" section of the README when the comparison is run:
+//
+//   SPRING_THREADS_VIRTUAL_ENABLED=true  ./mvnw spring-boot:run
+//   k6 run -e YEAR=2024 loadtest/mcp-tools.js
+//   SPRING_THREADS_VIRTUAL_ENABLED=false ./mvnw spring-boot:run
+//   k6 run -e YEAR=2024 loadtest/mcp-tools.js
+//
+// Semantic queries come from a small fixed set so that, after warm-up, they hit the query
+// embedding cache and the run measures the server rather than the provider.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const YEAR = Number(__ENV.YEAR || new Date().getFullYear());
+const VUS = Number(__ENV.VUS || 400);
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+  scenarios: {
+    tools: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '20s', target: VUS },
+        { duration: DURATION, target: VUS },
+        { duration: '10s', target: 0 },
+      ],
+      gracefulRampDown: '10s',
+    },
+  },
+  thresholds: {
+    checks: ['rate>0.99'],
+  },
+};
+
+const QUERIES = [
+  'inteligencia artificial',
+  'seguridad informática',
+  'desarrollo web',
+  'computación cuántica',
+  'ciencia de datos',
+];
+
+const HEADERS = {
+  'Content-Type': 'application/json',
+  Accept: 'application/json, text/event-stream',
+};
+
+function rpc(sessionId, id, method, params) {
+  const headers = sessionId ? Object.assign({ 'Mcp-Session-Id': sessionId }, HEADERS) : HEADERS;
+  return http.post(
+    `${BASE_URL}/mcp`,
+    JSON.stringify({ jsonrpc: '2.0', id, method, params }),
+    { headers, tags: { name: params && params.name ? params.name : method } },
+  );
+}
+
+export function setup() {
+  const init = rpc(null, 0, 'initialize', {
+    protocolVersion: '2025-03-26',
+    capabilities: {},
+    clientInfo: { name: 'k6', version: '1.0' },
+  });
+  check(init, { initialized: (r) => r.status === 200 });
+  const sessionId = init.headers['Mcp-Session-Id'];
+  http.post(
+    `${BASE_URL}/mcp`,
+    JSON.stringify({ jsonrpc: '2.0', method: 'notifications/initialized' }),
+    { headers: Object.assign({ 'Mcp-Session-Id': sessionId }, HEADERS) },
+  );
+  return { sessionId };
+}
+
+function callTool(sessionId, name, args) {
+  const res = rpc(sessionId, __ITER, 'tools/call', { name, arguments: args });
+  check(res, {
+    [`${name} ok`]: (r) => r.status === 200 && !String(r.body).includes('"isError":true'),
+  });
+}
+
+export default function (data) {
+  const pick = __ITER % 5;
+  if (pick === 0) {
+    callTool(data.sessionId, 'event.agenda.list', { year: YEAR });
+  } else if (pick === 1) {
+    callTool(data.sessionId, 'session.find.by_time', {
+      year: YEAR,
+      at: `${YEAR}-10-15T10:00:00-05:00`,
+    });
+  } else if (pick === 2) {
+    callTool(data.sessionId, 'session.search.semantic', {
+      year: YEAR,
+      query: QUERIES[__ITER % QUERIES.length],
+      topK: 5,
+    });
+  } else if (pick === 3) {
+    callTool(data.sessionId, 'speaker.search.semantic', {
+      query: QUERIES[(__ITER + 1) % QUERIES.length],
+      topK: 5,
+    });
+  } else {
+    const res = http.get(`${BASE_URL}/api/sessions?limit=100`, { tags: { name: 'GET /api/sessions' } });
+    check(res, { 'sessions page ok': (r) => r.status === 200 });
+  }
+}
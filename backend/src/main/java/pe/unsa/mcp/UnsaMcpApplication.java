@@ -2,11 +2,14 @@ package pe.unsa.mcp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import pe.unsa.mcp.config.ReactorVirtualThreads;
 
 @SpringBootApplication
 public class UnsaMcpApplication {
 
   public static void main(String[] args) {
-    SpringApplication.run(UnsaMcpApplication.class, args);
+    SpringApplication application = new SpringApplication(UnsaMcpApplication.class);
+    application.addListeners(new ReactorVirtualThreads());
+    application.run(args);
   }
-}
\ No newline at end of file
+}
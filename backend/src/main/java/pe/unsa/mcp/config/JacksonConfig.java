@@ -0,0 +1,52 @@
+package pe.unsa.mcp.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.std.PrimitiveArrayDeserializers;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pe.unsa.mcp.dto.VectorCodec;
+
+import java.io.IOException;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Lets every {@code float[]} in a request body, such as an embedding or a search query, be sent
+     * either as a JSON number array or as a base64 string of little-endian float32 bytes.
+     */
+    @Bean
+    public Module vectorModule() {
+        SimpleModule module = new SimpleModule("vectors");
+        module.addDeserializer(float[].class, new VectorDeserializer());
+        return module;
+    }
+
+    static final class VectorDeserializer extends StdDeserializer<float[]> {
+
+        private final JsonDeserializer<?> numbers = PrimitiveArrayDeserializers.forType(Float.TYPE);
+
+        VectorDeserializer() {
+            super(float[].class);
+        }
+
+        @Override
+        public float[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (float[]) numbers.deserialize(parser, context);
+            }
+            String encoded = parser.getText();
+            try {
+                return VectorCodec.fromBase64(encoded);
+            } catch (IllegalArgumentException e) {
+                throw context.weirdStringException(encoded, float[].class, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package pe.unsa.mcp.config;
+
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * The MCP server runs synchronous tool methods on Reactor's boundedElastic scheduler. When
+ * {@code spring.threads.virtual.enabled} is set, that scheduler is switched to virtual threads as
+ * well, so tool calls block the same way servlet requests do. Reactor reads the flag once, when
+ * {@code Schedulers} is first loaded, hence a listener registered before the context starts.
+ */
+public class ReactorVirtualThreads
+        implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    static final String BOUNDED_ELASTIC_ON_VIRTUAL_THREADS =
+            "reactor.schedulers.defaultBoundedElasticOnVirtualThreads";
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        boolean virtual = event.getEnvironment()
+                .getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        // An explicit -D flag wins
+        if (virtual && System.getProperty(BOUNDED_ELASTIC_ON_VIRTUAL_THREADS) == null) {
+            System.setProperty(BOUNDED_ELASTIC_ON_VIRTUAL_THREADS, "true");
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package pe.unsa.mcp.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unsa.mcp.services.EditionImportService;
+import pe.unsa.mcp.services.EditionImportService.EditionImportReport;
+
+@RestController
+@RequestMapping("/api/events")
+public class EditionImportController {
+
+  private final EditionImportService editionImportService;
+
+  public EditionImportController(EditionImportService editionImportService) {
+    this.editionImportService = editionImportService;
+  }
+
+  /** The body is the whole edition file; it is parsed as it arrives. */
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<EditionImportReport> importEdition(InputStream body) throws IOException {
+    try {
+      return ResponseEntity.status(HttpStatus.CREATED)
+          .body(editionImportService.importEdition(body));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package pe.unsa.mcp.controller;
+
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unsa.mcp.services.EmbeddingJobQueue;
+
+@RestController
+@RequestMapping("/api/embedding-jobs")
+public class EmbeddingJobController {
+
+  private final EmbeddingJobQueue embeddingJobQueue;
+
+  public EmbeddingJobController(EmbeddingJobQueue embeddingJobQueue) {
+    this.embeddingJobQueue = embeddingJobQueue;
+  }
+
+  @GetMapping("/stats")
+  public ResponseEntity<EmbeddingJobQueue.Stats> getStats() {
+    return ResponseEntity.ok(embeddingJobQueue.stats());
+  }
+
+  @PostMapping("/retry-failed")
+  public ResponseEntity<Map<String, Integer>> retryFailed() {
+    return ResponseEntity.ok(Map.of("requeued", embeddingJobQueue.retryFailed()));
+  }
+}
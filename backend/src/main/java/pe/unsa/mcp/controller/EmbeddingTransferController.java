@@ -0,0 +1,54 @@
+package pe.unsa.mcp.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pe.unsa.mcp.services.EmbeddingTransferService;
+import pe.unsa.mcp.services.EmbeddingTransferService.Format;
+import pe.unsa.mcp.services.EmbeddingTransferService.ImportReport;
+
+@RestController
+@RequestMapping("/api/embeddings")
+public class EmbeddingTransferController {
+
+  private final EmbeddingTransferService transferService;
+
+  public EmbeddingTransferController(EmbeddingTransferService transferService) {
+    this.transferService = transferService;
+  }
+
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(defaultValue = "binary") Format format,
+      @RequestParam(defaultValue = "true") boolean gzip) {
+    String filename =
+        "embeddings." + (format == Format.binary ? "pgcopy" : "ndjson") + (gzip ? ".gz" : "");
+    StreamingResponseBody body = out -> transferService.export(format, gzip, out);
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename).build().toString())
+        .body(body);
+  }
+
+  /** The request body is the exported file, gzip-compressed or not. */
+  @PostMapping("/import")
+  public ResponseEntity<ImportReport> importEmbeddings(
+      @RequestParam(defaultValue = "binary") Format format, InputStream body) throws IOException {
+    try {
+      return ResponseEntity.ok(transferService.importFrom(format, body));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
@@ -2,12 +2,18 @@ package pe.unsa.mcp.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pe.unsa.mcp.dto.EntityEmbeddingRequest;
 import pe.unsa.mcp.dto.EntityEmbeddingResponse;
+import pe.unsa.mcp.dto.PageResponse;
+import pe.unsa.mcp.dto.VectorCodec;
+import pe.unsa.mcp.dto.VectorFormat;
 import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
 import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.search.SearchTuning;
 import pe.unsa.mcp.services.EntityEmbeddingService;
 
 import java.util.List;
@@ -18,32 +24,58 @@ import java.util.UUID;
 public class EntityEmbeddingController {
 
     private final EntityEmbeddingService embeddingService;
+    private final NdjsonResponses ndjsonResponses;
 
-    public EntityEmbeddingController(EntityEmbeddingService embeddingService) {
+    public EntityEmbeddingController(EntityEmbeddingService embeddingService, NdjsonResponses ndjsonResponses) {
         this.embeddingService = embeddingService;
+        this.ndjsonResponses = ndjsonResponses;
     }
 
     @GetMapping
-    public ResponseEntity<List<EntityEmbeddingResponse>> getAllEmbeddings() {
-        List<EntityEmbeddingResponse> embeddings = embeddingService.findAll();
-        return ResponseEntity.ok(embeddings);
+    public ResponseEntity<PageResponse<EntityEmbeddingResponse>> getEmbeddings(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "${mcp.api.page-size:100}") int limit,
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
+        if (limit <= 0 || limit > PageResponse.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(embeddingService.findPage(after, limit, vector));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmbeddings(
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
+        return ndjsonResponses.stream(consumer -> embeddingService.streamAll(vector, consumer));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<EntityEmbeddingResponse> getEmbeddingById(@PathVariable UUID id) {
+    public ResponseEntity<EntityEmbeddingResponse> getEmbeddingById(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
         try {
-            EntityEmbeddingResponse embedding = embeddingService.findById(id);
+            EntityEmbeddingResponse embedding = embeddingService.findById(id, vector);
             return ResponseEntity.ok(embedding);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /** The raw vector as little-endian float32 bytes. */
+    @GetMapping(value = "/{id}/vector", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> getEmbeddingVector(@PathVariable UUID id) {
+        try {
+            return ResponseEntity.ok(VectorCodec.toBytes(embeddingService.findVector(id)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/entity/{entityType}/{entityId}")
     public ResponseEntity<List<EntityEmbeddingResponse>> getEmbeddingsByEntity(
             @PathVariable EntityType entityType,
-            @PathVariable UUID entityId) {
-        List<EntityEmbeddingResponse> embeddings = embeddingService.findByEntity(entityType, entityId);
+            @PathVariable UUID entityId,
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
+        List<EntityEmbeddingResponse> embeddings = embeddingService.findByEntity(entityType, entityId, vector);
         return ResponseEntity.ok(embeddings);
     }
 
@@ -51,22 +83,56 @@ public class EntityEmbeddingController {
     public ResponseEntity<EntityEmbeddingResponse> getEmbeddingByEntityAndField(
             @PathVariable EntityType entityType,
             @PathVariable UUID entityId,
-            @PathVariable EmbeddingField field) {
+            @PathVariable EmbeddingField field,
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
         try {
-            EntityEmbeddingResponse embedding = embeddingService.findByEntityAndField(entityType, entityId, field);
+            EntityEmbeddingResponse embedding =
+                    embeddingService.findByEntityAndField(entityType, entityId, field, vector);
             return ResponseEntity.ok(embedding);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
-    @PostMapping("/search")
+    /** The query is a JSON number array or a base64 string of little-endian float32 bytes. */
+    @PostMapping(value = "/search", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<EntityEmbeddingResponse>> searchSimilarEmbeddings(
             @RequestParam EntityType entityType,
             @RequestBody float[] queryEmbedding,
-            @RequestParam(defaultValue = "10") int limit) {
-        List<EntityEmbeddingResponse> embeddings = embeddingService.findSimilar(entityType, queryEmbedding, limit);
-        return ResponseEntity.ok(embeddings);
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer efSearch,
+            @RequestParam(required = false) Integer probes,
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
+        return search(entityType, queryEmbedding, limit, efSearch, probes, vector);
+    }
+
+    /** The query as raw little-endian float32 bytes. */
+    @PostMapping(value = "/search", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<List<EntityEmbeddingResponse>> searchSimilarEmbeddingsBinary(
+            @RequestParam EntityType entityType,
+            @RequestBody byte[] queryEmbedding,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) Integer efSearch,
+            @RequestParam(required = false) Integer probes,
+            @RequestParam(defaultValue = "none") VectorFormat vector) {
+        try {
+            return search(entityType, VectorCodec.fromBytes(queryEmbedding), limit, efSearch, probes, vector);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ResponseEntity<List<EntityEmbeddingResponse>> search(EntityType entityType, float[] queryEmbedding,
+                                                                 int limit, Integer efSearch, Integer probes,
+                                                                 VectorFormat vector) {
+        try {
+            SearchTuning tuning = new SearchTuning(efSearch, probes);
+            List<EntityEmbeddingResponse> embeddings =
+                    embeddingService.findSimilar(entityType, queryEmbedding, limit, tuning, vector);
+            return ResponseEntity.ok(embeddings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -2,13 +2,15 @@ package pe.unsa.mcp.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pe.unsa.mcp.dto.EventRequest;
 import pe.unsa.mcp.dto.EventResponse;
+import pe.unsa.mcp.dto.PageResponse;
 import pe.unsa.mcp.services.EventService;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -16,15 +18,26 @@ import java.util.UUID;
 public class EventController {
 
     private final EventService eventService;
+    private final NdjsonResponses ndjsonResponses;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, NdjsonResponses ndjsonResponses) {
         this.eventService = eventService;
+        this.ndjsonResponses = ndjsonResponses;
     }
 
     @GetMapping
-    public ResponseEntity<List<EventResponse>> getAllEvents() {
-        List<EventResponse> events = eventService.findAll();
-        return ResponseEntity.ok(events);
+    public ResponseEntity<PageResponse<EventResponse>> getEvents(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "${mcp.api.page-size:100}") int limit) {
+        if (limit <= 0 || limit > PageResponse.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(eventService.findPage(after, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEvents() {
+        return ndjsonResponses.stream(eventService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,58 @@
+package pe.unsa.mcp.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Newline-delimited JSON responses written while the rows are read, so a whole table can be
+ * exported without holding it on the heap. The source runs on the async request thread and
+ * must open its own transaction.
+ */
+@Component
+public class NdjsonResponses {
+
+  private static final int FLUSH_EVERY = 100;
+
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter writer;
+
+  public NdjsonResponses(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    // Flushing is batched below instead of after every row
+    this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  }
+
+  /** Stream every item the source hands to its consumer, one JSON document per line. */
+  public <T> ResponseEntity<StreamingResponseBody> stream(Consumer<Consumer<T>> source) {
+    StreamingResponseBody body =
+        out -> {
+          try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            int[] written = {0};
+            source.accept(
+                item -> {
+                  try {
+                    writer.writeValue(generator, item);
+                    if (++written[0] % FLUSH_EVERY == 0) {
+                      generator.flush();
+                    }
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+            generator.writeRaw('\n');
+          }
+        };
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+}
@@ -0,0 +1,40 @@
+package pe.unsa.mcp.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unsa.mcp.services.QueryEmbeddingCache;
+
+@RestController
+@RequestMapping("/api/query-embedding-cache")
+public class QueryEmbeddingCacheController {
+
+  private final QueryEmbeddingCache queryEmbeddingCache;
+
+  public QueryEmbeddingCacheController(QueryEmbeddingCache queryEmbeddingCache) {
+    this.queryEmbeddingCache = queryEmbeddingCache;
+  }
+
+  @GetMapping("/stats")
+  public ResponseEntity<QueryEmbeddingCache.Stats> getStats() {
+    return ResponseEntity.ok(queryEmbeddingCache.stats());
+  }
+
+  @DeleteMapping
+  public ResponseEntity<Void> clearMemory() {
+    queryEmbeddingCache.clearMemory();
+    return ResponseEntity.noContent().build();
+  }
+
+  @DeleteMapping("/persistent")
+  public ResponseEntity<Map<String, Integer>> evictPersistent(
+      @RequestParam(defaultValue = "30") int unusedForDays) {
+    int removed = queryEmbeddingCache.evictPersistent(Duration.ofDays(unusedForDays));
+    return ResponseEntity.ok(Map.of("removed", removed));
+  }
+}
@@ -0,0 +1,71 @@
+package pe.unsa.mcp.controller;
+
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unsa.mcp.model.ReembedRun.Mode;
+import pe.unsa.mcp.services.ReembedService;
+
+@RestController
+@RequestMapping("/api/reembed-runs")
+public class ReembedController {
+
+  private final ReembedService reembedService;
+
+  public ReembedController(ReembedService reembedService) {
+    this.reembedService = reembedService;
+  }
+
+  @PostMapping
+  public ResponseEntity<ReembedService.Progress> start(
+      @RequestParam(defaultValue = "missing") Mode mode) {
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(reembedService.start(mode));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+  }
+
+  @GetMapping("/latest")
+  public ResponseEntity<ReembedService.Progress> getLatest() {
+    try {
+      return ResponseEntity.ok(reembedService.latest());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<ReembedService.Progress> getProgress(@PathVariable UUID id) {
+    try {
+      return ResponseEntity.ok(reembedService.progress(id));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
+
+  @PostMapping("/{id}/cancel")
+  public ResponseEntity<Void> cancel(@PathVariable UUID id) {
+    try {
+      reembedService.cancel(id);
+      return ResponseEntity.accepted().build();
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  @PostMapping("/{id}/resume")
+  public ResponseEntity<ReembedService.Progress> resume(@PathVariable UUID id) {
+    try {
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(reembedService.resume(id));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
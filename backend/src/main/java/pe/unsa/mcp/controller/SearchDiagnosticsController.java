@@ -0,0 +1,72 @@
+package pe.unsa.mcp.controller;
+
+import java.util.List;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.VectorIndexBuild;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+import pe.unsa.mcp.search.PgVectorSearchBackend;
+import pe.unsa.mcp.search.RecallEvaluator;
+import pe.unsa.mcp.search.SearchTuning;
+import pe.unsa.mcp.search.VectorIndexMaintenance;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchDiagnosticsController {
+
+  private final RecallEvaluator recallEvaluator;
+  private final PgVectorSearchBackend pgVectorBackend;
+  private final VectorIndexMaintenance indexMaintenance;
+
+  public SearchDiagnosticsController(
+      RecallEvaluator recallEvaluator,
+      PgVectorSearchBackend pgVectorBackend,
+      VectorIndexMaintenance indexMaintenance) {
+    this.recallEvaluator = recallEvaluator;
+    this.pgVectorBackend = pgVectorBackend;
+    this.indexMaintenance = indexMaintenance;
+  }
+
+  /** Recall@k of the approximate pgvector path against an exact scan. */
+  @GetMapping("/recall")
+  public ResponseEntity<RecallEvaluator.RecallReport> getRecall(
+      @RequestParam(defaultValue = "session") EntityType entityType,
+      @RequestParam(required = false) VectorStorage storage,
+      @RequestParam(required = false) Integer efSearch,
+      @RequestParam(required = false) Integer probes,
+      @RequestParam(defaultValue = "10") int k,
+      @RequestParam(defaultValue = "50") int samples) {
+    if (k <= 0 || samples <= 0 || samples > 1000) {
+      return ResponseEntity.badRequest().build();
+    }
+    try {
+      SearchTuning tuning = new SearchTuning(efSearch, probes);
+      VectorStorage effective = storage != null ? storage : pgVectorBackend.storage();
+      return ResponseEntity.ok(recallEvaluator.evaluate(entityType, effective, tuning, k, samples));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /** Recent IVFFlat rebuilds with recall and latency before and after each. */
+  @GetMapping("/index-builds")
+  public ResponseEntity<List<VectorIndexBuild>> getIndexBuilds() {
+    return ResponseEntity.ok(indexMaintenance.history());
+  }
+
+  /** Retrain the IVFFlat index now; blocks until the rebuild and measurements finish. */
+  @PostMapping("/index-builds")
+  public ResponseEntity<VectorIndexBuild> rebuildIndex(
+      @RequestParam(defaultValue = "full") VectorStorage storage) {
+    try {
+      return ResponseEntity.ok(indexMaintenance.rebuild(storage));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
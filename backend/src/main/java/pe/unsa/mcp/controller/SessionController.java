@@ -2,8 +2,11 @@ package pe.unsa.mcp.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pe.unsa.mcp.dto.PageResponse;
 import pe.unsa.mcp.dto.SessionRequest;
 import pe.unsa.mcp.dto.SessionResponse;
 import pe.unsa.mcp.services.SessionService;
@@ -16,15 +19,26 @@ import java.util.UUID;
 public class SessionController {
 
     private final SessionService sessionService;
+    private final NdjsonResponses ndjsonResponses;
 
-    public SessionController(SessionService sessionService) {
+    public SessionController(SessionService sessionService, NdjsonResponses ndjsonResponses) {
         this.sessionService = sessionService;
+        this.ndjsonResponses = ndjsonResponses;
     }
 
     @GetMapping
-    public ResponseEntity<List<SessionResponse>> getAllSessions() {
-        List<SessionResponse> sessions = sessionService.findAll();
-        return ResponseEntity.ok(sessions);
+    public ResponseEntity<PageResponse<SessionResponse>> getSessions(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "${mcp.api.page-size:100}") int limit) {
+        if (limit <= 0 || limit > PageResponse.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(sessionService.findPage(after, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSessions() {
+        return ndjsonResponses.stream(sessionService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -2,8 +2,11 @@ package pe.unsa.mcp.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pe.unsa.mcp.dto.PageResponse;
 import pe.unsa.mcp.dto.SpeakerRequest;
 import pe.unsa.mcp.dto.SpeakerResponse;
 import pe.unsa.mcp.services.SpeakerService;
@@ -16,15 +19,26 @@ import java.util.UUID;
 public class SpeakerController {
 
     private final SpeakerService speakerService;
+    private final NdjsonResponses ndjsonResponses;
 
-    public SpeakerController(SpeakerService speakerService) {
+    public SpeakerController(SpeakerService speakerService, NdjsonResponses ndjsonResponses) {
         this.speakerService = speakerService;
+        this.ndjsonResponses = ndjsonResponses;
     }
 
     @GetMapping
-    public ResponseEntity<List<SpeakerResponse>> getAllSpeakers() {
-        List<SpeakerResponse> speakers = speakerService.findAll();
-        return ResponseEntity.ok(speakers);
+    public ResponseEntity<PageResponse<SpeakerResponse>> getSpeakers(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "${mcp.api.page-size:100}") int limit) {
+        if (limit <= 0 || limit > PageResponse.MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(speakerService.findPage(after, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSpeakers() {
+        return ndjsonResponses.stream(speakerService::streamAll);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,30 @@
+package pe.unsa.mcp.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pe.unsa.mcp.services.ToolResultCache;
+
+@RestController
+@RequestMapping("/api/tool-cache")
+public class ToolResultCacheController {
+
+  private final ToolResultCache toolResultCache;
+
+  public ToolResultCacheController(ToolResultCache toolResultCache) {
+    this.toolResultCache = toolResultCache;
+  }
+
+  @GetMapping("/stats")
+  public ResponseEntity<ToolResultCache.Stats> getStats() {
+    return ResponseEntity.ok(toolResultCache.stats());
+  }
+
+  @DeleteMapping
+  public ResponseEntity<Void> clear() {
+    toolResultCache.clear();
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -1,5 +1,6 @@
 package pe.unsa.mcp.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
 import pe.unsa.mcp.model.EntityEmbedding.EmbeddingModel;
 import pe.unsa.mcp.model.EntityEmbedding.EntityType;
@@ -7,15 +8,16 @@ import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+/** At most one of {@code embedding} and {@code embeddingBase64} is set, per {@link VectorFormat}. */
 public record EntityEmbeddingResponse(
     UUID id,
     EntityType entityType,
     UUID entityId,
     EmbeddingField field,
-    float[] embedding,
+    @JsonInclude(JsonInclude.Include.NON_NULL) float[] embedding,
+    @JsonInclude(JsonInclude.Include.NON_NULL) String embeddingBase64,
     EmbeddingModel model,
     Integer dim,
     OffsetDateTime createdAt
 ) {
 }
-
@@ -0,0 +1,24 @@
+package pe.unsa.mcp.dto;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One page of a collection in id order. {@code nextCursor} is the id to pass as {@code after} for
+ * the following page, or null on the last page.
+ */
+public record PageResponse<T>(
+    List<T> items,
+    UUID nextCursor
+) {
+    public static final int MAX_LIMIT = 1000;
+
+    /** Cursor that sorts before every UUID, used when no {@code after} is given. */
+    public static final UUID START = new UUID(0L, 0L);
+
+    public static <T> PageResponse<T> of(List<T> items, int limit, Function<T, UUID> id) {
+        UUID next = items.size() == limit ? id.apply(items.get(items.size() - 1)) : null;
+        return new PageResponse<>(items, next);
+    }
+}
@@ -0,0 +1,36 @@
+package pe.unsa.mcp.dto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+/** Compact wire encoding of embedding vectors: little-endian float32, raw or base64. */
+public final class VectorCodec {
+
+    private VectorCodec() {
+    }
+
+    public static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    public static float[] fromBytes(byte[] bytes) {
+        if (bytes.length == 0 || bytes.length % Float.BYTES != 0) {
+            throw new IllegalArgumentException("Vector bytes must be a non-empty multiple of 4");
+        }
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public static String toBase64(float[] vector) {
+        return Base64.getEncoder().encodeToString(toBytes(vector));
+    }
+
+    /** Throws IllegalArgumentException on malformed base64 or a length that is not whole floats. */
+    public static float[] fromBase64(String encoded) {
+        return fromBytes(Base64.getDecoder().decode(encoded));
+    }
+}
@@ -0,0 +1,12 @@
+package pe.unsa.mcp.dto;
+
+/**
+ * How embedding responses carry the vector. {@code none} returns metadata only and skips reading
+ * the vector column; {@code base64} writes the little-endian float32 bytes, about a quarter of the
+ * size of the JSON number array.
+ */
+public enum VectorFormat {
+    none,
+    json,
+    base64
+}
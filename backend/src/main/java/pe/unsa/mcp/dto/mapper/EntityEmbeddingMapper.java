@@ -2,7 +2,10 @@ package pe.unsa.mcp.dto.mapper;
 
 import pe.unsa.mcp.dto.EntityEmbeddingRequest;
 import pe.unsa.mcp.dto.EntityEmbeddingResponse;
+import pe.unsa.mcp.dto.VectorCodec;
+import pe.unsa.mcp.dto.VectorFormat;
 import pe.unsa.mcp.model.EntityEmbedding;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository.EmbeddingSummary;
 
 public class EntityEmbeddingMapper {
 
@@ -17,19 +20,35 @@ public class EntityEmbeddingMapper {
         return embedding;
     }
 
-    public static EntityEmbeddingResponse toResponse(EntityEmbedding embedding) {
+    public static EntityEmbeddingResponse toResponse(EntityEmbedding embedding, VectorFormat format) {
+        float[] vector = embedding.getEmbedding();
         return new EntityEmbeddingResponse(
             embedding.getId(),
             embedding.getEntityType(),
             embedding.getEntityId(),
             embedding.getField(),
-            embedding.getEmbedding(),
+            format == VectorFormat.json ? vector : null,
+            format == VectorFormat.base64 ? VectorCodec.toBase64(vector) : null,
             embedding.getModel(),
             embedding.getDim(),
             embedding.getCreatedAt()
         );
     }
 
+    public static EntityEmbeddingResponse toResponse(EmbeddingSummary summary) {
+        return new EntityEmbeddingResponse(
+            summary.getId(),
+            summary.getEntityType(),
+            summary.getEntityId(),
+            summary.getField(),
+            null,
+            null,
+            summary.getModel(),
+            summary.getDim(),
+            summary.getCreatedAt()
+        );
+    }
+
     public static void updateEntity(EntityEmbedding embedding, EntityEmbeddingRequest request) {
         embedding.setEntityType(request.entityType());
         embedding.setEntityId(request.entityId());
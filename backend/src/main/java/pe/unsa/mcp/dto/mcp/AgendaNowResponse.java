@@ -1,6 +1,13 @@
 package pe.unsa.mcp.dto.mcp;
 
+import java.util.List;
+
+/**
+ * {@code current} is the earliest-starting session in progress; {@code ongoing} lists every
+ * session in progress when several tracks run in parallel.
+ */
 public record AgendaNowResponse(
     SessionDetailResponse current,
-    SessionDetailResponse next
+    SessionDetailResponse next,
+    List<SessionDetailResponse> ongoing
 ) {}
@@ -0,0 +1,60 @@
+package pe.unsa.mcp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "embedding_jobs", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"entity_type", "entity_id"})
+})
+public class EmbeddingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, columnDefinition = "text")
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private UUID entityId;
+
+    @Column(nullable = false)
+    private Long generation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "text")
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private OffsetDateTime lockedUntil;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime updatedAt;
+
+    public enum Status {
+        pending,
+        running,
+        failed
+    }
+}
@@ -3,9 +3,11 @@ package pe.unsa.mcp.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Type;
 import org.hibernate.annotations.CreationTimestamp;
 import pe.unsa.mcp.model.converter.EmbeddingFieldConverter;
 import pe.unsa.mcp.model.converter.EmbeddingModelConverter;
+import pe.unsa.mcp.model.converter.PgVectorType;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
@@ -33,7 +35,8 @@ public class EntityEmbedding {
     @Column(nullable = false, columnDefinition = "text")
     private EmbeddingField field;
 
-    @Column(nullable = false, columnDefinition = "vector(1536)")
+    @Type(PgVectorType.class)
+    @Column(nullable = false, columnDefinition = "vector")
     private float[] embedding;
 
     @Convert(converter = EmbeddingModelConverter.class)
@@ -43,6 +46,9 @@ public class EntityEmbedding {
     @Column(nullable = false)
     private Integer dim;
 
+    @Column(name = "content_hash", columnDefinition = "text")
+    private String contentHash;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private OffsetDateTime createdAt;
@@ -0,0 +1,42 @@
+package pe.unsa.mcp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Type;
+import pe.unsa.mcp.model.converter.PgVectorType;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "query_embedding_cache")
+public class QueryEmbedding {
+
+    @Id
+    @Column(name = "cache_key", columnDefinition = "text")
+    private String cacheKey;
+
+    @Column(name = "query_text", nullable = false, columnDefinition = "text")
+    private String queryText;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String model;
+
+    @Column(nullable = false)
+    private Integer dim;
+
+    @Type(PgVectorType.class)
+    @Column(nullable = false, columnDefinition = "vector")
+    private float[] embedding;
+
+    @Column(nullable = false)
+    private Long hits;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime lastUsedAt;
+}
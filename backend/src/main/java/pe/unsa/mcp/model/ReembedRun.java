@@ -0,0 +1,82 @@
+package pe.unsa.mcp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "reembed_runs")
+public class ReembedRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "text")
+    private Mode mode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "text")
+    private Status status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "text")
+    private EntityType phase;
+
+    @Column(name = "cursor_id", nullable = false)
+    private UUID cursorId;
+
+    @Column(name = "total_speakers", nullable = false)
+    private Long totalSpeakers;
+
+    @Column(name = "total_sessions", nullable = false)
+    private Long totalSessions;
+
+    @Column(nullable = false)
+    private Long processed;
+
+    @Column(name = "embedded_fields", nullable = false)
+    private Long embeddedFields;
+
+    @Column(nullable = false)
+    private Long failed;
+
+    @Column(nullable = false)
+    private Long requests;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private OffsetDateTime startedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    public enum Mode {
+        /** Entities without an embedding for every field, or whose text changed since. */
+        missing,
+        all
+    }
+
+    public enum Status {
+        running,
+        completed,
+        cancelled,
+        failed
+    }
+}
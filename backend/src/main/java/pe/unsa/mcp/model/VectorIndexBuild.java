@@ -0,0 +1,78 @@
+package pe.unsa.mcp.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "vector_index_builds")
+public class VectorIndexBuild {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "index_name", nullable = false, columnDefinition = "text")
+    private String indexName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "text")
+    private Reason reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "text")
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer lists;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "changed_rows", nullable = false)
+    private Long changedRows;
+
+    @Column(name = "recall_before")
+    private Double recallBefore;
+
+    @Column(name = "recall_after")
+    private Double recallAfter;
+
+    @Column(name = "latency_before_ms")
+    private Double latencyBeforeMs;
+
+    @Column(name = "latency_after_ms")
+    private Double latencyAfterMs;
+
+    @Column(name = "build_ms")
+    private Long buildMs;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    public enum Reason {
+        /** First maintenance pass; the migration built the index before any data was loaded. */
+        initial,
+        drift,
+        manual
+    }
+
+    public enum Status {
+        running,
+        completed,
+        failed
+    }
+}
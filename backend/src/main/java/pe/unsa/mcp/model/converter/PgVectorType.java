@@ -0,0 +1,123 @@
+package pe.unsa.mcp.model.converter;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Maps {@code float[]} to a pgvector column. Values are bound as a primitive {@code float[]},
+ * which the PostgreSQL driver sends as a binary {@code real[]}; pgvector's assignment cast turns
+ * it into a vector without building or parsing a text literal.
+ */
+public class PgVectorType implements UserType<float[]> {
+
+    @Override
+    public int getSqlType() {
+        return Types.OTHER;
+    }
+
+    @Override
+    public Class<float[]> returnedClass() {
+        return float[].class;
+    }
+
+    @Override
+    public boolean equals(float[] x, float[] y) {
+        return Arrays.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(float[] x) {
+        return Arrays.hashCode(x);
+    }
+
+    @Override
+    public float[] nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session,
+                               Object owner) throws SQLException {
+        Object value = rs.getObject(position);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Array array) {
+            return toFloats(array);
+        }
+        return parse(value.toString());
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, float[] value, int index,
+                            SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+        } else {
+            st.setObject(index, value);
+        }
+    }
+
+    @Override
+    public float[] deepCopy(float[] value) {
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(float[] value) {
+        return deepCopy(value);
+    }
+
+    @Override
+    public float[] assemble(Serializable cached, Object owner) {
+        return deepCopy((float[]) cached);
+    }
+
+    /** Reads a {@code real[]} result, e.g. from a column selected as {@code embedding::real[]}. */
+    public static float[] toFloats(Array array) throws SQLException {
+        Object values = array.getArray();
+        if (values instanceof float[] floats) {
+            return floats;
+        }
+        Object[] boxed = (Object[]) values;
+        float[] vector = new float[boxed.length];
+        for (int i = 0; i < boxed.length; i++) {
+            vector[i] = ((Number) boxed[i]).floatValue();
+        }
+        return vector;
+    }
+
+    /** Parses pgvector's text output {@code [1,2,3]}. */
+    public static float[] parse(String text) {
+        int end = text.length() - 1;
+        if (end < 1 || text.charAt(0) != '[' || text.charAt(end) != ']') {
+            throw new IllegalArgumentException("Not a vector literal");
+        }
+        if (end == 1) {
+            return new float[0];
+        }
+        int count = 1;
+        for (int i = 1; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                count++;
+            }
+        }
+        float[] vector = new float[count];
+        int start = 1;
+        for (int i = 0; i < count; i++) {
+            int comma = text.indexOf(',', start);
+            int stop = comma < 0 || comma > end ? end : comma;
+            vector[i] = Float.parseFloat(text.substring(start, stop).trim());
+            start = stop + 1;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,109 @@
+package pe.unsa.mcp.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import pe.unsa.mcp.model.EmbeddingJob;
+
+@Repository
+public interface EmbeddingJobRepository extends JpaRepository<EmbeddingJob, UUID> {
+
+  /**
+   * Shared ON CONFLICT clause: a job that already exists is bumped to a new generation. A running
+   * job keeps its lease; the worker notices the generation change when it completes and requeues.
+   */
+  String COALESCE_ON_CONFLICT =
+      " ON CONFLICT (entity_type, entity_id) DO UPDATE SET"
+          + " generation = embedding_jobs.generation + 1,"
+          + " status = CASE WHEN embedding_jobs.status = 'running' THEN 'running' ELSE 'pending'"
+          + " END,"
+          + " attempts = 0, next_attempt_at = now(), last_error = NULL, updated_at = now()";
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO embedding_jobs (entity_type, entity_id) VALUES (:entityType, :entityId)"
+              + COALESCE_ON_CONFLICT,
+      nativeQuery = true)
+  int enqueue(@Param("entityType") String entityType, @Param("entityId") UUID entityId);
+
+  @Modifying
+  @Query(
+      value =
+          "INSERT INTO embedding_jobs (entity_type, entity_id)"
+              + " SELECT 'session', s.id FROM sessions s WHERE s.speaker_id = :speakerId"
+              + COALESCE_ON_CONFLICT,
+      nativeQuery = true)
+  int enqueueSessionsOfSpeaker(@Param("speakerId") UUID speakerId);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM embedding_jobs WHERE entity_type = :entityType"
+              + " AND entity_id = :entityId",
+      nativeQuery = true)
+  int cancel(@Param("entityType") String entityType, @Param("entityId") UUID entityId);
+
+  /** Due jobs, plus running jobs whose worker lease expired. Must run inside a transaction. */
+  @Query(
+      value =
+          "SELECT * FROM embedding_jobs"
+              + " WHERE (status = 'pending' AND next_attempt_at <= now())"
+              + " OR (status = 'running' AND locked_until < now())"
+              + " ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<EmbeddingJob> lockDueJobs(@Param("limit") int limit);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE embedding_jobs SET status = 'running', locked_until = :lockedUntil,"
+              + " updated_at = now() WHERE id IN (:ids)",
+      nativeQuery = true)
+  int markRunning(@Param("ids") List<UUID> ids, @Param("lockedUntil") OffsetDateTime lockedUntil);
+
+  /** Removes the job only if no newer edit arrived while it was running. */
+  @Modifying
+  @Query(
+      value = "DELETE FROM embedding_jobs WHERE id = :id AND generation = :generation",
+      nativeQuery = true)
+  int complete(@Param("id") UUID id, @Param("generation") long generation);
+
+  /** Hands a job superseded by a newer edit back to the queue. */
+  @Modifying
+  @Query(
+      value =
+          "UPDATE embedding_jobs SET status = 'pending', locked_until = NULL, updated_at = now()"
+              + " WHERE id = :id AND status = 'running'",
+      nativeQuery = true)
+  int release(@Param("id") UUID id);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE embedding_jobs SET status = :status, attempts = attempts + 1,"
+              + " next_attempt_at = :nextAttemptAt, locked_until = NULL, last_error = :error,"
+              + " updated_at = now() WHERE id = :id AND generation = :generation",
+      nativeQuery = true)
+  int fail(
+      @Param("id") UUID id,
+      @Param("generation") long generation,
+      @Param("status") String status,
+      @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+      @Param("error") String error);
+
+  @Modifying
+  @Query(
+      value =
+          "UPDATE embedding_jobs SET status = 'pending', attempts = 0, next_attempt_at = now(),"
+              + " updated_at = now() WHERE status = 'failed'",
+      nativeQuery = true)
+  int retryFailed();
+
+  long countByStatus(EmbeddingJob.Status status);
+}
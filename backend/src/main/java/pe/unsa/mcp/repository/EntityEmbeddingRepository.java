@@ -1,16 +1,24 @@
 package pe.unsa.mcp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pe.unsa.mcp.model.EntityEmbedding;
 import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
+import pe.unsa.mcp.model.EntityEmbedding.EmbeddingModel;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface EntityEmbeddingRepository extends JpaRepository<EntityEmbedding, UUID> {
@@ -19,31 +27,109 @@ public interface EntityEmbeddingRepository extends JpaRepository<EntityEmbedding
 
     List<EntityEmbedding> findByEntityTypeAndEntityId(EntityType entityType, UUID entityId);
 
-    @Query(value = "WITH q AS (SELECT (:queryEmbedding)::vector AS v) " +
-                   "SELECT e.* FROM entity_embeddings e, q WHERE e.entity_type = :entityType " +
-                   "ORDER BY e.embedding <=> q.v LIMIT CAST(:limit AS int)",
-           nativeQuery = true)
-    List<EntityEmbedding> findSimilarEmbeddings(@Param("entityType") String entityType,
-                                                 @Param("queryEmbedding") String queryEmbedding,
-                                                 @Param("limit") int limit);
-    interface SimilarEmbeddingResult {
+    /** Embedding metadata; as a closed projection it is read without the vector column. */
+    interface EmbeddingSummary {
+        UUID getId();
+        EntityType getEntityType();
+        UUID getEntityId();
+        EmbeddingField getField();
+        EmbeddingModel getModel();
+        Integer getDim();
+        OffsetDateTime getCreatedAt();
+    }
+
+    List<EmbeddingSummary> findSummariesByEntityTypeAndEntityId(EntityType entityType, UUID entityId);
+
+    List<EmbeddingSummary> findSummariesByIdIn(Collection<UUID> ids);
+
+    interface ContentHashRow {
         UUID getEntityId();
-        Double getDistance();
+        String getField();
+        String getContentHash();
     }
 
-    @Query(value = "WITH q AS (SELECT (:queryEmbedding)::vector AS v) " +
-                   "SELECT e.entity_id AS entityId, MIN(e.embedding <=> q.v) AS distance " +
-                   "FROM entity_embeddings e, q WHERE e.entity_type = :entityType " +
-                   "GROUP BY e.entity_id " +
-                   "ORDER BY distance ASC LIMIT CAST(:limit AS int)",
+    @Query(value = "SELECT e.entity_id AS entityId, e.field AS field, e.content_hash AS contentHash " +
+                   "FROM entity_embeddings e WHERE e.entity_type = :entityType AND e.entity_id IN (:entityIds)",
+           nativeQuery = true)
+    List<ContentHashRow> findContentHashes(@Param("entityType") String entityType,
+                                           @Param("entityIds") Collection<UUID> entityIds);
+
+    /** One stored row per hash, used to reuse vectors of identical texts. */
+    @Query(value = "SELECT DISTINCT ON (e.content_hash) e.* FROM entity_embeddings e " +
+                   "WHERE e.content_hash IN (:hashes)",
+           nativeQuery = true)
+    List<EntityEmbedding> findOnePerContentHash(@Param("hashes") Collection<String> hashes);
+
+    /** Transaction-scoped planner setting, e.g. pgvector search parameters. */
+    @Query(value = "SELECT set_config(:name, :value, true)", nativeQuery = true)
+    String setLocalConfig(@Param("name") String name, @Param("value") String value);
+
+    /**
+     * Speakers after the keyset cursor whose bio embedding is missing, older than the speaker's
+     * last update or of another dimension than :dim. With onlyMissing = false every speaker
+     * qualifies.
+     */
+    String SPEAKERS_TO_EMBED_WHERE = """
+            FROM speakers s
+            WHERE (CAST(:onlyMissing AS boolean) = false OR NOT EXISTS (
+              SELECT 1 FROM entity_embeddings e
+              WHERE e.entity_type = 'speaker' AND e.entity_id = s.id AND e.field = 'bio'
+                AND e.dim = CAST(:dim AS int) AND e.created_at >= s.updated_at))
+            """;
+
+    /**
+     * Sessions after the keyset cursor missing any expected field (title, all, and abstract when
+     * present) at dimension :dim, or embedded before the last update of the session or its speaker.
+     */
+    String SESSIONS_TO_EMBED_WHERE = """
+            FROM sessions s
+            JOIN speakers sp ON sp.id = s.speaker_id
+            WHERE (CAST(:onlyMissing AS boolean) = false OR EXISTS (
+              SELECT 1 FROM (VALUES ('title'), ('abstract'), ('all')) AS f(field)
+              WHERE (f.field <> 'abstract' OR COALESCE(s.abstract, '') <> '')
+                AND NOT EXISTS (
+                  SELECT 1 FROM entity_embeddings e
+                  WHERE e.entity_type = 'session' AND e.entity_id = s.id AND e.field = f.field
+                    AND e.dim = CAST(:dim AS int)
+                    AND e.created_at >= GREATEST(s.updated_at, sp.updated_at))))
+            """;
+
+    @Query(value = "SELECT s.id " + SPEAKERS_TO_EMBED_WHERE + " AND s.id > :after ORDER BY s.id LIMIT CAST(:limit AS int)",
+           nativeQuery = true)
+    List<UUID> findSpeakerIdsToEmbed(@Param("onlyMissing") boolean onlyMissing,
+                                     @Param("dim") int dim,
+                                     @Param("after") UUID after,
+                                     @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) " + SPEAKERS_TO_EMBED_WHERE, nativeQuery = true)
+    long countSpeakersToEmbed(@Param("onlyMissing") boolean onlyMissing, @Param("dim") int dim);
+
+    @Query(value = "SELECT s.id " + SESSIONS_TO_EMBED_WHERE + " AND s.id > :after ORDER BY s.id LIMIT CAST(:limit AS int)",
            nativeQuery = true)
-    List<SimilarEmbeddingResult> findSimilarEntityIds(@Param("entityType") String entityType,
-                                                      @Param("queryEmbedding") String queryEmbedding,
-                                                      @Param("limit") int limit);
+    List<UUID> findSessionIdsToEmbed(@Param("onlyMissing") boolean onlyMissing,
+                                     @Param("dim") int dim,
+                                     @Param("after") UUID after,
+                                     @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) " + SESSIONS_TO_EMBED_WHERE, nativeQuery = true)
+    long countSessionsToEmbed(@Param("onlyMissing") boolean onlyMissing, @Param("dim") int dim);
 
     @Query(value = "SELECT COUNT(*) FROM entity_embeddings e WHERE e.entity_type = :entityType", nativeQuery = true)
     long countByEntityType(@Param("entityType") String entityType);
 
+    long countByDim(Integer dim);
+
+    long countByDimAndCreatedAtAfter(Integer dim, OffsetDateTime after);
+
     void deleteByEntityTypeAndEntityId(EntityType entityType, UUID entityId);
-}
 
+    List<EntityEmbedding> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<EntityEmbedding> streamAllByOrderByIdAsc();
+
+    List<EmbeddingSummary> findSummariesByIdGreaterThanOrderByIdAsc(UUID after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<EmbeddingSummary> streamSummariesByOrderByIdAsc();
+}
@@ -1,13 +1,18 @@
 package pe.unsa.mcp.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import pe.unsa.mcp.model.Event;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, UUID> {
@@ -20,5 +25,9 @@ public interface EventRepository extends JpaRepository<Event, UUID> {
 
     @Query("SELECT DISTINCT e.year FROM Event e ORDER BY e.year DESC")
     List<Integer> findAllDistinctYears();
-}
 
+    List<Event> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Event> streamAllByOrderByIdAsc();
+}
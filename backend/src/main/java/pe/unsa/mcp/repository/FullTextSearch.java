@@ -0,0 +1,21 @@
+package pe.unsa.mcp.repository;
+
+/**
+ * SQL shared by the queries over the generated {@code search_tsv} columns (V17). The text is
+ * folded with {@code f_unaccent} and parsed with both configurations the columns are built from,
+ * so a stemmed Spanish match or an exact word match is enough.
+ */
+final class FullTextSearch {
+
+  /** Derived table {@code q(tsq)} for the {@code :query} parameter. */
+  static final String QUERY_FROM =
+      "(SELECT websearch_to_tsquery('spanish', f_unaccent(:query))"
+          + " || websearch_to_tsquery('simple', f_unaccent(:query)) AS tsq) q";
+
+  /** Same tsquery expression with a positional parameter, bound twice, for JDBC statements. */
+  static final String TSQUERY_JDBC =
+      "websearch_to_tsquery('spanish', f_unaccent(?))"
+          + " || websearch_to_tsquery('simple', f_unaccent(?))";
+
+  private FullTextSearch() {}
+}
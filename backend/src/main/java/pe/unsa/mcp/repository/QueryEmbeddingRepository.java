@@ -0,0 +1,21 @@
+package pe.unsa.mcp.repository;
+
+import java.time.OffsetDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.model.QueryEmbedding;
+
+@Repository
+public interface QueryEmbeddingRepository extends JpaRepository<QueryEmbedding, String> {
+
+  @Modifying
+  @Transactional
+  @Query(
+      value = "DELETE FROM query_embedding_cache WHERE last_used_at < :cutoff",
+      nativeQuery = true)
+  int deleteUnusedSince(@Param("cutoff") OffsetDateTime cutoff);
+}
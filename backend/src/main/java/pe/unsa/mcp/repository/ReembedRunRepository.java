@@ -0,0 +1,71 @@
+package pe.unsa.mcp.repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.model.ReembedRun;
+
+/**
+ * Re-embedding runs. The lease and cancel columns are written only through the statements below,
+ * never through the entity, so saving a run's progress cannot undo a cancel or a takeover made by
+ * another node.
+ */
+@Repository
+public interface ReembedRunRepository extends JpaRepository<ReembedRun, UUID> {
+
+  List<ReembedRun> findByStatus(ReembedRun.Status status);
+
+  Optional<ReembedRun> findFirstByOrderByStartedAtDesc();
+
+  boolean existsByStatus(ReembedRun.Status status);
+
+  /** Take a running run that no node holds, or whose holder let its lease expire. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE reembed_runs SET locked_by = :node, locked_until = :until"
+              + " WHERE id = :id AND status = 'running'"
+              + " AND (locked_until IS NULL OR locked_until < now())",
+      nativeQuery = true)
+  int claim(
+      @Param("id") UUID id, @Param("node") String node, @Param("until") OffsetDateTime until);
+
+  /** Extend the lease; 0 when the node no longer holds the run. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE reembed_runs SET locked_until = :until"
+              + " WHERE id = :id AND status = 'running' AND locked_by = :node",
+      nativeQuery = true)
+  int renewLease(
+      @Param("id") UUID id, @Param("node") String node, @Param("until") OffsetDateTime until);
+
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE reembed_runs SET locked_by = NULL, locked_until = NULL, cancel_requested = false"
+              + " WHERE id = :id",
+      nativeQuery = true)
+  int release(@Param("id") UUID id);
+
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE reembed_runs SET cancel_requested = true WHERE id = :id AND status = 'running'",
+      nativeQuery = true)
+  int requestCancel(@Param("id") UUID id);
+
+  @Query(value = "SELECT cancel_requested FROM reembed_runs WHERE id = :id", nativeQuery = true)
+  boolean isCancelRequested(@Param("id") UUID id);
+}
@@ -1,12 +1,17 @@
 package pe.unsa.mcp.repository;
 
+import jakarta.persistence.QueryHint;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pe.unsa.mcp.model.Session;
@@ -41,16 +46,37 @@ public interface SessionRepository extends JpaRepository<Session, UUID> {
   Optional<Session> findNextByEventIdAndTime(
       @Param("eventId") UUID eventId, @Param("time") OffsetDateTime time);
 
+  /**
+   * Full-text match of title and abstract, best ranked first, served by the GIN index on {@code
+   * search_tsv}. {@code query} uses web search syntax: quoted phrases, {@code or}, {@code -word}.
+   */
   @Query(
-      "SELECT s FROM Session s WHERE s.event.id = :eventId AND "
-          + "(LOWER(s.title) LIKE LOWER(CONCAT('%', :query, '%')) OR "
-          + "LOWER(s.abstractText) LIKE LOWER(CONCAT('%', :query, '%')))")
+      value =
+          "SELECT s.* FROM sessions s, "
+              + FullTextSearch.QUERY_FROM
+              + " WHERE s.event_id = :eventId AND s.search_tsv @@ q.tsq"
+              + " ORDER BY ts_rank_cd(s.search_tsv, q.tsq) DESC, s.seq",
+      nativeQuery = true)
   List<Session> searchByKeyword(@Param("eventId") UUID eventId, @Param("query") String query);
 
   boolean existsByEventIdAndSpeakerId(UUID eventId, UUID speakerId);
 
   boolean existsByEventIdAndSeq(UUID eventId, Integer seq);
 
+  @Query(
+      "SELECT s.id FROM Session s WHERE s.event.id = :eventId"
+          + " AND (:day IS NULL OR s.day = :day) AND (:track IS NULL OR s.track = :track)")
+  List<UUID> findIdsByEventIdAndScope(
+      @Param("eventId") UUID eventId, @Param("day") LocalDate day, @Param("track") String track);
+
+  @Query("select s from Session s join fetch s.speaker sp where s.event.id = :eventId")
+  List<Session> findAllWithSpeakerByEventId(@Param("eventId") UUID eventId);
+
   @Query("select s from Session s join fetch s.speaker sp where s.id in :ids")
   List<Session> findAllWithSpeakerByIdIn(@Param("ids") List<UUID> ids);
+
+  List<Session> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<Session> streamAllByOrderByIdAsc();
 }
@@ -1,10 +1,15 @@
 package pe.unsa.mcp.repository;
 
+import jakarta.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import pe.unsa.mcp.model.Speaker;
@@ -14,30 +19,36 @@ public interface SpeakerRepository extends JpaRepository<Speaker, UUID> {
 
   Optional<Speaker> findByFullNameIgnoreCase(String fullName);
 
-  @Query(
-      value =
-          "SELECT * FROM speakers WHERE full_name % :name ORDER BY similarity(full_name, :name)"
-              + " DESC LIMIT :limit",
-      nativeQuery = true)
-  List<Speaker> findByNameSimilarity(@Param("name") String name, @Param("limit") int limit);
+  /**
+   * Accent- and case-insensitive fuzzy name match, best first. {@code %} keeps names above {@code
+   * pg_trgm.similarity_threshold} (0.3 by default) and, unlike a {@code similarity(...) > x}
+   * filter, can be answered by the {@code speakers_name_folded_trgm} index on {@code
+   * f_unaccent(full_name)}.
+   */
+  String NAME_SIMILARITY_QUERY =
+      """
+      SELECT *
+      FROM speakers
+      WHERE f_unaccent(full_name) % f_unaccent(:name)
+      ORDER BY similarity(f_unaccent(full_name), f_unaccent(:name)) DESC
+      LIMIT :limit
+      """;
 
-  @Query(
-      "SELECT s FROM Speaker s WHERE "
-          + "LOWER(s.fullName) LIKE LOWER(CONCAT('%', :query, '%')) OR "
-          + "LOWER(s.orgName) LIKE LOWER(CONCAT('%', :query, '%')) OR "
-          + "LOWER(s.jobTitle) LIKE LOWER(CONCAT('%', :query, '%'))")
-  List<Speaker> searchByKeyword(@Param("query") String query);
+  @Query(value = NAME_SIMILARITY_QUERY, nativeQuery = true)
+  List<Speaker> findByNameSimilarity(@Param("name") String name, @Param("limit") int limit);
 
+  /** Full-text match of name, organization, job title and bio, best ranked first. */
   @Query(
       value =
-          """
-          SELECT *
-          FROM speakers
-          WHERE similarity(unaccent(full_name), unaccent(:q)) > :threshold
-          ORDER BY similarity(unaccent(full_name), unaccent(:q)) DESC
-          LIMIT :limit
-          """,
+          "SELECT s.* FROM speakers s, "
+              + FullTextSearch.QUERY_FROM
+              + " WHERE s.search_tsv @@ q.tsq"
+              + " ORDER BY ts_rank_cd(s.search_tsv, q.tsq) DESC, s.full_name",
       nativeQuery = true)
-  List<Speaker> findByNameTrigram(
-      @Param("q") String q, @Param("threshold") double threshold, @Param("limit") int limit);
+  List<Speaker> searchByKeyword(@Param("query") String query);
+
+  List<Speaker> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<Speaker> streamAllByOrderByIdAsc();
 }
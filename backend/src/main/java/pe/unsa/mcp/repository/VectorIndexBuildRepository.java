@@ -0,0 +1,17 @@
+package pe.unsa.mcp.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import pe.unsa.mcp.model.VectorIndexBuild;
+
+@Repository
+public interface VectorIndexBuildRepository extends JpaRepository<VectorIndexBuild, UUID> {
+
+  Optional<VectorIndexBuild> findFirstByIndexNameAndStatusOrderByStartedAtDesc(
+      String indexName, VectorIndexBuild.Status status);
+
+  List<VectorIndexBuild> findTop20ByOrderByStartedAtDesc();
+}
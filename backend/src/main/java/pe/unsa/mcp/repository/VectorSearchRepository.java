@@ -0,0 +1,523 @@
+package pe.unsa.mcp.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import pe.unsa.mcp.model.EntityEmbedding;
+import pe.unsa.mcp.model.converter.PgVectorType;
+
+/**
+ * pgvector queries that take a query vector. They run through JDBC so the vector is bound as a
+ * primitive {@code float[]}, which the driver sends as a binary {@code real[]} parameter that
+ * Postgres casts to {@code vector}. Runs in the caller's transaction, if any.
+ */
+@Repository
+public class VectorSearchRepository {
+
+  /**
+   * Representation scanned to find candidates. Every mode walks a partial expression index over
+   * the rows of the configured dimensions. {@code full} orders by the cosine distance itself and
+   * {@code normalized} by inner product over unit-normalized vectors, which ranks identically;
+   * both are served by the configured {@link AnnIndex}. {@code halfvec} and {@code binary} use a
+   * compact copy of the vector and {@code shortened} its leading {@code
+   * mcp.search.pgvector.short-dimensions} components, which Matryoshka-trained models such as
+   * text-embedding-3 keep meaningful on their own. The selected distance is always the exact
+   * cosine distance against the full vector, so callers re-rank by it after over-fetching.
+   */
+  public enum VectorStorage {
+    full(
+        "CAST(e.embedding AS vector(%1$d)) <=> CAST(? AS vector(%1$d))",
+        "entity_embeddings_%3$s_cos_%1$d",
+        "%4$s ((CAST(embedding AS vector(%1$d))) vector_cosine_ops) %5$s"),
+    normalized(
+        "CAST(l2_normalize(e.embedding) AS vector(%1$d))"
+            + " <#> CAST(l2_normalize(CAST(? AS vector)) AS vector(%1$d))",
+        "entity_embeddings_%3$s_ip_%1$d",
+        "%4$s ((CAST(l2_normalize(embedding) AS vector(%1$d))) vector_ip_ops) %5$s"),
+    halfvec(
+        "CAST(e.embedding AS halfvec(%1$d)) <=> CAST(CAST(? AS vector) AS halfvec(%1$d))",
+        "entity_embeddings_halfvec_hnsw_%1$d",
+        "hnsw ((CAST(embedding AS halfvec(%1$d))) halfvec_cosine_ops)"),
+    binary(
+        "CAST(binary_quantize(e.embedding) AS bit(%1$d)) <~> binary_quantize(CAST(? AS vector))",
+        "entity_embeddings_binary_hnsw_%1$d",
+        "hnsw ((CAST(binary_quantize(embedding) AS bit(%1$d))) bit_hamming_ops)"),
+    shortened(
+        "CAST(subvector(e.embedding, 1, %2$d) AS vector(%2$d))"
+            + " <=> CAST(subvector(CAST(? AS vector), 1, %2$d) AS vector(%2$d))",
+        "entity_embeddings_short%2$d_hnsw_%1$d",
+        "hnsw ((CAST(subvector(embedding, 1, %2$d) AS vector(%2$d))) vector_cosine_ops)");
+
+    private final String candidateDistance;
+    private final String indexName;
+    private final String indexDefinition;
+
+    VectorStorage(String candidateDistance, String indexName, String indexDefinition) {
+      this.candidateDistance = candidateDistance;
+      this.indexName = indexName;
+      this.indexDefinition = indexDefinition;
+    }
+
+    /** Whether candidates are ranked by an approximation and need re-ranking. */
+    public boolean quantized() {
+      return this == halfvec || this == binary || this == shortened;
+    }
+
+    /** Whether the index method is chosen by {@code mcp.search.pgvector.index}. */
+    public boolean usesAnnIndex() {
+      return this == full || this == normalized;
+    }
+  }
+
+  /**
+   * Index method behind the {@code full} and {@code normalized} storages. IVFFlat is cheap to
+   * build but its recall depends on {@code ivfflat.probes} and on the lists fitting the data;
+   * HNSW keeps recall high on small and growing tables, tuned with {@code hnsw.ef_search}.
+   */
+  public enum AnnIndex {
+    ivfflat("ivf", "WITH (lists = 100)"),
+    hnsw("hnsw", "WITH (m = 16, ef_construction = 64)");
+
+    private final String namePart;
+    private final String options;
+
+    AnnIndex(String namePart, String options) {
+      this.namePart = namePart;
+      this.options = options;
+    }
+  }
+
+  /**
+   * k-NN per embedded field, each branch ordered by the candidate distance with its own LIMIT so
+   * Postgres can answer it with an index probe; the selected distance is always exact. Callers
+   * merge the best distance per entity. The query vector is bound once per expression because the
+   * ORDER BY operand must be a parameter for the index to apply.
+   */
+  private static final String NEAREST_PER_FIELD_SQL =
+      """
+      SELECT n.entity_id, n.field, n.distance
+      FROM unnest(string_to_array(?, ',')) AS f(field)
+      CROSS JOIN LATERAL (
+        SELECT e.entity_id, e.field, e.embedding <=> CAST(? AS vector) AS distance
+        FROM entity_embeddings e
+        WHERE e.entity_type = ? AND e.field = f.field AND e.dim = %1$d
+        ORDER BY %2$s
+        LIMIT ?
+      ) n
+      """;
+
+  /**
+   * Semantic session search scoped to one event (optionally a day or track) and hydrated with the
+   * speaker in a single statement. The scope filters run inside the ANN scan, which relies on
+   * pgvector iterative index scans to keep probing until enough in-scope rows are found. Hits are
+   * re-ranked by exact distance.
+   */
+  private static final String SESSIONS_IN_EVENT_SQL =
+      """
+      WITH hits AS (
+        SELECT e.entity_id, e.embedding <=> CAST(? AS vector) AS distance
+        FROM entity_embeddings e
+        JOIN sessions s ON s.id = e.entity_id
+        WHERE e.entity_type = 'session'
+          AND e.dim = %1$d
+          AND s.event_id = ?
+          AND (CAST(? AS date) IS NULL OR s.day = CAST(? AS date))
+          AND (CAST(? AS text) IS NULL OR s.track = CAST(? AS text))
+        ORDER BY %2$s
+        LIMIT ?
+      ), best AS (
+        SELECT entity_id, MIN(distance) AS distance FROM hits GROUP BY entity_id
+      )
+      SELECT s.id, s.title, s.abstract, sp.full_name, best.distance
+      FROM best
+      JOIN sessions s ON s.id = best.entity_id
+      JOIN speakers sp ON sp.id = s.speaker_id
+      ORDER BY best.distance
+      LIMIT ?
+      """;
+
+  /**
+   * Hybrid session search in one statement: the semantic ranking of {@link
+   * #SESSIONS_IN_EVENT_SQL} and the full-text ranking over {@code search_tsv}, each cut to its own
+   * candidate depth, are fused with reciprocal rank fusion ({@code 1 / (k + rank)} summed over the
+   * lists a session appears in). Sessions found by only one list keep that list's share.
+   */
+  private static final String HYBRID_SESSIONS_IN_EVENT_SQL =
+      """
+      WITH q AS (
+        SELECT %3$s AS tsq
+      ), hits AS (
+        SELECT e.entity_id, e.embedding <=> CAST(? AS vector) AS distance
+        FROM entity_embeddings e
+        JOIN sessions s ON s.id = e.entity_id
+        WHERE e.entity_type = 'session'
+          AND e.dim = %1$d
+          AND s.event_id = ?
+          AND (CAST(? AS date) IS NULL OR s.day = CAST(? AS date))
+          AND (CAST(? AS text) IS NULL OR s.track = CAST(? AS text))
+        ORDER BY %2$s
+        LIMIT ?
+      ), semantic AS (
+        SELECT entity_id AS id, MIN(distance) AS distance,
+               row_number() OVER (ORDER BY MIN(distance)) AS rank
+        FROM hits GROUP BY entity_id
+      ), lexical AS (
+        SELECT s.id, row_number() OVER (ORDER BY ts_rank_cd(s.search_tsv, q.tsq) DESC) AS rank
+        FROM sessions s, q
+        WHERE s.event_id = ?
+          AND (CAST(? AS date) IS NULL OR s.day = CAST(? AS date))
+          AND (CAST(? AS text) IS NULL OR s.track = CAST(? AS text))
+          AND s.search_tsv @@ q.tsq
+        ORDER BY ts_rank_cd(s.search_tsv, q.tsq) DESC
+        LIMIT ?
+      ), fused AS (
+        SELECT COALESCE(sem.id, lex.id) AS id, sem.distance,
+               CAST(sem.rank AS int) AS semantic_rank, CAST(lex.rank AS int) AS lexical_rank,
+               COALESCE(1.0 / (? + sem.rank), 0) + COALESCE(1.0 / (? + lex.rank), 0) AS score
+        FROM semantic sem
+        FULL OUTER JOIN lexical lex ON lex.id = sem.id
+      )
+      SELECT s.id, s.title, s.abstract, sp.full_name, fused.score, fused.distance,
+             fused.semantic_rank, fused.lexical_rank
+      FROM fused
+      JOIN sessions s ON s.id = fused.id
+      JOIN speakers sp ON sp.id = s.speaker_id
+      ORDER BY fused.score DESC, fused.distance NULLS LAST
+      LIMIT ?
+      """;
+
+  private static final String SIMILAR_EMBEDDING_IDS_SQL =
+      """
+      SELECT e.id FROM entity_embeddings e
+      WHERE e.entity_type = ? AND e.dim = %1$d
+      ORDER BY CAST(e.embedding AS vector(%1$d)) <=> CAST(? AS vector(%1$d))
+      LIMIT ?
+      """;
+
+  private static final String INSERT_QUERY_EMBEDDING_SQL =
+      """
+      INSERT INTO query_embedding_cache (cache_key, query_text, model, dim, embedding)
+      VALUES (?, ?, ?, ?, ?)
+      ON CONFLICT (cache_key) DO NOTHING
+      """;
+
+  // Overwrites in place: a delete followed by an insert of the same key would reach the unique
+  // constraint first, since Hibernate flushes inserts before deletes
+  private static final String UPSERT_EMBEDDING_SQL =
+      """
+      INSERT INTO entity_embeddings (entity_type, entity_id, field, model, dim, content_hash,
+                                     embedding)
+      VALUES (?, ?, ?, ?, ?, ?, ?)
+      ON CONFLICT (entity_type, entity_id, field) DO UPDATE
+        SET model = EXCLUDED.model, dim = EXCLUDED.dim, content_hash = EXCLUDED.content_hash,
+            embedding = EXCLUDED.embedding, created_at = now()
+      """;
+
+  private static final String TOUCH_QUERY_EMBEDDINGS_SQL =
+      """
+      UPDATE query_embedding_cache q
+      SET hits = q.hits + t.hits, last_used_at = now()
+      FROM unnest(?, ?) AS t(cache_key, hits)
+      WHERE q.cache_key = t.cache_key
+      """;
+
+  public record NearestEmbedding(UUID entityId, String field, double distance) {}
+
+  public record SessionSearchRow(
+      UUID sessionId, String title, String abstractText, String speakerName, double distance) {}
+
+  /**
+   * A hybrid hit: its fused score, and its exact distance and rank in each list it appeared in
+   * (null when absent).
+   */
+  public record HybridSessionRow(
+      UUID sessionId,
+      String title,
+      String abstractText,
+      String speakerName,
+      double score,
+      Double distance,
+      Integer semanticRank,
+      Integer lexicalRank) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int dimensions;
+  private final int shortDimensions;
+  private final AnnIndex annIndex;
+
+  /**
+   * The dimensions are written into the SQL as literals rather than bound, so the planner can
+   * prove the {@code dim = N} predicate of the partial indexes for every execution.
+   */
+  public VectorSearchRepository(
+      JdbcTemplate jdbcTemplate,
+      @Value("${mcp.embeddings.dimensions:1536}") int dimensions,
+      @Value("${mcp.search.pgvector.short-dimensions:256}") int shortDimensions,
+      @Value("${mcp.search.pgvector.index:ivfflat}") AnnIndex annIndex) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.dimensions = dimensions;
+    this.shortDimensions = Math.min(shortDimensions, dimensions);
+    this.annIndex = annIndex;
+  }
+
+  public String nearestPerFieldSql(VectorStorage storage) {
+    return NEAREST_PER_FIELD_SQL.formatted(dimensions, candidateDistance(storage));
+  }
+
+  private String sessionsInEventSql(VectorStorage storage) {
+    return SESSIONS_IN_EVENT_SQL.formatted(dimensions, candidateDistance(storage));
+  }
+
+  private String hybridSessionsInEventSql(VectorStorage storage) {
+    return HYBRID_SESSIONS_IN_EVENT_SQL.formatted(
+        dimensions, candidateDistance(storage), FullTextSearch.TSQUERY_JDBC);
+  }
+
+  private String candidateDistance(VectorStorage storage) {
+    return storage.candidateDistance.formatted(dimensions, shortDimensions);
+  }
+
+  /** Name of the partial index that serves the storage at the configured dimensions. */
+  public String indexName(VectorStorage storage) {
+    return indexName(storage, annIndex);
+  }
+
+  /** Name the storage's index has when built with the given method. */
+  public String indexName(VectorStorage storage, AnnIndex method) {
+    return storage.indexName.formatted(dimensions, shortDimensions, method.namePart);
+  }
+
+  /** DDL of {@link #indexName}, built concurrently so it can run against a live table. */
+  public String createIndexSql(VectorStorage storage) {
+    return createIndexSql(storage, indexName(storage), annIndex, annIndex.options);
+  }
+
+  /** DDL of the storage's IVFFlat index under another name, trained with the given lists. */
+  public String createIvfflatIndexSql(VectorStorage storage, String name, int lists) {
+    return createIndexSql(storage, name, AnnIndex.ivfflat, "WITH (lists = " + lists + ")");
+  }
+
+  private String createIndexSql(
+      VectorStorage storage, String name, AnnIndex method, String options) {
+    return "CREATE INDEX CONCURRENTLY IF NOT EXISTS "
+        + name
+        + " ON entity_embeddings USING "
+        + storage.indexDefinition.formatted(
+            dimensions, shortDimensions, method.namePart, method.name(), options)
+        + " WHERE dim = "
+        + dimensions;
+  }
+
+  public AnnIndex annIndex() {
+    return annIndex;
+  }
+
+  /**
+   * Transaction-scoped index parameters for the searches that follow: the HNSW candidate list
+   * size and the number of IVFFlat lists probed. Has no effect outside a transaction.
+   */
+  public void setLocalTuning(int efSearch, int probes) {
+    jdbcTemplate.query(
+        "SELECT set_config('hnsw.ef_search', ?, true), set_config('ivfflat.probes', ?, true)",
+        ps -> {
+          ps.setString(1, Integer.toString(efSearch));
+          ps.setString(2, Integer.toString(probes));
+        },
+        rs -> {});
+  }
+
+  /** Whether the index exists and finished building, i.e. the planner may use it. */
+  public boolean isIndexUsable(String indexName) {
+    Boolean valid =
+        jdbcTemplate.query(
+            "SELECT i.indisvalid FROM pg_index i"
+                + " WHERE i.indexrelid = to_regclass(?)",
+            ps -> ps.setString(1, indexName),
+            rs -> rs.next() ? rs.getBoolean(1) : Boolean.FALSE);
+    return Boolean.TRUE.equals(valid);
+  }
+
+  public int dimensions() {
+    return dimensions;
+  }
+
+  public List<NearestEmbedding> findNearestPerField(
+      VectorStorage storage,
+      String entityType,
+      String fields,
+      float[] queryEmbedding,
+      int perFieldLimit) {
+    return jdbcTemplate.query(
+        nearestPerFieldSql(storage),
+        ps -> bindNearestPerField(ps, entityType, fields, queryEmbedding, perFieldLimit),
+        (rs, rowNum) ->
+            new NearestEmbedding(
+                rs.getObject(1, UUID.class), rs.getString(2), rs.getDouble(3)));
+  }
+
+  /** Binds {@link #nearestPerFieldSql}; shared with tests that EXPLAIN the statement. */
+  public static void bindNearestPerField(
+      PreparedStatement ps,
+      String entityType,
+      String fields,
+      float[] queryEmbedding,
+      int perFieldLimit)
+      throws SQLException {
+    ps.setString(1, fields);
+    ps.setObject(2, queryEmbedding);
+    ps.setString(3, entityType);
+    ps.setObject(4, queryEmbedding);
+    ps.setInt(5, perFieldLimit);
+  }
+
+  public List<SessionSearchRow> findSessionsInEvent(
+      VectorStorage storage,
+      UUID eventId,
+      LocalDate day,
+      String track,
+      float[] queryEmbedding,
+      int candidateLimit,
+      int limit) {
+    return jdbcTemplate.query(
+        sessionsInEventSql(storage),
+        ps -> {
+          ps.setObject(1, queryEmbedding);
+          ps.setObject(2, eventId);
+          ps.setObject(3, day);
+          ps.setObject(4, day);
+          ps.setString(5, track);
+          ps.setString(6, track);
+          ps.setObject(7, queryEmbedding);
+          ps.setInt(8, candidateLimit);
+          ps.setInt(9, limit);
+        },
+        (rs, rowNum) ->
+            new SessionSearchRow(
+                rs.getObject(1, UUID.class),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getDouble(5)));
+  }
+
+  public List<HybridSessionRow> findSessionsInEventHybrid(
+      VectorStorage storage,
+      UUID eventId,
+      LocalDate day,
+      String track,
+      String queryText,
+      float[] queryEmbedding,
+      int semanticCandidates,
+      int lexicalCandidates,
+      int rrfK,
+      int limit) {
+    return jdbcTemplate.query(
+        hybridSessionsInEventSql(storage),
+        ps -> {
+          int i = 0;
+          ps.setString(++i, queryText);
+          ps.setString(++i, queryText);
+          ps.setObject(++i, queryEmbedding);
+          i = bindScope(ps, i, eventId, day, track);
+          ps.setObject(++i, queryEmbedding);
+          ps.setInt(++i, semanticCandidates);
+          i = bindScope(ps, i, eventId, day, track);
+          ps.setInt(++i, lexicalCandidates);
+          ps.setInt(++i, rrfK);
+          ps.setInt(++i, rrfK);
+          ps.setInt(++i, limit);
+        },
+        (rs, rowNum) ->
+            new HybridSessionRow(
+                rs.getObject(1, UUID.class),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getDouble(5),
+                rs.getObject(6, Double.class),
+                rs.getObject(7, Integer.class),
+                rs.getObject(8, Integer.class)));
+  }
+
+  /** Binds the event, day and track filters; returns the last parameter index used. */
+  private static int bindScope(
+      PreparedStatement ps, int index, UUID eventId, LocalDate day, String track)
+      throws SQLException {
+    ps.setObject(++index, eventId);
+    ps.setObject(++index, day);
+    ps.setObject(++index, day);
+    ps.setString(++index, track);
+    ps.setString(++index, track);
+    return index;
+  }
+
+  /** Ids of the entity_embeddings rows closest to the query, nearest first. */
+  public List<UUID> findSimilarEmbeddingIds(String entityType, float[] queryEmbedding, int limit) {
+    return jdbcTemplate.query(
+        SIMILAR_EMBEDDING_IDS_SQL.formatted(dimensions),
+        ps -> {
+          ps.setString(1, entityType);
+          ps.setObject(2, queryEmbedding);
+          ps.setInt(3, limit);
+        },
+        (rs, rowNum) -> rs.getObject(1, UUID.class));
+  }
+
+  /** Stored vectors of one entity type picked at random, used as probe queries. */
+  public List<float[]> sampleEmbeddings(String entityType, int limit) {
+    return jdbcTemplate.query(
+        "SELECT e.embedding::real[] FROM entity_embeddings e"
+            + " WHERE e.entity_type = ? AND e.dim = ? ORDER BY random() LIMIT ?",
+        ps -> {
+          ps.setString(1, entityType);
+          ps.setInt(2, dimensions);
+          ps.setInt(3, limit);
+        },
+        (rs, rowNum) -> PgVectorType.toFloats(rs.getArray(1)));
+  }
+
+  public int insertQueryEmbedding(
+      String key, String queryText, String model, int dim, float[] embedding) {
+    return jdbcTemplate.update(
+        INSERT_QUERY_EMBEDDING_SQL,
+        ps -> {
+          ps.setString(1, key);
+          ps.setString(2, queryText);
+          ps.setString(3, model);
+          ps.setInt(4, dim);
+          ps.setObject(5, embedding);
+        });
+  }
+
+  /** Insert each embedding or replace the stored one of its entity and field, in one batch. */
+  public void upsertEmbeddings(List<EntityEmbedding> embeddings) {
+    jdbcTemplate.batchUpdate(
+        UPSERT_EMBEDDING_SQL,
+        embeddings,
+        embeddings.size(),
+        (ps, embedding) -> {
+          ps.setString(1, embedding.getEntityType().name());
+          ps.setObject(2, embedding.getEntityId());
+          ps.setString(3, embedding.getField().getValue());
+          ps.setString(4, embedding.getModel().getValue());
+          ps.setInt(5, embedding.getDim());
+          ps.setString(6, embedding.getContentHash());
+          ps.setObject(7, embedding.getEmbedding());
+        });
+  }
+
+  /** Add the hit counts and mark the keys as used now, in one statement. */
+  public int touchQueryEmbeddings(String[] keys, long[] hits) {
+    return jdbcTemplate.update(
+        TOUCH_QUERY_EMBEDDINGS_SQL,
+        ps -> {
+          ps.setObject(1, keys);
+          ps.setObject(2, hits);
+        });
+  }
+}
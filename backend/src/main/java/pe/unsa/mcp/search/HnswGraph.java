@@ -0,0 +1,212 @@
+package pe.unsa.mcp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph over the slots of a {@link VectorStore}. Vectors are
+ * expected to be unit length, so distance is {@code 1 - dot}. Not thread-safe: callers serialize
+ * inserts against searches.
+ */
+final class HnswGraph {
+
+  private static final int[] NO_NEIGHBORS = new int[0];
+  private static final Comparator<Candidate> CLOSEST_FIRST =
+      Comparator.comparingDouble(Candidate::distance);
+
+  private final VectorStore store;
+  private final int maxConnections;
+  private final int maxConnectionsLayer0;
+  private final int efConstruction;
+  private final double levelMultiplier;
+  private final SplittableRandom random = new SplittableRandom(42);
+
+  private int[][][] links = new int[0][][];
+  private int entryPoint = -1;
+  private int maxLevel = -1;
+
+  HnswGraph(VectorStore store, int maxConnections, int efConstruction) {
+    this.store = store;
+    this.maxConnections = maxConnections;
+    this.maxConnectionsLayer0 = maxConnections * 2;
+    this.efConstruction = efConstruction;
+    this.levelMultiplier = 1.0 / Math.log(maxConnections);
+  }
+
+  /** Link an already stored slot into the graph. */
+  void add(int node) {
+    if (node >= links.length) {
+      links = Arrays.copyOf(links, Math.max(node + 1, links.length * 2));
+    }
+    int level = randomLevel();
+    int[][] layers = new int[level + 1][];
+    Arrays.fill(layers, NO_NEIGHBORS);
+    links[node] = layers;
+
+    if (entryPoint < 0) {
+      entryPoint = node;
+      maxLevel = level;
+      return;
+    }
+
+    Distance distance = other -> 1f - store.dot(node, other);
+    int ep = greedy(distance, entryPoint, maxLevel, level);
+    for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+      List<Candidate> candidates = searchLayer(distance, ep, efConstruction, l);
+      List<Candidate> selected = selectNeighbors(candidates, maxConnections(l));
+      links[node][l] = nodesOf(selected);
+      for (Candidate neighbor : selected) {
+        connect(neighbor.node(), node, l);
+      }
+      ep = candidates.get(0).node();
+    }
+
+    if (level > maxLevel) {
+      entryPoint = node;
+      maxLevel = level;
+    }
+  }
+
+  /** Approximate nearest slots to a unit-length query, closest first. */
+  List<Candidate> search(float[] query, int k, int ef) {
+    if (entryPoint < 0) {
+      return List.of();
+    }
+    Distance distance = node -> 1f - store.dot(query, node);
+    int ep = greedy(distance, entryPoint, maxLevel, 0);
+    List<Candidate> found = searchLayer(distance, ep, Math.max(ef, k), 0);
+    return found.size() > k ? found.subList(0, k) : found;
+  }
+
+  private int greedy(Distance distance, int ep, int fromLevel, int toLevelExclusive) {
+    float best = distance.to(ep);
+    for (int l = fromLevel; l > toLevelExclusive; l--) {
+      boolean changed = true;
+      while (changed) {
+        changed = false;
+        for (int neighbor : neighbors(ep, l)) {
+          float d = distance.to(neighbor);
+          if (d < best) {
+            best = d;
+            ep = neighbor;
+            changed = true;
+          }
+        }
+      }
+    }
+    return ep;
+  }
+
+  private List<Candidate> searchLayer(Distance distance, int ep, int ef, int level) {
+    BitSet visited = new BitSet(links.length);
+    visited.set(ep);
+    Candidate start = new Candidate(ep, distance.to(ep));
+    PriorityQueue<Candidate> candidates = new PriorityQueue<>(CLOSEST_FIRST);
+    PriorityQueue<Candidate> results = new PriorityQueue<>(CLOSEST_FIRST.reversed());
+    candidates.add(start);
+    results.add(start);
+
+    while (!candidates.isEmpty()) {
+      Candidate current = candidates.poll();
+      if (results.size() >= ef && current.distance() > results.peek().distance()) {
+        break;
+      }
+      for (int neighbor : neighbors(current.node(), level)) {
+        if (visited.get(neighbor)) {
+          continue;
+        }
+        visited.set(neighbor);
+        float d = distance.to(neighbor);
+        if (results.size() < ef || d < results.peek().distance()) {
+          Candidate candidate = new Candidate(neighbor, d);
+          candidates.add(candidate);
+          results.add(candidate);
+          if (results.size() > ef) {
+            results.poll();
+          }
+        }
+      }
+    }
+
+    List<Candidate> sorted = new ArrayList<>(results);
+    sorted.sort(CLOSEST_FIRST);
+    return sorted;
+  }
+
+  /** Neighbor selection heuristic from the HNSW paper, topped up with the closest leftovers. */
+  private List<Candidate> selectNeighbors(List<Candidate> candidates, int max) {
+    List<Candidate> selected = new ArrayList<>(max);
+    List<Candidate> pruned = new ArrayList<>();
+    for (Candidate candidate : candidates) {
+      if (selected.size() >= max) {
+        break;
+      }
+      boolean diverse = true;
+      for (Candidate kept : selected) {
+        if (1f - store.dot(candidate.node(), kept.node()) < candidate.distance()) {
+          diverse = false;
+          break;
+        }
+      }
+      if (diverse) {
+        selected.add(candidate);
+      } else {
+        pruned.add(candidate);
+      }
+    }
+    for (int i = 0; i < pruned.size() && selected.size() < max; i++) {
+      selected.add(pruned.get(i));
+    }
+    return selected;
+  }
+
+  private void connect(int from, int to, int level) {
+    int[] current = neighbors(from, level);
+    int[] extended = Arrays.copyOf(current, current.length + 1);
+    extended[current.length] = to;
+    int max = maxConnections(level);
+    if (extended.length <= max) {
+      links[from][level] = extended;
+      return;
+    }
+    List<Candidate> candidates = new ArrayList<>(extended.length);
+    for (int neighbor : extended) {
+      candidates.add(new Candidate(neighbor, 1f - store.dot(from, neighbor)));
+    }
+    candidates.sort(CLOSEST_FIRST);
+    links[from][level] = nodesOf(selectNeighbors(candidates, max));
+  }
+
+  private int[] neighbors(int node, int level) {
+    int[][] layers = links[node];
+    return level < layers.length ? layers[level] : NO_NEIGHBORS;
+  }
+
+  private int maxConnections(int level) {
+    return level == 0 ? maxConnectionsLayer0 : maxConnections;
+  }
+
+  private int randomLevel() {
+    return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+  }
+
+  private static int[] nodesOf(List<Candidate> candidates) {
+    int[] nodes = new int[candidates.size()];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = candidates.get(i).node();
+    }
+    return nodes;
+  }
+
+  record Candidate(int node, float distance) {}
+
+  @FunctionalInterface
+  private interface Distance {
+    float to(int node);
+  }
+}
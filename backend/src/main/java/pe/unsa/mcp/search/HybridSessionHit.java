@@ -0,0 +1,17 @@
+package pe.unsa.mcp.search;
+
+import java.util.UUID;
+
+/**
+ * A session matched by hybrid search. {@code score} is the reciprocal rank fusion score; the
+ * distance and the rank in each list are null when the session did not appear in that list.
+ */
+public record HybridSessionHit(
+    UUID sessionId,
+    String title,
+    String abstractText,
+    String speakerName,
+    double score,
+    Double distance,
+    Integer semanticRank,
+    Integer lexicalRank) {}
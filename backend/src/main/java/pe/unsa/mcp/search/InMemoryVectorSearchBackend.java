@@ -0,0 +1,197 @@
+package pe.unsa.mcp.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unsa.mcp.model.EntityEmbedding;
+import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.converter.PgVectorType;
+import pe.unsa.mcp.services.TransactionHooks;
+
+/**
+ * Similarity search over an in-process copy of {@code entity_embeddings}. The table is loaded when
+ * the application starts and kept in sync by the embedding write paths, which report committed
+ * changes through {@link #onSaved}, {@link #onRemoved} and {@link #onEntityRemoved}. Only active
+ * when {@code mcp.search.backend=memory}.
+ */
+@Component
+public class InMemoryVectorSearchBackend implements VectorSearchBackend {
+
+  private static final Logger log = LoggerFactory.getLogger(InMemoryVectorSearchBackend.class);
+
+  private final boolean enabled;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTransaction;
+  private final Map<EntityType, VectorIndex> indexes = new EnumMap<>(EntityType.class);
+  private final List<Runnable> pendingChanges = new ArrayList<>();
+  private final int dimensions;
+  // Graph builds and compactions, one at a time, off the request threads
+  private final ExecutorService rebuilds =
+      Executors.newSingleThreadExecutor(
+          Thread.ofPlatform().name("vector-index-rebuild").daemon().factory());
+
+  private volatile boolean ready;
+  private boolean loading;
+
+  public InMemoryVectorSearchBackend(
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      @Value("${mcp.search.backend:pgvector}") String backend,
+      @Value("${mcp.search.memory.hnsw-threshold:20000}") int hnswThreshold,
+      @Value("${mcp.search.memory.hnsw-m:16}") int hnswM,
+      @Value("${mcp.search.memory.hnsw-ef-construction:200}") int hnswEfConstruction,
+      @Value("${mcp.search.memory.hnsw-ef-search:128}") int hnswEfSearch,
+      @Value("${mcp.embeddings.dimensions:1536}") int dimensions) {
+    this.enabled = "memory".equalsIgnoreCase(backend);
+    this.dimensions = dimensions;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(500);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    Executor rebuildsLoggingFailures =
+        command ->
+            rebuilds.execute(
+                () -> {
+                  try {
+                    command.run();
+                  } catch (RuntimeException e) {
+                    log.error("In-memory vector index rebuild failed", e);
+                  }
+                });
+    for (EntityType type : EntityType.values()) {
+      indexes.put(
+          type,
+          new VectorIndex(
+              dimensions,
+              hnswThreshold,
+              hnswM,
+              hnswEfConstruction,
+              hnswEfSearch,
+              rebuildsLoggingFailures));
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  @Override
+  public List<SimilarEntity> findSimilarEntities(
+      EntityType entityType, float[] query, int limit) {
+    if (!ready) {
+      throw new IllegalStateException("In-memory vector index is not loaded");
+    }
+    return indexes.get(entityType).search(query, limit);
+  }
+
+  /** Rank only the given entities, e.g. the sessions of one event. */
+  public List<SimilarEntity> findSimilarAmong(
+      EntityType entityType, float[] query, Collection<UUID> entityIds, int limit) {
+    if (!ready) {
+      throw new IllegalStateException("In-memory vector index is not loaded");
+    }
+    return indexes.get(entityType).searchAmong(query, entityIds, limit);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (!enabled) {
+      return;
+    }
+    synchronized (pendingChanges) {
+      loading = true;
+    }
+    try {
+      long started = System.nanoTime();
+      // Rows of another dimension are left over from a model change and wait to be re-embedded
+      readOnlyTransaction.executeWithoutResult(
+          status ->
+              jdbcTemplate.query(
+                  "SELECT entity_type, entity_id, field, embedding::real[] AS embedding"
+                      + " FROM entity_embeddings WHERE dim = ?",
+                  ps -> ps.setInt(1, dimensions),
+                  rs -> {
+                    EntityType type = EntityType.valueOf(rs.getString("entity_type"));
+                    UUID entityId = rs.getObject("entity_id", UUID.class);
+                    float[] vector = PgVectorType.toFloats(rs.getArray("embedding"));
+                    indexes.get(type).upsert(entityId, rs.getString("field"), vector);
+                  }));
+      synchronized (pendingChanges) {
+        pendingChanges.forEach(Runnable::run);
+        pendingChanges.clear();
+        loading = false;
+        ready = true;
+      }
+      indexes.forEach(
+          (type, index) ->
+              log.info(
+                  "Loaded {} {} embeddings into memory ({})",
+                  index.size(),
+                  type,
+                  index.usesGraph() ? "hnsw" : "exact scan"));
+      log.info(
+          "In-memory vector index ready in {} ms (simd={})",
+          (System.nanoTime() - started) / 1_000_000,
+          VectorMath.SIMD_AVAILABLE);
+    } catch (Exception e) {
+      synchronized (pendingChanges) {
+        pendingChanges.clear();
+        loading = false;
+      }
+      log.error("Failed to load in-memory vector index, falling back to pgvector", e);
+    }
+  }
+
+  /** Record an embedding write once the surrounding transaction commits. */
+  public void onSaved(EntityEmbedding embedding) {
+    if (embedding.getDim() == null || embedding.getDim() != dimensions) {
+      return;
+    }
+    UUID entityId = embedding.getEntityId();
+    String field = embedding.getField().getValue();
+    float[] vector = embedding.getEmbedding().clone();
+    apply(() -> indexes.get(embedding.getEntityType()).upsert(entityId, field, vector));
+  }
+
+  public void onRemoved(EntityType entityType, UUID entityId, EmbeddingField field) {
+    apply(() -> indexes.get(entityType).remove(entityId, field.getValue()));
+  }
+
+  public void onEntityRemoved(EntityType entityType, UUID entityId) {
+    apply(() -> indexes.get(entityType).removeEntity(entityId));
+  }
+
+  private void apply(Runnable change) {
+    if (!enabled) {
+      return;
+    }
+    TransactionHooks.afterCommit(
+        () -> {
+          synchronized (pendingChanges) {
+            if (loading) {
+              // Replayed after the bulk load so it cannot be overwritten by older rows
+              pendingChanges.add(change);
+              return;
+            }
+          }
+          change.run();
+        });
+  }
+}
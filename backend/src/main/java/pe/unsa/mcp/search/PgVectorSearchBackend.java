@@ -0,0 +1,261 @@
+package pe.unsa.mcp.search;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository.NearestEmbedding;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+
+/**
+ * Similarity search executed by pgvector inside Postgres. Runs one index-backed k-NN per embedded
+ * field, over-fetching so that entities matched through several fields still fill the requested
+ * limit, and keeps the best distance per entity. With a quantized {@code
+ * mcp.search.pgvector.storage} candidates come from the compact index and are re-ranked by exact
+ * distance, fetching {@code rerank-factor} times more of them.
+ *
+ * <p>Each search runs in its own read-only transaction (or the caller's) and sets {@code
+ * hnsw.ef_search} and {@code ivfflat.probes} with {@code SET LOCAL} semantics, from the
+ * per-call {@link SearchTuning} or the configured defaults, and enables pgvector iterative index
+ * scans so the entity type, field and scope filters applied after the ANN scan still yield the
+ * requested number of rows. The configured values, not the ef_search raised to the candidate count,
+ * tag the search latency in {@link SearchMetrics}; the values in effect are logged at DEBUG.
+ */
+@Component
+@Transactional(readOnly = true)
+public class PgVectorSearchBackend implements VectorSearchBackend {
+
+  private static final Logger log = LoggerFactory.getLogger(PgVectorSearchBackend.class);
+
+  private static final Map<EntityType, List<EmbeddingField>> FIELDS =
+      Map.of(
+          EntityType.session,
+          List.of(EmbeddingField.title, EmbeddingField.abstract_, EmbeddingField.all),
+          EntityType.speaker,
+          List.of(EmbeddingField.bio));
+
+  private final EntityEmbeddingRepository embeddingRepository;
+  private final VectorSearchRepository vectorSearchRepository;
+  private final int overfetch;
+  private final String iterativeScan;
+  private final VectorStorage storage;
+  private final int rerankFactor;
+  private final SearchTuning defaultTuning;
+  private final int rrfK;
+  private final SearchMetrics metrics;
+
+  public PgVectorSearchBackend(
+      EntityEmbeddingRepository embeddingRepository,
+      VectorSearchRepository vectorSearchRepository,
+      @Value("${mcp.search.pgvector.overfetch:3}") int overfetch,
+      @Value("${mcp.search.pgvector.iterative-scan:relaxed_order}") String iterativeScan,
+      @Value("${mcp.search.pgvector.storage:full}") VectorStorage storage,
+      @Value("${mcp.search.pgvector.rerank-factor:4}") int rerankFactor,
+      @Value("${mcp.search.pgvector.ef-search:40}") int efSearch,
+      @Value("${mcp.search.pgvector.probes:10}") int probes,
+      @Value("${mcp.search.hybrid.rrf-k:60}") int rrfK,
+      SearchMetrics metrics) {
+    this.embeddingRepository = embeddingRepository;
+    this.vectorSearchRepository = vectorSearchRepository;
+    this.overfetch = Math.max(1, overfetch);
+    this.iterativeScan = iterativeScan;
+    this.storage = storage;
+    this.rerankFactor = Math.max(1, rerankFactor);
+    this.defaultTuning = new SearchTuning(efSearch, probes);
+    this.rrfK = Math.max(1, rrfK);
+    this.metrics = metrics;
+  }
+
+  @Override
+  public List<SimilarEntity> findSimilarEntities(
+      EntityType entityType, float[] query, int limit) {
+    return findSimilarEntities(storage, entityType, query, limit, SearchTuning.DEFAULTS);
+  }
+
+  /** Same as {@link #findSimilarEntities(EntityType, float[], int)} with per-call tuning. */
+  public List<SimilarEntity> findSimilarEntities(
+      EntityType entityType, float[] query, int limit, SearchTuning tuning) {
+    return findSimilarEntities(storage, entityType, query, limit, tuning);
+  }
+
+  /** Same as {@link #findSimilarEntities(EntityType, float[], int)} over a chosen storage. */
+  public List<SimilarEntity> findSimilarEntities(
+      VectorStorage storage,
+      EntityType entityType,
+      float[] query,
+      int limit,
+      SearchTuning tuning) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    long started = System.nanoTime();
+    List<SimilarEntity> similar = search(storage, entityType, query, limit, tuning);
+    metrics.record(entityType.name(), storage, configured(tuning), System.nanoTime() - started);
+    return similar;
+  }
+
+  /**
+   * The search behind {@link #findSimilarEntities(VectorStorage, EntityType, float[], int,
+   * SearchTuning)} without recording its latency, for measurements such as {@link
+   * RecallEvaluator} that must not feed the production timer.
+   */
+  List<SimilarEntity> search(
+      VectorStorage storage,
+      EntityType entityType,
+      float[] query,
+      int limit,
+      SearchTuning tuning) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    // The index is partial on dim only, so the entity type and field filters need iterative scans
+    applyIterativeScan();
+    int candidates = limit * overfetch * candidateFactor(storage);
+    applyTuning(tuning, candidates);
+    List<NearestEmbedding> nearest =
+        vectorSearchRepository.findNearestPerField(
+            storage, entityType.name(), fieldList(FIELDS.get(entityType)), query, candidates);
+
+    Map<UUID, Double> best = new HashMap<>();
+    for (NearestEmbedding row : nearest) {
+      best.merge(row.entityId(), row.distance(), Math::min);
+    }
+    return best.entrySet().stream()
+        .map(entry -> new SimilarEntity(entry.getKey(), entry.getValue()))
+        .sorted(Comparator.comparingDouble(SimilarEntity::distance))
+        .limit(limit)
+        .toList();
+  }
+
+  /** Sessions of one event closest to the query, hydrated with their speaker in one statement. */
+  public List<SessionSearchHit> findSessionsInEvent(
+      UUID eventId, LocalDate day, String track, float[] query, int limit, SearchTuning tuning) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    long started = System.nanoTime();
+    applyIterativeScan();
+    int candidates =
+        limit * FIELDS.get(EntityType.session).size() * overfetch * candidateFactor(storage);
+    applyTuning(tuning, candidates);
+    List<SessionSearchHit> hits =
+        vectorSearchRepository
+            .findSessionsInEvent(storage, eventId, day, track, query, candidates, limit)
+            .stream()
+            .map(
+                row ->
+                    new SessionSearchHit(
+                        row.sessionId(),
+                        row.title(),
+                        row.abstractText(),
+                        row.speakerName(),
+                        row.distance()))
+            .toList();
+    metrics.record("event-sessions", storage, configured(tuning), System.nanoTime() - started);
+    return hits;
+  }
+
+  /**
+   * Sessions of one event ranked by reciprocal rank fusion of the semantic ranking and the
+   * full-text ranking of {@code text}, in one statement. Each list is cut at the depth the
+   * semantic search alone would fetch, so fusion never sees fewer candidates than it would.
+   */
+  public List<HybridSessionHit> findSessionsInEventHybrid(
+      UUID eventId,
+      LocalDate day,
+      String track,
+      String text,
+      float[] query,
+      int limit,
+      SearchTuning tuning) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    long started = System.nanoTime();
+    applyIterativeScan();
+    int candidates =
+        limit * FIELDS.get(EntityType.session).size() * overfetch * candidateFactor(storage);
+    applyTuning(tuning, candidates);
+    List<HybridSessionHit> hits =
+        vectorSearchRepository
+            .findSessionsInEventHybrid(
+                storage, eventId, day, track, text, query, candidates, candidates, rrfK, limit)
+            .stream()
+            .map(
+                row ->
+                    new HybridSessionHit(
+                        row.sessionId(),
+                        row.title(),
+                        row.abstractText(),
+                        row.speakerName(),
+                        row.score(),
+                        row.distance(),
+                        row.semanticRank(),
+                        row.lexicalRank()))
+            .toList();
+    metrics.record(
+        "event-sessions-hybrid", storage, configured(tuning), System.nanoTime() - started);
+    return hits;
+  }
+
+  /**
+   * Let index scans keep probing until enough rows pass the query's filters instead of stopping
+   * after ef_search/probes candidates, for the rest of the current transaction.
+   */
+  public void applyIterativeScan() {
+    if (!iterativeScan.isBlank()) {
+      // Requires pgvector 0.8+; leave mcp.search.pgvector.iterative-scan empty on older versions
+      embeddingRepository.setLocalConfig("ivfflat.iterative_scan", iterativeScan);
+      embeddingRepository.setLocalConfig("hnsw.iterative_scan", iterativeScan);
+    }
+  }
+
+  /**
+   * Set the index parameters for the rest of the current transaction. ef_search is raised to the
+   * candidate count when lower, since an HNSW scan returns at most ef_search rows.
+   */
+  public SearchTuning applyTuning(SearchTuning tuning, int candidates) {
+    SearchTuning requested = tuning.orElse(defaultTuning);
+    SearchTuning effective =
+        new SearchTuning(
+            Math.max(
+                requested.efSearch(), Math.min(candidates, SearchTuning.MAX_EF_SEARCH)),
+            requested.probes());
+    vectorSearchRepository.setLocalTuning(effective.efSearch(), effective.probes());
+    log.debug("pgvector tuning {} for {} candidates", effective, candidates);
+    return effective;
+  }
+
+  /** The per-call or default tuning, before ef_search is raised to the candidate count. */
+  private SearchTuning configured(SearchTuning tuning) {
+    return tuning.orElse(defaultTuning);
+  }
+
+  public VectorStorage storage() {
+    return storage;
+  }
+
+  public SearchTuning defaultTuning() {
+    return defaultTuning;
+  }
+
+  private int candidateFactor(VectorStorage storage) {
+    return storage.quantized() ? rerankFactor : 1;
+  }
+
+  private static String fieldList(List<EmbeddingField> fields) {
+    return fields.stream().map(EmbeddingField::getValue).collect(Collectors.joining(","));
+  }
+}
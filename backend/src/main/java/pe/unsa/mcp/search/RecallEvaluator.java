@@ -0,0 +1,96 @@
+package pe.unsa.mcp.search;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+
+/**
+ * Measures how closely the approximate pgvector path matches an exact scan. Stored vectors are
+ * used as probe queries; for each, the top-k entities returned through the ANN indexes are
+ * compared with the top-k from a sequential scan over the full vectors. Evaluating the same
+ * storage under several {@link SearchTuning} values shows the recall bought by extra latency.
+ * These searches are not recorded in {@link SearchMetrics}, whose timer tracks production traffic.
+ */
+@Component
+public class RecallEvaluator {
+
+  private final PgVectorSearchBackend pgVectorBackend;
+  private final VectorSearchRepository vectorSearchRepository;
+  private final EntityEmbeddingRepository embeddingRepository;
+
+  public RecallEvaluator(
+      PgVectorSearchBackend pgVectorBackend,
+      VectorSearchRepository vectorSearchRepository,
+      EntityEmbeddingRepository embeddingRepository) {
+    this.pgVectorBackend = pgVectorBackend;
+    this.vectorSearchRepository = vectorSearchRepository;
+    this.embeddingRepository = embeddingRepository;
+  }
+
+  public record RecallReport(
+      EntityType entityType,
+      VectorStorage storage,
+      SearchTuning tuning,
+      int k,
+      int samples,
+      double recall,
+      double approximateMillis,
+      double exactMillis) {}
+
+  @Transactional(readOnly = true)
+  public RecallReport evaluate(
+      EntityType entityType, VectorStorage storage, SearchTuning tuning, int k, int samples) {
+    SearchTuning requested = tuning.orElse(pgVectorBackend.defaultTuning());
+    List<float[]> queries = vectorSearchRepository.sampleEmbeddings(entityType.name(), samples);
+    if (queries.isEmpty()) {
+      return new RecallReport(entityType, storage, requested, k, 0, 1.0, 0, 0);
+    }
+
+    long approximateNanos = 0;
+    long exactNanos = 0;
+    double recallSum = 0;
+    for (float[] query : queries) {
+      long started = System.nanoTime();
+      List<SimilarEntity> approximate =
+          pgVectorBackend.search(storage, entityType, query, k, requested);
+      approximateNanos += System.nanoTime() - started;
+
+      // Transaction-local: the planner falls back to a sequential scan with an exact sort
+      embeddingRepository.setLocalConfig("enable_indexscan", "off");
+      started = System.nanoTime();
+      List<SimilarEntity> exact =
+          pgVectorBackend.search(VectorStorage.full, entityType, query, k, SearchTuning.DEFAULTS);
+      exactNanos += System.nanoTime() - started;
+      embeddingRepository.setLocalConfig("enable_indexscan", "on");
+
+      recallSum += recall(approximate, exact);
+    }
+
+    int n = queries.size();
+    return new RecallReport(
+        entityType,
+        storage,
+        requested,
+        k,
+        n,
+        recallSum / n,
+        approximateNanos / 1e6 / n,
+        exactNanos / 1e6 / n);
+  }
+
+  private static double recall(List<SimilarEntity> approximate, List<SimilarEntity> exact) {
+    if (exact.isEmpty()) {
+      return 1.0;
+    }
+    Set<Object> expected = new HashSet<>();
+    exact.forEach(match -> expected.add(match.entityId()));
+    long found = approximate.stream().filter(match -> expected.contains(match.entityId())).count();
+    return (double) found / exact.size();
+  }
+}
@@ -0,0 +1,35 @@
+package pe.unsa.mcp.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+
+/**
+ * Latency of pgvector searches as the Micrometer timer {@code mcp.search.pgvector}, tagged by
+ * operation and by the configured index settings, so the recall/latency trade-off of different
+ * ef_search and probes values can be compared in production on the actuator metrics endpoints.
+ * The tags take the configured tuning rather than the ef_search raised to each call's candidate
+ * count, which follows the requested top-k and would create a series per value.
+ */
+@Component
+public class SearchMetrics {
+
+  private final MeterRegistry registry;
+
+  public SearchMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  public void record(String operation, VectorStorage storage, SearchTuning tuning, long nanos) {
+    Timer.builder("mcp.search.pgvector")
+        .description("pgvector search latency by operation and index settings")
+        .tag("operation", operation)
+        .tag("storage", storage.name())
+        .tag("ef_search", String.valueOf(tuning.efSearch()))
+        .tag("probes", String.valueOf(tuning.probes()))
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+}
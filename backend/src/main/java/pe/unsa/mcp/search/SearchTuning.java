@@ -0,0 +1,30 @@
+package pe.unsa.mcp.search;
+
+/**
+ * pgvector index parameters for one search: {@code hnsw.ef_search}, the candidate list size of
+ * HNSW scans, and {@code ivfflat.probes}, the lists visited by IVFFlat scans. Higher values raise
+ * recall at the cost of latency. Null fields fall back to the configured defaults.
+ */
+public record SearchTuning(Integer efSearch, Integer probes) {
+
+  public static final SearchTuning DEFAULTS = new SearchTuning(null, null);
+
+  /** pgvector rejects larger ef_search values. */
+  public static final int MAX_EF_SEARCH = 1000;
+
+  public SearchTuning {
+    if (efSearch != null && (efSearch < 1 || efSearch > MAX_EF_SEARCH)) {
+      throw new IllegalArgumentException("efSearch must be between 1 and " + MAX_EF_SEARCH);
+    }
+    if (probes != null && probes < 1) {
+      throw new IllegalArgumentException("probes must be positive");
+    }
+  }
+
+  /** This tuning with unset fields taken from the fallback. */
+  public SearchTuning orElse(SearchTuning fallback) {
+    return new SearchTuning(
+        efSearch != null ? efSearch : fallback.efSearch(),
+        probes != null ? probes : fallback.probes());
+  }
+}
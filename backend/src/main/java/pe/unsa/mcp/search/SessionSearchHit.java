@@ -0,0 +1,12 @@
+package pe.unsa.mcp.search;
+
+import java.util.UUID;
+
+/** A session matched by semantic search, hydrated with the fields the MCP tools return. */
+public record SessionSearchHit(
+    UUID sessionId, String title, String abstractText, String speakerName, double distance) {
+
+  public double score() {
+    return 1.0 - distance;
+  }
+}
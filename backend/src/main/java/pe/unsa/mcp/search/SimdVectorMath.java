@@ -0,0 +1,33 @@
+package pe.unsa.mcp.search;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernels, only loaded when the incubator vector module is present. Compiled on its own by
+ * the {@code compile-simd} execution, the only one that adds the module, and called through
+ * {@link VectorMath}.
+ */
+final class SimdVectorMath {
+
+  private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+  private SimdVectorMath() {}
+
+  static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+    FloatVector acc = FloatVector.zero(SPECIES);
+    int i = 0;
+    int upper = SPECIES.loopBound(length);
+    for (; i < upper; i += SPECIES.length()) {
+      FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+      FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+      acc = va.fma(vb, acc);
+    }
+    float sum = acc.reduceLanes(VectorOperators.ADD);
+    for (; i < length; i++) {
+      sum += a[aOffset + i] * b[bOffset + i];
+    }
+    return sum;
+  }
+}
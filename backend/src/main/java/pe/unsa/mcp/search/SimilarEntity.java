@@ -0,0 +1,11 @@
+package pe.unsa.mcp.search;
+
+import java.util.UUID;
+
+/** Best cosine distance of any embedded field of an entity to the query. */
+public record SimilarEntity(UUID entityId, double distance) {
+
+  public double score() {
+    return 1.0 - distance;
+  }
+}
@@ -0,0 +1,12 @@
+package pe.unsa.mcp.search;
+
+import java.util.UUID;
+
+/** A speaker matched by semantic search, hydrated with the fields the MCP tools return. */
+public record SpeakerSearchHit(
+    UUID speakerId, String fullName, String orgName, String jobTitle, double distance) {
+
+  public double score() {
+    return 1.0 - distance;
+  }
+}
@@ -0,0 +1,361 @@
+package pe.unsa.mcp.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory similarity index for one entity type. Each (entity, field) pair owns a slot in a
+ * {@link VectorStore}. Small indexes are scanned exactly; once the live size reaches the HNSW
+ * threshold an {@link HnswGraph} is built and used instead. Replaced and deleted slots are
+ * tombstoned and reclaimed by compaction.
+ *
+ * <p>Building a graph or compacting copies every live vector, so it runs on the rebuild executor
+ * from a snapshot while searches keep using the current store and graph. Writes made meanwhile go
+ * to the current structures and are copied over in rounds; the write lock is only held to take
+ * each round's snapshot and, once few writes are left, to copy those and swap the new structures
+ * in.
+ */
+final class VectorIndex {
+
+  private static final double COMPACTION_RATIO = 0.25;
+  private static final int COMPACTION_MIN_SLOTS = 1024;
+  private static final int CATCH_UP_UNDER_LOCK = 256;
+
+  private final int dimensions;
+  private final int hnswThreshold;
+  private final int hnswM;
+  private final int hnswEfConstruction;
+  private final int hnswEfSearch;
+  private final Executor rebuilds;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private VectorStore store;
+  private HnswGraph graph;
+  private List<UUID> slotEntities = new ArrayList<>();
+  private final Map<UUID, Map<String, Integer>> slotsByEntity = new HashMap<>();
+  private BitSet live = new BitSet();
+  private int liveCount;
+  private boolean rebuilding;
+
+  VectorIndex(
+      int dimensions,
+      int hnswThreshold,
+      int hnswM,
+      int hnswEfConstruction,
+      int hnswEfSearch,
+      Executor rebuilds) {
+    this.dimensions = dimensions;
+    this.hnswThreshold = hnswThreshold;
+    this.hnswM = hnswM;
+    this.hnswEfConstruction = hnswEfConstruction;
+    this.hnswEfSearch = hnswEfSearch;
+    this.rebuilds = rebuilds;
+    this.store = new VectorStore(dimensions);
+  }
+
+  void upsert(UUID entityId, String field, float[] vector) {
+    float[] normalized = VectorMath.normalize(vector.clone());
+    Snapshot rebuild;
+    lock.writeLock().lock();
+    try {
+      Map<String, Integer> fields = slotsByEntity.computeIfAbsent(entityId, id -> new HashMap<>());
+      Integer previous = fields.get(field);
+      if (previous != null) {
+        tombstone(previous);
+      }
+      fields.put(field, append(entityId, normalized));
+      rebuild = maybeRestructure();
+    } finally {
+      lock.writeLock().unlock();
+    }
+    schedule(rebuild);
+  }
+
+  void removeEntity(UUID entityId) {
+    Snapshot rebuild = null;
+    lock.writeLock().lock();
+    try {
+      Map<String, Integer> fields = slotsByEntity.remove(entityId);
+      if (fields != null) {
+        fields.values().forEach(this::tombstone);
+        rebuild = maybeRestructure();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    schedule(rebuild);
+  }
+
+  void remove(UUID entityId, String field) {
+    Snapshot rebuild = null;
+    lock.writeLock().lock();
+    try {
+      Map<String, Integer> fields = slotsByEntity.get(entityId);
+      Integer slot = fields == null ? null : fields.remove(field);
+      if (slot != null) {
+        tombstone(slot);
+        if (fields.isEmpty()) {
+          slotsByEntity.remove(entityId);
+        }
+        rebuild = maybeRestructure();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    schedule(rebuild);
+  }
+
+  /** Top entities by best field distance, closest first. */
+  List<SimilarEntity> search(float[] query, int limit) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    float[] normalized = VectorMath.normalize(query.clone());
+    lock.readLock().lock();
+    try {
+      Map<UUID, Float> best = graph == null ? scan(normalized) : probe(normalized, limit);
+      return topEntities(best, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Exact search restricted to the given entities, used for small scoped candidate sets. */
+  List<SimilarEntity> searchAmong(float[] query, Collection<UUID> entityIds, int limit) {
+    if (limit <= 0 || entityIds.isEmpty()) {
+      return List.of();
+    }
+    float[] normalized = VectorMath.normalize(query.clone());
+    lock.readLock().lock();
+    try {
+      Map<UUID, Float> best = new HashMap<>(entityIds.size() * 2);
+      for (UUID entityId : entityIds) {
+        Map<String, Integer> fields = slotsByEntity.get(entityId);
+        if (fields == null) {
+          continue;
+        }
+        for (int slot : fields.values()) {
+          best.merge(entityId, 1f - store.dot(normalized, slot), Math::min);
+        }
+      }
+      return topEntities(best, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int size() {
+    lock.readLock().lock();
+    try {
+      return liveCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Slots in the store, live or tombstoned. */
+  int storedSlots() {
+    lock.readLock().lock();
+    try {
+      return store.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  boolean usesGraph() {
+    lock.readLock().lock();
+    try {
+      return graph != null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Map<UUID, Float> scan(float[] query) {
+    Map<UUID, Float> best = new HashMap<>(slotsByEntity.size() * 2);
+    for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+      float distance = 1f - store.dot(query, slot);
+      best.merge(slotEntities.get(slot), distance, Math::min);
+    }
+    return best;
+  }
+
+  private Map<UUID, Float> probe(float[] query, int limit) {
+    // Over-fetch so every entity can be represented by all of its fields
+    int entities = Math.max(1, slotsByEntity.size());
+    int fieldsPerEntity = Math.max(1, (liveCount + entities - 1) / entities);
+    int k = limit * fieldsPerEntity * 2;
+    Map<UUID, Float> best = new HashMap<>();
+    for (HnswGraph.Candidate candidate : graph.search(query, k, Math.max(hnswEfSearch, k))) {
+      if (live.get(candidate.node())) {
+        best.merge(slotEntities.get(candidate.node()), candidate.distance(), Math::min);
+      }
+    }
+    return best;
+  }
+
+  private static List<SimilarEntity> topEntities(Map<UUID, Float> best, int limit) {
+    PriorityQueue<Map.Entry<UUID, Float>> top =
+        new PriorityQueue<>(Map.Entry.<UUID, Float>comparingByValue().reversed());
+    for (Map.Entry<UUID, Float> entry : best.entrySet()) {
+      if (top.size() < limit) {
+        top.add(entry);
+      } else if (entry.getValue() < top.peek().getValue()) {
+        top.poll();
+        top.add(entry);
+      }
+    }
+    List<SimilarEntity> results = new ArrayList<>(top.size());
+    for (Map.Entry<UUID, Float> entry : top) {
+      results.add(new SimilarEntity(entry.getKey(), entry.getValue()));
+    }
+    results.sort(Comparator.comparingDouble(SimilarEntity::distance));
+    return results;
+  }
+
+  private int append(UUID entityId, float[] normalized) {
+    int slot = store.add(normalized);
+    slotEntities.add(entityId);
+    live.set(slot);
+    liveCount++;
+    if (graph != null) {
+      graph.add(slot);
+    }
+    return slot;
+  }
+
+  private void tombstone(int slot) {
+    if (live.get(slot)) {
+      live.clear(slot);
+      liveCount--;
+    }
+  }
+
+  /** Snapshot to rebuild from when the index needs a graph change or compaction, else null. */
+  private Snapshot maybeRestructure() {
+    if (rebuilding) {
+      return null;
+    }
+    int dead = store.size() - liveCount;
+    // Hysteresis keeps an index hovering around the threshold from rebuilding on every write
+    boolean wantsGraph =
+        graph == null ? liveCount >= hnswThreshold : liveCount >= hnswThreshold / 2;
+    boolean needsCompaction =
+        store.size() >= COMPACTION_MIN_SLOTS && dead > store.size() * COMPACTION_RATIO;
+    if (!needsCompaction && wantsGraph == (graph != null)) {
+      return null;
+    }
+    rebuilding = true;
+    return new Snapshot(
+        wantsGraph, store.view(), (BitSet) live.clone(), List.copyOf(slotEntities));
+  }
+
+  private void schedule(Snapshot snapshot) {
+    if (snapshot != null) {
+      rebuilds.execute(() -> rebuild(snapshot));
+    }
+  }
+
+  /** Copy the live vectors into a fresh store, building the graph when requested, then swap. */
+  private void rebuild(Snapshot snapshot) {
+    Snapshot next;
+    try {
+      Build build = new Build(snapshot.withGraph());
+      Snapshot round = snapshot;
+      while (true) {
+        build.copy(round);
+        lock.writeLock().lock();
+        try {
+          BitSet missing = (BitSet) live.clone();
+          missing.andNot(build.copied);
+          if (missing.cardinality() > CATCH_UP_UNDER_LOCK) {
+            round =
+                new Snapshot(
+                    snapshot.withGraph(), store.view(), missing, List.copyOf(slotEntities));
+            continue;
+          }
+          build.copy(new Snapshot(snapshot.withGraph(), store, missing, slotEntities));
+          swap(build);
+          next = maybeRestructure();
+        } finally {
+          lock.writeLock().unlock();
+        }
+        break;
+      }
+    } catch (RuntimeException | Error e) {
+      lock.writeLock().lock();
+      try {
+        rebuilding = false;
+      } finally {
+        lock.writeLock().unlock();
+      }
+      throw e;
+    }
+    schedule(next);
+  }
+
+  /** Point every field at its slot in the rebuilt store; slots deleted meanwhile stay dead. */
+  private void swap(Build build) {
+    BitSet rebuiltLive = new BitSet(build.store.size());
+    for (Map<String, Integer> fields : slotsByEntity.values()) {
+      for (Map.Entry<String, Integer> field : fields.entrySet()) {
+        int slot = build.remap[field.getValue()];
+        field.setValue(slot);
+        rebuiltLive.set(slot);
+      }
+    }
+    store = build.store;
+    graph = build.graph;
+    slotEntities = build.entities;
+    live = rebuiltLive;
+    liveCount = rebuiltLive.cardinality();
+    rebuilding = false;
+  }
+
+  /** Live slots of a store, with the entity owning each slot, to copy into a rebuild. */
+  private record Snapshot(
+      boolean withGraph, VectorStore store, BitSet slots, List<UUID> entities) {}
+
+  private final class Build {
+
+    private final VectorStore store = new VectorStore(dimensions);
+    private final HnswGraph graph;
+    private final List<UUID> entities = new ArrayList<>();
+    private final BitSet copied = new BitSet();
+    private int[] remap = new int[0];
+
+    Build(boolean withGraph) {
+      graph = withGraph ? new HnswGraph(store, hnswM, hnswEfConstruction) : null;
+    }
+
+    void copy(Snapshot from) {
+      BitSet slots = from.slots();
+      for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+        if (copied.get(slot)) {
+          continue;
+        }
+        int copy = store.add(from.store().copy(slot));
+        entities.add(from.entities().get(slot));
+        if (graph != null) {
+          graph.add(copy);
+        }
+        if (slot >= remap.length) {
+          remap = Arrays.copyOf(remap, Math.max(slot + 1, remap.length * 2));
+        }
+        remap[slot] = copy;
+        copied.set(slot);
+      }
+    }
+  }
+}
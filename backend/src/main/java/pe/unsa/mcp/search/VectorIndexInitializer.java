@@ -0,0 +1,90 @@
+package pe.unsa.mcp.search;
+
+import java.util.EnumSet;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository.AnnIndex;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+
+/**
+ * Creates the partial ANN indexes for the configured embedding dimensions and index method when
+ * the migrations did not (they only cover IVFFlat at 1536). Indexes are built concurrently on the
+ * live table; a build left invalid by an earlier crash is dropped and retried.
+ *
+ * <p>This is also the migration path between IVFFlat and HNSW: after {@code
+ * mcp.search.pgvector.index} changes, the new index is built while searches keep using the old
+ * one, which is dropped only once its replacement is valid. Both index the same expression, so
+ * keeping them would leave the choice between them to the planner.
+ */
+@Component
+public class VectorIndexInitializer {
+
+  private static final Logger log = LoggerFactory.getLogger(VectorIndexInitializer.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final VectorSearchRepository vectorSearchRepository;
+  private final boolean enabled;
+  private final VectorStorage storage;
+
+  public VectorIndexInitializer(
+      JdbcTemplate jdbcTemplate,
+      VectorSearchRepository vectorSearchRepository,
+      @Value("${mcp.search.pgvector.create-indexes:true}") boolean enabled,
+      @Value("${mcp.search.pgvector.storage:full}") VectorStorage storage) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.vectorSearchRepository = vectorSearchRepository;
+    this.enabled = enabled;
+    this.storage = storage;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createMissingIndexes() {
+    if (!enabled) {
+      return;
+    }
+    Set<VectorStorage> storages = EnumSet.of(VectorStorage.full, storage);
+    for (VectorStorage each : storages) {
+      if (ensureIndex(each) && each.usesAnnIndex()) {
+        dropReplacedIndexes(each);
+      }
+    }
+  }
+
+  /** Returns whether the storage's index is usable afterwards. */
+  private boolean ensureIndex(VectorStorage storage) {
+    String name = vectorSearchRepository.indexName(storage);
+    if (vectorSearchRepository.isIndexUsable(name)) {
+      return true;
+    }
+    try {
+      long started = System.nanoTime();
+      // CONCURRENTLY cannot run inside a transaction; JdbcTemplate statements here autocommit
+      jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+      jdbcTemplate.execute(vectorSearchRepository.createIndexSql(storage));
+      log.info(
+          "Created vector index {} in {} ms", name, (System.nanoTime() - started) / 1_000_000);
+      return true;
+    } catch (Exception e) {
+      // halfvec, binary_quantize, subvector and l2_normalize need pgvector 0.7+
+      log.warn("Could not create vector index {}: {}", name, e.getMessage());
+      return false;
+    }
+  }
+
+  private void dropReplacedIndexes(VectorStorage storage) {
+    for (AnnIndex method : AnnIndex.values()) {
+      if (method == vectorSearchRepository.annIndex()) {
+        continue;
+      }
+      String replaced = vectorSearchRepository.indexName(storage, method);
+      jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + replaced);
+    }
+  }
+}
@@ -0,0 +1,253 @@
+package pe.unsa.mcp.search;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.VectorIndexBuild;
+import pe.unsa.mcp.model.VectorIndexBuild.Reason;
+import pe.unsa.mcp.model.VectorIndexBuild.Status;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.repository.VectorIndexBuildRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository.AnnIndex;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+import pe.unsa.mcp.search.RecallEvaluator.RecallReport;
+
+/**
+ * Retrains the IVFFlat indexes as {@code entity_embeddings} grows. IVFFlat centroids are fixed
+ * when the index is built, so an index built on an empty or much smaller table keeps probing lists
+ * that no longer match the data. Each check compares the rows of the configured dimensions with
+ * the last completed build; once the rows written or removed since then exceed {@code
+ * drift-threshold} of it, the index is rebuilt concurrently under a temporary name with {@code
+ * lists = rows / 1000} (sqrt(rows) above a million rows) and swapped in with a drop and rename in
+ * one transaction. Recall and latency are measured before and after and stored with the build.
+ */
+@Component
+public class VectorIndexMaintenance {
+
+  private static final Logger log = LoggerFactory.getLogger(VectorIndexMaintenance.class);
+
+  /** Advisory lock so only one node rebuilds at a time. */
+  private static final String LOCK_KEY = "hashtext('vector_index_maintenance')";
+
+  private static final int RECALL_K = 10;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final VectorSearchRepository vectorSearchRepository;
+  private final EntityEmbeddingRepository embeddingRepository;
+  private final VectorIndexBuildRepository buildRepository;
+  private final RecallEvaluator recallEvaluator;
+  private final VectorStorage storage;
+  private final boolean enabled;
+  private final double driftThreshold;
+  private final long minChangedRows;
+  private final int recallSamples;
+
+  public VectorIndexMaintenance(
+      JdbcTemplate jdbcTemplate,
+      VectorSearchRepository vectorSearchRepository,
+      EntityEmbeddingRepository embeddingRepository,
+      VectorIndexBuildRepository buildRepository,
+      RecallEvaluator recallEvaluator,
+      @Value("${mcp.search.pgvector.storage:full}") VectorStorage storage,
+      @Value("${mcp.search.pgvector.maintenance.enabled:true}") boolean enabled,
+      @Value("${mcp.search.pgvector.maintenance.drift-threshold:0.2}") double driftThreshold,
+      @Value("${mcp.search.pgvector.maintenance.min-changed-rows:1000}") long minChangedRows,
+      @Value("${mcp.search.pgvector.maintenance.recall-samples:50}") int recallSamples) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.vectorSearchRepository = vectorSearchRepository;
+    this.embeddingRepository = embeddingRepository;
+    this.buildRepository = buildRepository;
+    this.recallEvaluator = recallEvaluator;
+    this.storage = storage;
+    this.enabled = enabled;
+    this.driftThreshold = driftThreshold;
+    this.minChangedRows = minChangedRows;
+    this.recallSamples = recallSamples;
+  }
+
+  @Scheduled(
+      initialDelayString = "${mcp.search.pgvector.maintenance.check-interval:PT15M}",
+      fixedDelayString = "${mcp.search.pgvector.maintenance.check-interval:PT15M}")
+  public void check() {
+    if (!enabled || vectorSearchRepository.annIndex() != AnnIndex.ivfflat) {
+      return;
+    }
+    for (VectorStorage each : maintainedStorages()) {
+      try {
+        Drift drift = drift(each);
+        if (drift.reason() != null) {
+          rebuild(each, drift);
+        }
+      } catch (Exception e) {
+        log.error("Vector index maintenance failed for {}", each, e);
+      }
+    }
+  }
+
+  /** Rebuild the IVFFlat index behind the storage now, regardless of drift. */
+  public VectorIndexBuild rebuild(VectorStorage storage) {
+    if (vectorSearchRepository.annIndex() != AnnIndex.ivfflat || !storage.usesAnnIndex()) {
+      throw new IllegalArgumentException("Only IVFFlat indexes are retrained");
+    }
+    Drift drift = drift(storage);
+    return rebuild(storage, new Drift(Reason.manual, drift.rows(), drift.changedRows()));
+  }
+
+  public List<VectorIndexBuild> history() {
+    return buildRepository.findTop20ByOrderByStartedAtDesc();
+  }
+
+  /** IVFFlat lists for a row count, following the pgvector guidance. */
+  static int listsFor(long rows) {
+    long lists = rows <= 1_000_000 ? rows / 1000 : (long) Math.sqrt(rows);
+    return (int) Math.max(1, lists);
+  }
+
+  private record Drift(Reason reason, long rows, long changedRows) {}
+
+  private Drift drift(VectorStorage storage) {
+    int dimensions = vectorSearchRepository.dimensions();
+    long rows = embeddingRepository.countByDim(dimensions);
+    Optional<VectorIndexBuild> last =
+        buildRepository.findFirstByIndexNameAndStatusOrderByStartedAtDesc(
+            vectorSearchRepository.indexName(storage), Status.completed);
+    if (last.isEmpty()) {
+      return new Drift(rows >= minChangedRows ? Reason.initial : null, rows, rows);
+    }
+    VectorIndexBuild previous = last.get();
+    // Embeddings are replaced by delete + insert, so new created_at values cover updates too
+    long written =
+        embeddingRepository.countByDimAndCreatedAtAfter(dimensions, previous.getStartedAt());
+    long removed = Math.max(0, previous.getRowCount() + written - rows);
+    long changed = written + removed;
+    boolean due =
+        changed >= minChangedRows
+            && changed >= driftThreshold * Math.max(1, previous.getRowCount());
+    return new Drift(due ? Reason.drift : null, rows, changed);
+  }
+
+  private List<VectorStorage> maintainedStorages() {
+    List<VectorStorage> storages = new ArrayList<>();
+    for (VectorStorage each : EnumSet.of(VectorStorage.full, storage)) {
+      if (each.usesAnnIndex()) {
+        storages.add(each);
+      }
+    }
+    return storages;
+  }
+
+  private VectorIndexBuild rebuild(VectorStorage storage, Drift drift) {
+    String name = vectorSearchRepository.indexName(storage);
+    int lists = listsFor(drift.rows());
+
+    VectorIndexBuild build = new VectorIndexBuild();
+    build.setIndexName(name);
+    build.setReason(drift.reason());
+    build.setStatus(Status.running);
+    build.setLists(lists);
+    build.setRowCount(drift.rows());
+    build.setChangedRows(drift.changedRows());
+    build = buildRepository.save(build);
+    log.info(
+        "Rebuilding {} with lists={} ({} rows, {} changed, reason={})",
+        name,
+        lists,
+        drift.rows(),
+        drift.changedRows(),
+        drift.reason());
+
+    try {
+      RecallReport before = measure(storage);
+      build.setRecallBefore(before.recall());
+      build.setLatencyBeforeMs(before.approximateMillis());
+
+      long started = System.nanoTime();
+      buildAndSwap(storage, name, lists);
+      build.setBuildMs((System.nanoTime() - started) / 1_000_000);
+
+      RecallReport after = measure(storage);
+      build.setRecallAfter(after.recall());
+      build.setLatencyAfterMs(after.approximateMillis());
+      build.setStatus(Status.completed);
+      log.info(
+          "Rebuilt {}: recall@{} {} -> {}, latency {} ms -> {} ms",
+          name,
+          RECALL_K,
+          before.recall(),
+          after.recall(),
+          before.approximateMillis(),
+          after.approximateMillis());
+    } catch (Exception e) {
+      build.setStatus(Status.failed);
+      build.setLastError(e.getMessage());
+      log.error("Rebuilding {} failed", name, e);
+    }
+    build.setFinishedAt(OffsetDateTime.now());
+    return buildRepository.save(build);
+  }
+
+  private RecallReport measure(VectorStorage storage) {
+    return recallEvaluator.evaluate(
+        EntityType.session, storage, SearchTuning.DEFAULTS, RECALL_K, recallSamples);
+  }
+
+  /**
+   * Build the replacement concurrently on one pooled connection, then drop the old index and
+   * rename the new one in a single short transaction, so searches always see exactly one index.
+   */
+  private void buildAndSwap(VectorStorage storage, String name, int lists) {
+    String replacement = name + "_new";
+    jdbcTemplate.execute(
+        (ConnectionCallback<Void>)
+            connection -> {
+              try (Statement statement = connection.createStatement()) {
+                if (!tryLock(statement)) {
+                  throw new IllegalStateException("Another node is rebuilding vector indexes");
+                }
+                try {
+                  // CONCURRENTLY needs autocommit; a leftover from a crashed build is invalid
+                  statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + replacement);
+                  statement.execute(
+                      vectorSearchRepository.createIvfflatIndexSql(storage, replacement, lists));
+
+                  connection.setAutoCommit(false);
+                  try {
+                    // Fail fast instead of queueing every search behind the exclusive lock
+                    statement.execute("SET LOCAL lock_timeout = '5s'");
+                    statement.execute("DROP INDEX IF EXISTS " + name);
+                    statement.execute("ALTER INDEX " + replacement + " RENAME TO " + name);
+                    connection.commit();
+                  } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                  } finally {
+                    connection.setAutoCommit(true);
+                  }
+                } finally {
+                  statement.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+              }
+              return null;
+            });
+  }
+
+  private static boolean tryLock(Statement statement) throws SQLException {
+    try (ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+      return rs.next() && rs.getBoolean(1);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package pe.unsa.mcp.search;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Dot products over flat float arrays. Uses {@link SimdVectorMath} when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise. The SIMD kernel is
+ * compiled in its own step of the build (see the {@code compile-simd} execution in the pom), so it
+ * is looked up reflectively and the rest of the code compiles without the incubator module.
+ */
+final class VectorMath {
+
+  private static final MethodHandle SIMD_DOT = simdDot();
+
+  static final boolean SIMD_AVAILABLE = SIMD_DOT != null;
+
+  private VectorMath() {}
+
+  static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+    if (SIMD_DOT != null) {
+      try {
+        return (float) SIMD_DOT.invokeExact(a, aOffset, b, bOffset, length);
+      } catch (Throwable e) {
+        throw new IllegalStateException("SIMD dot product failed", e);
+      }
+    }
+    return scalarDot(a, aOffset, b, bOffset, length);
+  }
+
+  static float scalarDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+    float sum = 0f;
+    for (int i = 0; i < length; i++) {
+      sum += a[aOffset + i] * b[bOffset + i];
+    }
+    return sum;
+  }
+
+  /** Scale the vector to unit length in place so cosine distance becomes 1 - dot. */
+  static float[] normalize(float[] vector) {
+    float norm = (float) Math.sqrt(dot(vector, 0, vector, 0, vector.length));
+    if (norm > 0f) {
+      for (int i = 0; i < vector.length; i++) {
+        vector[i] /= norm;
+      }
+    }
+    return vector;
+  }
+
+  private static MethodHandle simdDot() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      return null;
+    }
+    try {
+      return MethodHandles.lookup()
+          .findStatic(
+              Class.forName("pe.unsa.mcp.search.SimdVectorMath"),
+              "dot",
+              MethodType.methodType(
+                  float.class, float[].class, int.class, float[].class, int.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,10 @@
+package pe.unsa.mcp.search;
+
+import java.util.List;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+
+/** Nearest-neighbour lookup over entity embeddings, merged to one best distance per entity. */
+public interface VectorSearchBackend {
+
+  List<SimilarEntity> findSimilarEntities(EntityType entityType, float[] query, int limit);
+}
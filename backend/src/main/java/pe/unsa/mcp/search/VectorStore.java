@@ -0,0 +1,76 @@
+package pe.unsa.mcp.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only store of fixed-dimension vectors packed into large float chunks, so tens of
+ * thousands of embeddings cost a handful of arrays instead of one object per vector.
+ */
+final class VectorStore {
+
+  private static final int CHUNK_SHIFT = 10;
+  private static final int CHUNK_VECTORS = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_VECTORS - 1;
+
+  private final int dimensions;
+  private float[][] chunks = new float[0][];
+  private int size;
+
+  VectorStore(int dimensions) {
+    this.dimensions = dimensions;
+  }
+
+  int dimensions() {
+    return dimensions;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Append a copy of the vector and return its slot. */
+  int add(float[] vector) {
+    if (vector.length != dimensions) {
+      throw new IllegalArgumentException(
+          "Expected " + dimensions + " dimensions but got " + vector.length);
+    }
+    int slot = size;
+    int chunk = slot >>> CHUNK_SHIFT;
+    if (chunk == chunks.length) {
+      chunks = Arrays.copyOf(chunks, chunk + 1);
+      chunks[chunk] = new float[CHUNK_VECTORS * dimensions];
+    }
+    System.arraycopy(vector, 0, chunks[chunk], offset(slot), dimensions);
+    size++;
+    return slot;
+  }
+
+  float dot(float[] query, int slot) {
+    return VectorMath.dot(query, 0, chunks[slot >>> CHUNK_SHIFT], offset(slot), dimensions);
+  }
+
+  float dot(int a, int b) {
+    return VectorMath.dot(
+        chunks[a >>> CHUNK_SHIFT], offset(a), chunks[b >>> CHUNK_SHIFT], offset(b), dimensions);
+  }
+
+  float[] copy(int slot) {
+    int from = offset(slot);
+    return Arrays.copyOfRange(chunks[slot >>> CHUNK_SHIFT], from, from + dimensions);
+  }
+
+  /**
+   * A read-only copy of the current contents for use outside the owner's lock. It shares the chunk
+   * arrays, which later appends only extend past {@link #size()}.
+   */
+  VectorStore view() {
+    VectorStore view = new VectorStore(dimensions);
+    view.chunks = chunks.clone();
+    view.size = size;
+    return view;
+  }
+
+  private int offset(int slot) {
+    return (slot & CHUNK_MASK) * dimensions;
+  }
+}
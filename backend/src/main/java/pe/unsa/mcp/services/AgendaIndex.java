@@ -0,0 +1,217 @@
+package pe.unsa.mcp.services;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.stereotype.Service;
+import pe.unsa.mcp.model.Session;
+import pe.unsa.mcp.model.Speaker;
+import pe.unsa.mcp.repository.SessionRepository;
+
+/**
+ * In-memory agenda of each event used by the time-based MCP tools. An event's sessions are loaded
+ * once into an immutable {@link EventAgenda} and served from it until a session, speaker or event
+ * write commits; readers always see one complete snapshot, never a partially updated one.
+ */
+@Service
+public class AgendaIndex {
+
+  private static final Comparator<AgendaEntry> BY_START =
+      Comparator.comparing(AgendaEntry::startsAt).thenComparing(AgendaEntry::seq);
+
+  private final SessionRepository sessionRepository;
+  private final Map<UUID, EventAgenda> agendas = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private final ReentrantLock loadLock = new ReentrantLock();
+
+  public AgendaIndex(SessionRepository sessionRepository) {
+    this.sessionRepository = sessionRepository;
+  }
+
+  /** Session fields the agenda tools return, detached from the persistence context. */
+  public record AgendaEntry(
+      UUID sessionId,
+      Integer seq,
+      String title,
+      String abstractText,
+      LocalDate day,
+      String track,
+      OffsetDateTime startsAt,
+      OffsetDateTime endsAt,
+      UUID speakerId,
+      String speakerName,
+      String speakerOrg,
+      String speakerJobTitle,
+      String speakerProfileImageUrl) {
+
+    static AgendaEntry of(Session session) {
+      Speaker speaker = session.getSpeaker();
+      return new AgendaEntry(
+          session.getId(),
+          session.getSeq(),
+          session.getTitle(),
+          session.getAbstractText(),
+          session.getDay(),
+          session.getTrack(),
+          session.getStartsAt(),
+          session.getEndsAt(),
+          speaker.getId(),
+          speaker.getFullName(),
+          speaker.getOrgName(),
+          speaker.getJobTitle(),
+          speaker.getProfileImageUrl());
+    }
+  }
+
+  public EventAgenda forEvent(UUID eventId) {
+    EventAgenda current = agendas.get(eventId);
+    if (current != null) {
+      return current;
+    }
+    // synchronized would pin a virtual thread to its carrier for the whole query
+    loadLock.lock();
+    try {
+      current = agendas.get(eventId);
+      if (current != null) {
+        return current;
+      }
+      long loadedAt = generation.get();
+      EventAgenda loaded =
+          new EventAgenda(
+              sessionRepository.findAllWithSpeakerByEventId(eventId).stream()
+                  .map(AgendaEntry::of)
+                  .toList());
+      // An invalidation that raced with the load means the rows we read may already be stale
+      if (generation.get() == loadedAt) {
+        agendas.put(eventId, loaded);
+      }
+      return loaded;
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  /** Drop the event's agenda once the current transaction commits. */
+  public void invalidate(UUID eventId) {
+    TransactionHooks.afterCommit(
+        () -> {
+          generation.incrementAndGet();
+          agendas.remove(eventId);
+        });
+  }
+
+  /** Drop every agenda once the current transaction commits, e.g. after a speaker edit. */
+  public void invalidateAll() {
+    TransactionHooks.afterCommit(
+        () -> {
+          generation.incrementAndGet();
+          agendas.clear();
+        });
+  }
+
+  /**
+   * Immutable schedule of one event. Sessions are kept in seq order, in start order with the
+   * running maximum end time (an augmented interval list), and grouped by day, so time lookups
+   * are binary searches that also handle sessions running in parallel tracks.
+   */
+  public static final class EventAgenda {
+
+    private final List<AgendaEntry> bySeq;
+    private final int[] seqs;
+    private final AgendaEntry[] byStart;
+    private final long[] starts;
+    private final long[] maxEndUpTo;
+    private final Map<LocalDate, List<AgendaEntry>> byDay;
+
+    EventAgenda(List<AgendaEntry> entries) {
+      bySeq = entries.stream().sorted(Comparator.comparing(AgendaEntry::seq)).toList();
+      seqs = bySeq.stream().mapToInt(AgendaEntry::seq).toArray();
+
+      byStart = entries.stream().sorted(BY_START).toArray(AgendaEntry[]::new);
+      starts = new long[byStart.length];
+      maxEndUpTo = new long[byStart.length];
+      long maxEnd = Long.MIN_VALUE;
+      for (int i = 0; i < byStart.length; i++) {
+        starts[i] = micros(byStart[i].startsAt());
+        maxEnd = Math.max(maxEnd, micros(byStart[i].endsAt()));
+        maxEndUpTo[i] = maxEnd;
+      }
+
+      Map<LocalDate, List<AgendaEntry>> days = new LinkedHashMap<>();
+      for (AgendaEntry entry : byStart) {
+        if (entry.day() != null) {
+          days.computeIfAbsent(entry.day(), day -> new ArrayList<>()).add(entry);
+        }
+      }
+      days.replaceAll((day, list) -> List.copyOf(list));
+      byDay = Map.copyOf(days);
+    }
+
+    /** Every session in seq order. */
+    public List<AgendaEntry> bySeq() {
+      return bySeq;
+    }
+
+    /** Sessions in progress at the given time (start inclusive, end exclusive), by start. */
+    public List<AgendaEntry> at(OffsetDateTime time) {
+      long t = micros(time);
+      List<AgendaEntry> found = new ArrayList<>();
+      // maxEndUpTo never decreases, so no earlier session can still be running past this point
+      for (int i = upperBound(starts, t) - 1; i >= 0 && maxEndUpTo[i] > t; i--) {
+        if (micros(byStart[i].endsAt()) > t) {
+          found.add(byStart[i]);
+        }
+      }
+      found.sort(BY_START);
+      return found;
+    }
+
+    /** First session starting strictly after the given time. */
+    public Optional<AgendaEntry> nextAfter(OffsetDateTime time) {
+      int index = upperBound(starts, micros(time));
+      return index < byStart.length ? Optional.of(byStart[index]) : Optional.empty();
+    }
+
+    /** Session with the smallest seq greater than the given one. */
+    public Optional<AgendaEntry> nextAfterSeq(int seq) {
+      int index = Arrays.binarySearch(seqs, seq);
+      index = index >= 0 ? index + 1 : -index - 1;
+      return index < bySeq.size() ? Optional.of(bySeq.get(index)) : Optional.empty();
+    }
+
+    /** Sessions scheduled on the given day, by start. */
+    public List<AgendaEntry> onDay(LocalDate day) {
+      return byDay.getOrDefault(day, List.of());
+    }
+
+    /** Index of the first element greater than the key. */
+    private static int upperBound(long[] sorted, long key) {
+      int low = 0;
+      int high = sorted.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (sorted[mid] <= key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /** timestamptz resolution. */
+    private static long micros(OffsetDateTime time) {
+      return time.toEpochSecond() * 1_000_000 + time.getNano() / 1_000;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package pe.unsa.mcp.services;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import pe.unsa.mcp.services.ToolResultCache.Source;
+
+/**
+ * Marks an MCP tool whose response depends only on its arguments and on the data it lists, so it
+ * can be served from {@link ToolResultCache}. Tools that read the clock must not use it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedTool {
+
+  /**
+   * Data the response is built from. A {@code sessions} dependency of a tool with a {@code year}
+   * argument covers only that edition's sessions.
+   */
+  Source[] dependsOn();
+
+  /**
+   * Free-text parameters, keyed trimmed, lower-cased and whitespace-collapsed so that spelling
+   * variants of one question share an entry. Every other argument is keyed on its raw value, since
+   * filters such as a track are compared as-is.
+   */
+  String[] normalize() default {};
+}
@@ -0,0 +1,358 @@
+package pe.unsa.mcp.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.dto.EventRequest;
+import pe.unsa.mcp.dto.mapper.EventMapper;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.Event;
+import pe.unsa.mcp.repository.EmbeddingJobRepository;
+import pe.unsa.mcp.repository.EventRepository;
+import pe.unsa.mcp.services.ToolResultCache.Source;
+
+/**
+ * Loads a whole edition (event, speakers and sessions) from one JSON document in a single
+ * transaction:
+ *
+ * <pre>
+ * {"event": {...EventRequest...},
+ *  "speakers": [{"key": "s1", "fullName": "...", ...}],
+ *  "sessions": [{"speaker": "s1", "seq": 1, "title": "...", "startsAt": "...", ...}]}
+ * </pre>
+ *
+ * <p>The document is read with a streaming parser in that order, one speaker or session at a
+ * time. The checks {@link SessionService#create} runs per request (seq and speaker unique within
+ * the event, speaker exists) are done in memory. Rows go to the database in JDBC batches instead
+ * of one save each. A speaker whose name matches an existing speaker is reused, so people who
+ * return across editions keep a single profile. Embedding jobs for the new speakers and all the
+ * sessions are queued in the same transaction, and the job worker embeds them in batches once it
+ * commits.
+ */
+@Service
+public class EditionImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(EditionImportService.class);
+
+  private static final String INSERT_SPEAKER =
+      "INSERT INTO speakers (id, full_name, org_name, job_title, bio, profile_image_url, contacts)"
+          + " VALUES (?, ?, ?, ?, ?, ?, CAST(? AS jsonb))";
+
+  private static final String INSERT_SESSION =
+      "INSERT INTO sessions (id, event_id, speaker_id, title, abstract, day, starts_at, ends_at,"
+          + " seq, track) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String ENQUEUE_JOB =
+      "INSERT INTO embedding_jobs (entity_type, entity_id) VALUES (?, ?)"
+          + EmbeddingJobRepository.COALESCE_ON_CONFLICT;
+
+  private final ObjectMapper objectMapper;
+  private final JdbcTemplate jdbcTemplate;
+  private final EventRepository eventRepository;
+  private final EventCatalog eventCatalog;
+  private final AgendaIndex agendaIndex;
+  private final ToolResultCache toolResults;
+  private final SpeakerNameIndex speakerNameIndex;
+  private final int batchSize;
+
+  public EditionImportService(
+      ObjectMapper objectMapper,
+      JdbcTemplate jdbcTemplate,
+      EventRepository eventRepository,
+      EventCatalog eventCatalog,
+      AgendaIndex agendaIndex,
+      ToolResultCache toolResults,
+      SpeakerNameIndex speakerNameIndex,
+      @Value("${mcp.editions.import.batch-size:500}") int batchSize) {
+    this.objectMapper = objectMapper;
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventRepository = eventRepository;
+    this.eventCatalog = eventCatalog;
+    this.agendaIndex = agendaIndex;
+    this.toolResults = toolResults;
+    this.speakerNameIndex = speakerNameIndex;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /** A speaker of the file; {@code key} is how sessions refer to it (the name when absent). */
+  record SpeakerRow(
+      String key,
+      String fullName,
+      String orgName,
+      String jobTitle,
+      String bio,
+      String profileImageUrl,
+      Map<String, Object> contacts) {}
+
+  record SessionRow(
+      String speaker,
+      String title,
+      String abstractText,
+      LocalDate day,
+      OffsetDateTime startsAt,
+      OffsetDateTime endsAt,
+      Integer seq,
+      String track) {}
+
+  public record EditionImportReport(
+      UUID eventId,
+      int speakersCreated,
+      int speakersReused,
+      int sessions,
+      int embeddingJobs,
+      long millis) {}
+
+  /**
+   * Throws IllegalArgumentException, with nothing written, when the document is malformed, the
+   * edition already exists or a row fails validation. An IOException while reading the upload,
+   * e.g. a truncated body, also rolls back everything written so far.
+   */
+  @Transactional(rollbackFor = IOException.class)
+  public EditionImportReport importEdition(InputStream in) throws IOException {
+    long started = System.nanoTime();
+    try {
+      EditionImportReport report = read(in).finish(started);
+      log.info("Imported edition: {}", report);
+      return report;
+    } catch (IllegalArgumentException e) {
+      log.warn("Rejected edition import: {}", e.getMessage());
+      throw e;
+    }
+  }
+
+  private Edition read(InputStream in) throws IOException {
+    Edition edition = new Edition();
+    try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalArgumentException("An edition file is a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String section = parser.currentName();
+        JsonToken value = parser.nextToken();
+        switch (section) {
+          case "event" -> edition.event(objectMapper.readValue(parser, EventRequest.class));
+          case "speakers" -> {
+            requireArray(section, value);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              edition.speaker(objectMapper.readValue(parser, SpeakerRow.class));
+            }
+          }
+          case "sessions" -> {
+            requireArray(section, value);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              edition.session(objectMapper.readValue(parser, SessionRow.class));
+            }
+          }
+          default -> parser.skipChildren();
+        }
+      }
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Malformed edition file: " + e.getOriginalMessage(), e);
+    }
+    return edition;
+  }
+
+  private static void requireArray(String section, JsonToken token) {
+    if (token != JsonToken.START_ARRAY) {
+      throw new IllegalArgumentException("'" + section + "' must be an array");
+    }
+  }
+
+  /** State of one import: validation sets, key resolution and the pending batches. */
+  private final class Edition {
+
+    private Event event;
+    private Map<String, UUID> existingSpeakers;
+    private final Map<String, UUID> speakersByKey = new HashMap<>();
+    private final Set<Integer> seqs = new HashSet<>();
+    private final Set<UUID> speakersWithSession = new HashSet<>();
+    private final List<Object[]> speakerBatch = new ArrayList<>();
+    private final List<Object[]> sessionBatch = new ArrayList<>();
+    private final List<Object[]> jobBatch = new ArrayList<>();
+    private int speakersCreated;
+    private int speakersReused;
+    private int sessions;
+    private int jobs;
+
+    void event(EventRequest request) {
+      if (event != null) {
+        throw new IllegalArgumentException("The file has more than one event");
+      }
+      if (request.name() == null || request.name().isBlank() || request.year() == null) {
+        throw new IllegalArgumentException("event: name and year are required");
+      }
+      if (eventRepository.existsByNameAndYear(request.name(), request.year())) {
+        throw new IllegalArgumentException(
+            "Event already exists for name: " + request.name() + " and year: " + request.year());
+      }
+      // Flushed now so the batched session inserts can reference it
+      event = eventRepository.saveAndFlush(EventMapper.toEntity(request));
+    }
+
+    void speaker(SpeakerRow row) {
+      int index = speakersCreated + speakersReused;
+      if (row.fullName() == null || row.fullName().isBlank()) {
+        throw new IllegalArgumentException("speakers[" + index + "]: fullName is required");
+      }
+      String key = row.key() != null ? row.key() : row.fullName();
+      if (speakersByKey.containsKey(key)) {
+        throw new IllegalArgumentException("speakers[" + index + "]: key '" + key + "' repeated");
+      }
+      UUID existing = existingSpeakers().get(normalize(row.fullName()));
+      if (existing != null) {
+        speakersByKey.put(key, existing);
+        speakersReused++;
+        return;
+      }
+      UUID id = UUID.randomUUID();
+      speakersByKey.put(key, id);
+      existingSpeakers.put(normalize(row.fullName()), id);
+      speakerBatch.add(
+          new Object[] {
+            id,
+            row.fullName(),
+            row.orgName(),
+            row.jobTitle(),
+            row.bio(),
+            row.profileImageUrl(),
+            json(row.contacts() != null ? row.contacts() : Map.of())
+          });
+      job(EntityType.speaker, id);
+      speakersCreated++;
+      if (speakerBatch.size() >= batchSize) {
+        flush(INSERT_SPEAKER, speakerBatch);
+      }
+    }
+
+    void session(SessionRow row) {
+      String at = "sessions[" + sessions + "]: ";
+      if (event == null) {
+        throw new IllegalArgumentException("The event must come before its sessions");
+      }
+      if (row.seq() == null || row.title() == null || row.title().isBlank()) {
+        throw new IllegalArgumentException(at + "seq and title are required");
+      }
+      if (row.startsAt() == null || row.endsAt() == null || !row.endsAt().isAfter(row.startsAt())) {
+        throw new IllegalArgumentException(at + "endsAt must be after startsAt");
+      }
+      if (!seqs.add(row.seq())) {
+        throw new IllegalArgumentException(at + "seq " + row.seq() + " is repeated");
+      }
+      UUID speakerId = row.speaker() != null ? speakersByKey.get(row.speaker()) : null;
+      if (speakerId == null) {
+        throw new IllegalArgumentException(at + "unknown speaker '" + row.speaker() + "'");
+      }
+      if (!speakersWithSession.add(speakerId)) {
+        throw new IllegalArgumentException(at + "speaker already has a session in this event");
+      }
+      // Sessions reference speakers, which must be inserted first
+      flush(INSERT_SPEAKER, speakerBatch);
+      UUID id = UUID.randomUUID();
+      sessionBatch.add(
+          new Object[] {
+            id,
+            event.getId(),
+            speakerId,
+            row.title(),
+            row.abstractText(),
+            row.day(),
+            row.startsAt(),
+            row.endsAt(),
+            row.seq(),
+            row.track()
+          });
+      job(EntityType.session, id);
+      sessions++;
+      if (sessionBatch.size() >= batchSize) {
+        flush(INSERT_SESSION, sessionBatch);
+      }
+    }
+
+    EditionImportReport finish(long started) {
+      if (event == null) {
+        throw new IllegalArgumentException("The file has no event");
+      }
+      flush(INSERT_SPEAKER, speakerBatch);
+      flush(INSERT_SESSION, sessionBatch);
+      flush(ENQUEUE_JOB, jobBatch);
+      eventCatalog.invalidate();
+      agendaIndex.invalidate(event.getId());
+      toolResults.changed(Source.events);
+      toolResults.changed(Source.sessions, event.getId());
+      if (speakersCreated > 0) {
+        speakerNameIndex.invalidate();
+        toolResults.changed(Source.speakers);
+      }
+      return new EditionImportReport(
+          event.getId(),
+          speakersCreated,
+          speakersReused,
+          sessions,
+          jobs,
+          (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void job(EntityType type, UUID id) {
+      jobBatch.add(new Object[] {type.name(), id});
+      jobs++;
+      if (jobBatch.size() >= batchSize) {
+        // Jobs may only reference rows already written
+        flush(INSERT_SPEAKER, speakerBatch);
+        flush(INSERT_SESSION, sessionBatch);
+        flush(ENQUEUE_JOB, jobBatch);
+      }
+    }
+
+    /** Lower-cased names of the speakers already stored, loaded on the first speaker. */
+    private Map<String, UUID> existingSpeakers() {
+      if (existingSpeakers == null) {
+        existingSpeakers = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT id, full_name FROM speakers",
+            rs -> {
+              existingSpeakers.putIfAbsent(
+                  normalize(rs.getString("full_name")), rs.getObject("id", UUID.class));
+            });
+      }
+      return existingSpeakers;
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+      if (!batch.isEmpty()) {
+        jdbcTemplate.batchUpdate(sql, batch);
+        batch.clear();
+      }
+    }
+  }
+
+  private String json(Map<String, Object> value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Invalid contacts: " + e.getOriginalMessage(), e);
+    }
+  }
+
+  private static String normalize(String name) {
+    return name.strip().toLowerCase(Locale.ROOT);
+  }
+}
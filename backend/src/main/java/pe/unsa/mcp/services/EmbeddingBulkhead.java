@@ -0,0 +1,45 @@
+package pe.unsa.mcp.services;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the embedding requests in flight at once. With virtual threads every MCP request can reach
+ * the provider concurrently, so the thread pool no longer bounds it; {@link EmbeddingRateLimiter}
+ * only spreads requests over the minute. Callers over the cap wait up to {@code max-wait} for a
+ * permit and then fail instead of queueing without limit.
+ */
+@Component
+public class EmbeddingBulkhead {
+
+  private final Semaphore permits;
+  private final Duration maxWait;
+
+  public EmbeddingBulkhead(
+      @Value("${mcp.embeddings.bulkhead.max-concurrent:16}") int maxConcurrent,
+      @Value("${mcp.embeddings.bulkhead.max-wait:PT10S}") Duration maxWait) {
+    this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+    this.maxWait = maxWait;
+  }
+
+  public <T> T call(Supplier<T> request) {
+    try {
+      if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+        throw new IllegalStateException(
+            "Embedding provider busy: no permit within " + maxWait.toMillis() + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for an embedding permit", e);
+    }
+    try {
+      return request.get();
+    } finally {
+      permits.release();
+    }
+  }
+}
@@ -1,10 +1,21 @@
 package pe.unsa.mcp.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.Embedding;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
@@ -14,6 +25,10 @@ import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import pe.unsa.mcp.model.Session;
 import pe.unsa.mcp.model.Speaker;
 import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository.ContentHashRow;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+import pe.unsa.mcp.search.InMemoryVectorSearchBackend;
+import pe.unsa.mcp.services.ToolResultCache.Source;
 
 @Service
 @Transactional
@@ -23,170 +38,352 @@ public class EmbeddingGenerationService {
 
   private final EmbeddingModel embeddingModel;
   private final EntityEmbeddingRepository embeddingRepository;
+  private final VectorSearchRepository vectorSearchRepository;
+  private final QueryEmbeddingCache queryEmbeddingCache;
+  private final InMemoryVectorSearchBackend vectorIndex;
+  private final EmbeddingRateLimiter rateLimiter;
+  private final EmbeddingBulkhead bulkhead;
+  private final ToolResultCache toolResults;
+  private final int maxBatchInputs;
+  private final int maxBatchTokens;
+  private final int dimensions;
 
   public EmbeddingGenerationService(
-      EmbeddingModel embeddingModel, EntityEmbeddingRepository embeddingRepository) {
+      EmbeddingModel embeddingModel,
+      EntityEmbeddingRepository embeddingRepository,
+      VectorSearchRepository vectorSearchRepository,
+      QueryEmbeddingCache queryEmbeddingCache,
+      InMemoryVectorSearchBackend vectorIndex,
+      EmbeddingRateLimiter rateLimiter,
+      EmbeddingBulkhead bulkhead,
+      ToolResultCache toolResults,
+      @Value("${mcp.embeddings.batch.max-inputs:2048}") int maxBatchInputs,
+      @Value("${mcp.embeddings.batch.max-tokens:250000}") int maxBatchTokens,
+      @Value("${mcp.embeddings.dimensions:1536}") int dimensions) {
     this.embeddingModel = embeddingModel;
     this.embeddingRepository = embeddingRepository;
+    this.vectorSearchRepository = vectorSearchRepository;
+    this.queryEmbeddingCache = queryEmbeddingCache;
+    this.vectorIndex = vectorIndex;
+    this.rateLimiter = rateLimiter;
+    this.bulkhead = bulkhead;
+    this.toolResults = toolResults;
+    this.maxBatchInputs = maxBatchInputs;
+    this.maxBatchTokens = maxBatchTokens;
+    this.dimensions = dimensions;
   }
 
-  /** Generate embeddings for a speaker's bio */
-  public void generateSpeakerEmbeddings(Speaker speaker) {
-    try {
-      // Combine bio with job title and organization for richer context
-      StringBuilder textBuilder = new StringBuilder();
+  private static final String MODEL_NAME =
+      EntityEmbedding.EmbeddingModel.TEXT_EMBEDDING_3_SMALL.getValue();
+
+  /**
+   * One text to embed and the (entityType, entityId, field) row it belongs to. The content hash
+   * addresses the vector: equal hashes always map to the same vector.
+   */
+  public record EmbeddingInput(
+      EntityType entityType, UUID entityId, EmbeddingField field, String text, String contentHash) {
+
+    public static EmbeddingInput of(
+        EntityType entityType, UUID entityId, EmbeddingField field, String text, int dimensions) {
+      String normalized = EmbeddingText.normalizeDocument(text);
+      return new EmbeddingInput(
+          entityType,
+          entityId,
+          field,
+          normalized,
+          EmbeddingText.hash(MODEL_NAME, dimensions, normalized));
+    }
+  }
 
-      if (speaker.getBio() != null && !speaker.getBio().isEmpty()) {
-        textBuilder.append(speaker.getBio());
-      }
+  /**
+   * What it takes to bring a set of inputs up to date: the rows to write, the distinct texts that
+   * still need the provider, and vectors already stored under the same content hash.
+   */
+  public record Plan(
+      List<EmbeddingInput> writes,
+      List<EmbeddingInput> toEmbed,
+      Map<String, float[]> reusable,
+      int unchanged) {
+
+    /** Every input is written and embedded, ignoring stored hashes. */
+    public static Plan embedAll(List<EmbeddingInput> inputs) {
+      return new Plan(inputs, distinctByHash(inputs), Map.of(), 0);
+    }
 
-      if (speaker.getJobTitle() != null && !speaker.getJobTitle().isEmpty()) {
-        if (textBuilder.length() > 0) textBuilder.append(" ");
-        textBuilder.append(speaker.getJobTitle());
+    /** Vector for every content hash covered by reuse or by the given freshly embedded inputs. */
+    public Map<String, float[]> vectorsByHash(
+        List<EmbeddingInput> embedded, List<float[]> vectors) {
+      Map<String, float[]> byHash = new HashMap<>(reusable);
+      for (int i = 0; i < embedded.size(); i++) {
+        byHash.put(embedded.get(i).contentHash(), vectors.get(i));
       }
+      return byHash;
+    }
+  }
 
-      if (speaker.getOrgName() != null && !speaker.getOrgName().isEmpty()) {
-        if (textBuilder.length() > 0) textBuilder.append(" ");
-        textBuilder.append(speaker.getOrgName());
+  /**
+   * Drop inputs whose stored row already has the same content hash and find stored vectors for
+   * identical texts, so only genuinely new texts reach the provider.
+   */
+  @Transactional(readOnly = true)
+  public Plan plan(List<EmbeddingInput> inputs) {
+    Set<String> current = new HashSet<>();
+    Map<EntityType, Set<UUID>> idsByType = new EnumMap<>(EntityType.class);
+    inputs.forEach(
+        input ->
+            idsByType.computeIfAbsent(input.entityType(), type -> new HashSet<>())
+                .add(input.entityId()));
+    idsByType.forEach(
+        (type, ids) -> {
+          for (ContentHashRow row : embeddingRepository.findContentHashes(type.name(), ids)) {
+            current.add(rowKey(type, row.getEntityId(), row.getField(), row.getContentHash()));
+          }
+        });
+
+    List<EmbeddingInput> writes = new ArrayList<>();
+    for (EmbeddingInput input : inputs) {
+      String key =
+          rowKey(
+              input.entityType(), input.entityId(), input.field().getValue(), input.contentHash());
+      if (!current.contains(key)) {
+        writes.add(input);
       }
+    }
+
+    Map<String, float[]> reusable = new HashMap<>();
+    if (!writes.isEmpty()) {
+      Set<String> hashes = new HashSet<>();
+      writes.forEach(input -> hashes.add(input.contentHash()));
+      embeddingRepository
+          .findOnePerContentHash(hashes)
+          .forEach(row -> reusable.put(row.getContentHash(), row.getEmbedding()));
+    }
+
+    List<EmbeddingInput> toEmbed =
+        distinctByHash(
+            writes.stream().filter(input -> !reusable.containsKey(input.contentHash())).toList());
+    return new Plan(writes, toEmbed, reusable, inputs.size() - writes.size());
+  }
+
+  private static String rowKey(EntityType type, UUID entityId, String field, String contentHash) {
+    return type.name() + '/' + entityId + '/' + field + '/' + contentHash;
+  }
+
+  private static List<EmbeddingInput> distinctByHash(List<EmbeddingInput> inputs) {
+    Map<String, EmbeddingInput> byHash = new LinkedHashMap<>();
+    inputs.forEach(input -> byHash.putIfAbsent(input.contentHash(), input));
+    return new ArrayList<>(byHash.values());
+  }
 
-      String text = textBuilder.toString().trim();
+  /**
+   * Embed the inputs in provider-sized batches, returning vectors in input order. Runs outside any
+   * transaction so no pooled connection is held during the provider round trips.
+   */
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public List<float[]> embed(List<EmbeddingInput> inputs) {
+    List<float[]> vectors = new ArrayList<>(inputs.size());
+    for (List<EmbeddingInput> batch : batches(inputs)) {
+      vectors.addAll(embedAll(batch.stream().map(EmbeddingInput::text).toList()));
+    }
+    return vectors;
+  }
 
-      if (text.isEmpty()) {
-        log.warn("No text to generate embedding for speaker: {}", speaker.getId());
-        return;
+  /** Split inputs into the groups sent as one provider request each. */
+  public List<List<EmbeddingInput>> batches(List<EmbeddingInput> inputs) {
+    List<List<EmbeddingInput>> batches = new ArrayList<>();
+    int start = 0;
+    while (start < inputs.size()) {
+      int end = start;
+      long tokens = 0;
+      while (end < inputs.size() && end - start < maxBatchInputs) {
+        long inputTokens = estimateTokens(inputs.get(end).text());
+        if (end > start && tokens + inputTokens > maxBatchTokens) {
+          break;
+        }
+        tokens += inputTokens;
+        end++;
       }
+      batches.add(inputs.subList(start, end));
+      start = end;
+    }
+    return batches;
+  }
 
-      // Generate embedding using OpenAI
-      float[] vector = generateEmbedding(text);
+  /** Replace the stored embedding of every input with its vector. */
+  public void store(List<EmbeddingInput> inputs, List<float[]> vectors) {
+    if (inputs.isEmpty()) {
+      return;
+    }
+    List<EntityEmbedding> embeddings = new ArrayList<>(inputs.size());
+    for (int i = 0; i < inputs.size(); i++) {
+      embeddings.add(embedding(inputs.get(i), vectors.get(i)));
+    }
+    vectorSearchRepository.upsertEmbeddings(embeddings);
+    embeddings.forEach(vectorIndex::onSaved);
+    toolResults.changed(Source.embeddings);
+  }
 
-      // Delete existing bio embedding if exists
-      embeddingRepository
-          .findByEntityTypeAndEntityIdAndField(
-              EntityType.speaker, speaker.getId(), EmbeddingField.bio)
-          .ifPresent(embeddingRepository::delete);
+  /** Texts embedded for a speaker: bio combined with job title and organization. */
+  public List<EmbeddingInput> speakerInputs(Speaker speaker) {
+    // Combine bio with job title and organization for richer context
+    StringBuilder textBuilder = new StringBuilder();
 
-      // Save new embedding
-      EntityEmbedding embedding = new EntityEmbedding();
-      embedding.setEntityType(EntityType.speaker);
-      embedding.setEntityId(speaker.getId());
-      embedding.setField(EmbeddingField.bio);
-      embedding.setEmbedding(vector);
-      embedding.setModel(EntityEmbedding.EmbeddingModel.TEXT_EMBEDDING_3_SMALL);
-      embedding.setDim(1536);
+    if (speaker.getBio() != null && !speaker.getBio().isEmpty()) {
+      textBuilder.append(speaker.getBio());
+    }
 
-      embeddingRepository.save(embedding);
+    if (speaker.getJobTitle() != null && !speaker.getJobTitle().isEmpty()) {
+      if (textBuilder.length() > 0) textBuilder.append(" ");
+      textBuilder.append(speaker.getJobTitle());
+    }
 
-      log.info("Generated embedding for speaker: {} ({})", speaker.getFullName(), speaker.getId());
+    if (speaker.getOrgName() != null && !speaker.getOrgName().isEmpty()) {
+      if (textBuilder.length() > 0) textBuilder.append(" ");
+      textBuilder.append(speaker.getOrgName());
+    }
 
-    } catch (Exception e) {
-      log.error("Failed to generate embedding for speaker: " + speaker.getId(), e);
-      // Don't throw - embedding generation is optional
+    String text = textBuilder.toString().trim();
+    if (text.isEmpty()) {
+      return List.of();
     }
+    return List.of(input(EntityType.speaker, speaker.getId(), EmbeddingField.bio, text));
   }
 
-  /** Generate embeddings for a session (title, abstract, and combined 'all') */
-  public void generateSessionEmbeddings(Session session) {
-    try {
-      // Generate embedding for title
-      if (session.getTitle() != null && !session.getTitle().isEmpty()) {
-        generateAndSaveSessionEmbedding(session, EmbeddingField.title, session.getTitle());
-      }
+  /** Texts embedded for a session: title, abstract and the combined 'all' text. */
+  public List<EmbeddingInput> sessionInputs(Session session) {
+    List<EmbeddingInput> inputs = new ArrayList<>(3);
 
-      // Generate embedding for abstract
-      if (session.getAbstractText() != null && !session.getAbstractText().isEmpty()) {
-        generateAndSaveSessionEmbedding(
-            session, EmbeddingField.abstract_, session.getAbstractText());
-      }
+    if (session.getTitle() != null && !session.getTitle().isEmpty()) {
+      inputs.add(
+          input(EntityType.session, session.getId(), EmbeddingField.title, session.getTitle()));
+    }
 
-      // Generate combined embedding (title + abstract + speaker info)
-      StringBuilder allText = new StringBuilder();
+    if (session.getAbstractText() != null && !session.getAbstractText().isEmpty()) {
+      inputs.add(
+          input(
+              EntityType.session,
+              session.getId(),
+              EmbeddingField.abstract_,
+              session.getAbstractText()));
+    }
 
-      if (session.getTitle() != null) {
-        allText.append(session.getTitle());
-      }
+    // Combined embedding (title + abstract + speaker info)
+    StringBuilder allText = new StringBuilder();
 
-      if (session.getAbstractText() != null) {
-        if (allText.length() > 0) allText.append(" ");
-        allText.append(session.getAbstractText());
-      }
+    if (session.getTitle() != null) {
+      allText.append(session.getTitle());
+    }
 
-      if (session.getSpeaker() != null) {
-        if (session.getSpeaker().getFullName() != null) {
-          if (allText.length() > 0) allText.append(" ");
-          allText.append(session.getSpeaker().getFullName());
-        }
-        if (session.getSpeaker().getOrgName() != null) {
-          if (allText.length() > 0) allText.append(" ");
-          allText.append(session.getSpeaker().getOrgName());
-        }
-      }
+    if (session.getAbstractText() != null) {
+      if (allText.length() > 0) allText.append(" ");
+      allText.append(session.getAbstractText());
+    }
 
-      if (allText.length() > 0) {
-        generateAndSaveSessionEmbedding(session, EmbeddingField.all, allText.toString());
+    if (session.getSpeaker() != null) {
+      if (session.getSpeaker().getFullName() != null) {
+        if (allText.length() > 0) allText.append(" ");
+        allText.append(session.getSpeaker().getFullName());
       }
+      if (session.getSpeaker().getOrgName() != null) {
+        if (allText.length() > 0) allText.append(" ");
+        allText.append(session.getSpeaker().getOrgName());
+      }
+    }
 
-      log.info("Generated embeddings for session: {} ({})", session.getTitle(), session.getId());
-
-    } catch (Exception e) {
-      log.error("Failed to generate embeddings for session: " + session.getId(), e);
-      // Don't throw - embedding generation is optional
+    if (allText.length() > 0) {
+      inputs.add(
+          input(EntityType.session, session.getId(), EmbeddingField.all, allText.toString()));
     }
+    return inputs;
   }
 
-  private void generateAndSaveSessionEmbedding(Session session, EmbeddingField field, String text) {
-    float[] vector = generateEmbedding(text);
+  private EmbeddingInput input(
+      EntityType entityType, UUID entityId, EmbeddingField field, String text) {
+    return EmbeddingInput.of(entityType, entityId, field, text, dimensions);
+  }
 
-    // Delete existing embedding if exists
-    embeddingRepository
-        .findByEntityTypeAndEntityIdAndField(EntityType.session, session.getId(), field)
-        .ifPresent(embeddingRepository::delete);
+  /** Configured output dimension of the embedding model (mcp.embeddings.dimensions). */
+  public int dimensions() {
+    return dimensions;
+  }
 
-    // Save new embedding
+  private EntityEmbedding embedding(EmbeddingInput input, float[] vector) {
     EntityEmbedding embedding = new EntityEmbedding();
-    embedding.setEntityType(EntityType.session);
-    embedding.setEntityId(session.getId());
-    embedding.setField(field);
+    embedding.setEntityType(input.entityType());
+    embedding.setEntityId(input.entityId());
+    embedding.setField(input.field());
     embedding.setEmbedding(vector);
     embedding.setModel(EntityEmbedding.EmbeddingModel.TEXT_EMBEDDING_3_SMALL);
-    embedding.setDim(1536);
-
-    embeddingRepository.save(embedding);
+    embedding.setDim(dimensions);
+    embedding.setContentHash(input.contentHash());
+    return embedding;
   }
 
-  /** Generate embedding vector from text using OpenAI */
-  private float[] generateEmbedding(String text) {
+  /** Embed several texts with a single OpenAI request, returning vectors in input order */
+  private List<float[]> embedAll(List<String> texts) {
+    long started = System.nanoTime();
+    rateLimiter.acquire(texts.stream().mapToLong(EmbeddingGenerationService::estimateTokens).sum());
     try {
-      EmbeddingResponse response = embeddingModel.embedForResponse(List.of(text));
-
-      if (response.getResults() != null && !response.getResults().isEmpty()) {
-        float[] embeddingArray = response.getResults().get(0).getOutput();
-        return embeddingArray;
+      EmbeddingResponse response = bulkhead.call(() -> embeddingModel.embedForResponse(texts));
+
+      List<Embedding> results = response.getResults();
+      if (results == null || results.size() != texts.size()) {
+        throw new RuntimeException(
+            "Expected "
+                + texts.size()
+                + " embeddings but got "
+                + (results == null ? 0 : results.size()));
       }
 
-      throw new RuntimeException("No embedding generated");
+      float[][] ordered = new float[texts.size()][];
+      for (int i = 0; i < results.size(); i++) {
+        Embedding result = results.get(i);
+        int index = result.getIndex() != null ? result.getIndex() : i;
+        if (result.getOutput().length != dimensions) {
+          // Guards against a model or provider that ignores the requested dimensions
+          throw new IllegalStateException(
+              "Expected " + dimensions + "-dimensional embeddings but got "
+                  + result.getOutput().length);
+        }
+        ordered[index] = result.getOutput();
+      }
+      return Arrays.asList(ordered);
 
     } catch (Exception e) {
       log.error("Error calling OpenAI embedding API: " + e.getMessage(), e);
       throw new RuntimeException("Failed to generate embedding", e);
+    } finally {
+      ToolCallTimings.embedding(System.nanoTime() - started);
     }
   }
 
-  /** Public helper to generate an embedding from arbitrary text */
+  /** Generate embedding vector from text using OpenAI */
+  private float[] generateEmbedding(String text) {
+    return embedAll(List.of(text)).get(0);
+  }
+
+  /** Rough token count used to keep batches under the provider's per-request limit. */
+  private static long estimateTokens(String text) {
+    return text.length() / 4 + 1;
+  }
+
+  /** Public helper to generate an embedding from arbitrary query text, served from the cache */
   @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
   public float[] generateEmbeddingFromText(String text) {
-    return generateEmbedding(text);
+    return queryEmbeddingCache.get(text, this::generateEmbedding);
   }
 
   /** Delete all embeddings for a speaker */
   public void deleteSpeakerEmbeddings(Speaker speaker) {
     embeddingRepository.deleteByEntityTypeAndEntityId(EntityType.speaker, speaker.getId());
+    vectorIndex.onEntityRemoved(EntityType.speaker, speaker.getId());
     log.info("Deleted embeddings for speaker: {}", speaker.getId());
   }
 
   /** Delete all embeddings for a session */
   public void deleteSessionEmbeddings(Session session) {
     embeddingRepository.deleteByEntityTypeAndEntityId(EntityType.session, session.getId());
+    vectorIndex.onEntityRemoved(EntityType.session, session.getId());
     log.info("Deleted embeddings for session: {}", session.getId());
   }
 }
@@ -0,0 +1,56 @@
+package pe.unsa.mcp.services;
+
+import java.util.UUID;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.model.EmbeddingJob.Status;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.repository.EmbeddingJobRepository;
+
+/**
+ * Outbox of embedding work. Enqueue calls join the caller's transaction, so a job exists exactly
+ * when the entity change that needs it commits; {@link EmbeddingJobWorker} does the provider calls.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class EmbeddingJobQueue {
+
+  private final EmbeddingJobRepository jobRepository;
+
+  public EmbeddingJobQueue(EmbeddingJobRepository jobRepository) {
+    this.jobRepository = jobRepository;
+  }
+
+  public record Stats(long pending, long running, long failed) {}
+
+  public void enqueueSpeaker(UUID speakerId) {
+    jobRepository.enqueue(EntityType.speaker.name(), speakerId);
+  }
+
+  public void enqueueSession(UUID sessionId) {
+    jobRepository.enqueue(EntityType.session.name(), sessionId);
+  }
+
+  /** Session 'all' embeddings include the speaker's name and organization. */
+  public void enqueueSessionsOfSpeaker(UUID speakerId) {
+    jobRepository.enqueueSessionsOfSpeaker(speakerId);
+  }
+
+  public void cancel(EntityType entityType, UUID entityId) {
+    jobRepository.cancel(entityType.name(), entityId);
+  }
+
+  @Transactional(readOnly = true)
+  public Stats stats() {
+    return new Stats(
+        jobRepository.countByStatus(Status.pending),
+        jobRepository.countByStatus(Status.running),
+        jobRepository.countByStatus(Status.failed));
+  }
+
+  @Transactional
+  public int retryFailed() {
+    return jobRepository.retryFailed();
+  }
+}
@@ -0,0 +1,254 @@
+package pe.unsa.mcp.services;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unsa.mcp.model.EmbeddingJob;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.Session;
+import pe.unsa.mcp.model.Speaker;
+import pe.unsa.mcp.repository.EmbeddingJobRepository;
+import pe.unsa.mcp.repository.SessionRepository;
+import pe.unsa.mcp.repository.SpeakerRepository;
+import pe.unsa.mcp.services.EmbeddingGenerationService.EmbeddingInput;
+import pe.unsa.mcp.services.EmbeddingGenerationService.Plan;
+
+/**
+ * Drains the embedding_jobs outbox. Each poll claims due jobs with FOR UPDATE SKIP LOCKED, so
+ * several nodes can run workers against the same table. Provider calls happen outside any
+ * transaction; only the short claim, load and store steps hold a connection.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "mcp.embeddings.jobs.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class EmbeddingJobWorker {
+
+  private static final Logger log = LoggerFactory.getLogger(EmbeddingJobWorker.class);
+
+  private static final int MAX_ERROR_LENGTH = 2000;
+
+  private final EmbeddingJobRepository jobRepository;
+  private final SpeakerRepository speakerRepository;
+  private final SessionRepository sessionRepository;
+  private final EmbeddingGenerationService embeddingService;
+  private final TaskExecutor executor;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final int concurrency;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration lease;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  public EmbeddingJobWorker(
+      EmbeddingJobRepository jobRepository,
+      SpeakerRepository speakerRepository,
+      SessionRepository sessionRepository,
+      EmbeddingGenerationService embeddingService,
+      @Qualifier("embeddingJobExecutor") TaskExecutor executor,
+      PlatformTransactionManager transactionManager,
+      @Value("${mcp.embeddings.jobs.concurrency:2}") int concurrency,
+      @Value("${mcp.embeddings.jobs.batch-size:64}") int batchSize,
+      @Value("${mcp.embeddings.jobs.max-attempts:8}") int maxAttempts,
+      @Value("${mcp.embeddings.jobs.lease:PT5M}") Duration lease,
+      @Value("${mcp.embeddings.jobs.initial-backoff:PT10S}") Duration initialBackoff,
+      @Value("${mcp.embeddings.jobs.max-backoff:PT1H}") Duration maxBackoff) {
+    this.jobRepository = jobRepository;
+    this.speakerRepository = speakerRepository;
+    this.sessionRepository = sessionRepository;
+    this.embeddingService = embeddingService;
+    this.executor = executor;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.concurrency = concurrency;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.lease = lease;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  @Scheduled(fixedDelayString = "${mcp.embeddings.jobs.poll-interval:PT1S}")
+  public void poll() {
+    while (inFlight.get() < concurrency) {
+      List<EmbeddingJob> jobs = claim();
+      if (jobs.isEmpty()) {
+        return;
+      }
+      inFlight.incrementAndGet();
+      try {
+        executor.execute(
+            () -> {
+              try {
+                process(jobs);
+              } finally {
+                inFlight.decrementAndGet();
+              }
+            });
+      } catch (RejectedExecutionException e) {
+        // Leases expire and the jobs are picked up again
+        inFlight.decrementAndGet();
+        log.warn("Embedding job executor rejected a batch of {} jobs", jobs.size());
+        return;
+      }
+    }
+  }
+
+  private List<EmbeddingJob> claim() {
+    return transactionTemplate.execute(
+        status -> {
+          List<EmbeddingJob> jobs = jobRepository.lockDueJobs(batchSize);
+          if (!jobs.isEmpty()) {
+            jobRepository.markRunning(
+                jobs.stream().map(EmbeddingJob::getId).toList(), OffsetDateTime.now().plus(lease));
+          }
+          return jobs;
+        });
+  }
+
+  private void process(List<EmbeddingJob> jobs) {
+    try {
+      run(jobs);
+      jobs.forEach(this::complete);
+    } catch (Exception e) {
+      if (jobs.size() == 1) {
+        fail(jobs.get(0), e);
+        return;
+      }
+      // Isolate the entity that broke the batch
+      log.warn("Embedding batch of {} jobs failed, retrying one by one", jobs.size(), e);
+      for (EmbeddingJob job : jobs) {
+        try {
+          run(List.of(job));
+          complete(job);
+        } catch (Exception jobError) {
+          fail(job, jobError);
+        }
+      }
+    }
+  }
+
+  private void run(List<EmbeddingJob> jobs) {
+    List<EmbeddingInput> inputs = readOnlyTransactionTemplate.execute(status -> inputsFor(jobs));
+    if (inputs.isEmpty()) {
+      return;
+    }
+    Plan plan = embeddingService.plan(inputs);
+    if (plan.writes().isEmpty()) {
+      return;
+    }
+    List<EmbeddingInput> toEmbed = plan.toEmbed();
+    Map<String, float[]> vectors =
+        plan.vectorsByHash(toEmbed, embeddingService.embed(toEmbed));
+    embeddingService.store(
+        plan.writes(),
+        plan.writes().stream().map(input -> vectors.get(input.contentHash())).toList());
+  }
+
+  /** Current text of every entity still present; deleted entities produce no inputs. */
+  private List<EmbeddingInput> inputsFor(List<EmbeddingJob> jobs) {
+    Map<EntityType, List<UUID>> ids =
+        jobs.stream()
+            .collect(
+                Collectors.groupingBy(
+                    EmbeddingJob::getEntityType,
+                    Collectors.mapping(EmbeddingJob::getEntityId, Collectors.toList())));
+
+    List<EmbeddingInput> inputs = new ArrayList<>();
+    List<UUID> speakerIds = ids.getOrDefault(EntityType.speaker, List.of());
+    if (!speakerIds.isEmpty()) {
+      for (Speaker speaker : speakerRepository.findAllById(speakerIds)) {
+        inputs.addAll(embeddingService.speakerInputs(speaker));
+      }
+    }
+    List<UUID> sessionIds = ids.getOrDefault(EntityType.session, List.of());
+    if (!sessionIds.isEmpty()) {
+      Map<UUID, Session> sessions =
+          sessionRepository.findAllWithSpeakerByIdIn(sessionIds).stream()
+              .collect(Collectors.toMap(Session::getId, Function.identity()));
+      sessionIds.stream()
+          .map(sessions::get)
+          .filter(Objects::nonNull)
+          .forEach(session -> inputs.addAll(embeddingService.sessionInputs(session)));
+    }
+    return inputs;
+  }
+
+  private void complete(EmbeddingJob job) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          if (jobRepository.complete(job.getId(), job.getGeneration()) == 0) {
+            jobRepository.release(job.getId());
+          }
+        });
+  }
+
+  private void fail(EmbeddingJob job, Exception e) {
+    int attempts = job.getAttempts() + 1;
+    boolean exhausted = attempts >= maxAttempts;
+    OffsetDateTime nextAttempt = OffsetDateTime.now().plus(backoff(attempts));
+    String error = String.valueOf(e.getMessage());
+    if (error.length() > MAX_ERROR_LENGTH) {
+      error = error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    String lastError = error;
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          String jobStatus =
+              exhausted ? EmbeddingJob.Status.failed.name() : EmbeddingJob.Status.pending.name();
+          int updated =
+              jobRepository.fail(
+                  job.getId(), job.getGeneration(), jobStatus, nextAttempt, lastError);
+          if (updated == 0) {
+            jobRepository.release(job.getId());
+          }
+        });
+
+    if (exhausted) {
+      log.error(
+          "Giving up on embeddings for {} {} after {} attempts",
+          job.getEntityType(),
+          job.getEntityId(),
+          attempts,
+          e);
+    } else {
+      log.warn(
+          "Embedding {} {} failed (attempt {}), retrying at {}: {}",
+          job.getEntityType(),
+          job.getEntityId(),
+          attempts,
+          nextAttempt,
+          error);
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    long factor = 1L << Math.min(attempts - 1, 20);
+    Duration delay = initialBackoff.multipliedBy(factor);
+    return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+  }
+}
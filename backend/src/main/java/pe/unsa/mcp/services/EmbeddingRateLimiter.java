@@ -0,0 +1,86 @@
+package pe.unsa.mcp.services;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Requests-per-minute and tokens-per-minute budget shared by every call to the embedding
+ * provider. Both budgets refill continuously; callers block until their request fits. A
+ * non-positive limit disables that budget.
+ *
+ * <p>Waiting uses a {@link ReentrantLock} rather than a monitor, so a virtual thread parked here
+ * releases its carrier.
+ */
+@Component
+public class EmbeddingRateLimiter {
+
+  private static final double NANOS_PER_MINUTE = 60_000_000_000d;
+
+  private final long requestsPerMinute;
+  private final long tokensPerMinute;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition budget = lock.newCondition();
+  private double requestCredit;
+  private double tokenCredit;
+  private long lastRefillNanos;
+
+  public EmbeddingRateLimiter(
+      @Value("${mcp.embeddings.rate-limit.requests-per-minute:3000}") long requestsPerMinute,
+      @Value("${mcp.embeddings.rate-limit.tokens-per-minute:1000000}") long tokensPerMinute) {
+    this.requestsPerMinute = requestsPerMinute;
+    this.tokensPerMinute = tokensPerMinute;
+    this.requestCredit = requestsPerMinute;
+    this.tokenCredit = tokensPerMinute;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  /** Blocks until one request carrying the given estimated tokens fits in both budgets. */
+  public void acquire(long tokens) {
+    // A single request larger than the whole budget still goes through once the bucket is full
+    double tokensNeeded = tokensPerMinute > 0 ? Math.min(tokens, tokensPerMinute) : 0;
+    lock.lock();
+    try {
+      waitFor(tokensNeeded);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void waitFor(double tokensNeeded) {
+    while (true) {
+      refill();
+      double requestShortfall = requestsPerMinute > 0 ? 1 - requestCredit : 0;
+      double tokenShortfall = tokensNeeded - (tokensPerMinute > 0 ? tokenCredit : 0);
+      if (requestShortfall <= 0 && tokenShortfall <= 0) {
+        if (requestsPerMinute > 0) {
+          requestCredit -= 1;
+        }
+        if (tokensPerMinute > 0) {
+          tokenCredit -= tokensNeeded;
+        }
+        return;
+      }
+
+      double waitNanos =
+          Math.max(
+              requestShortfall > 0 ? requestShortfall / requestsPerMinute * NANOS_PER_MINUTE : 0,
+              tokenShortfall > 0 ? tokenShortfall / tokensPerMinute * NANOS_PER_MINUTE : 0);
+      try {
+        budget.awaitNanos(Math.max(1_000_000, (long) Math.ceil(waitNanos)));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for embedding rate limit", e);
+      }
+    }
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    double minutes = (now - lastRefillNanos) / NANOS_PER_MINUTE;
+    lastRefillNanos = now;
+    requestCredit = Math.min(requestsPerMinute, requestCredit + minutes * requestsPerMinute);
+    tokenCredit = Math.min(tokensPerMinute, tokenCredit + minutes * tokensPerMinute);
+  }
+}
@@ -0,0 +1,53 @@
+package pe.unsa.mcp.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/** Text normalization and hashing shared by the embedding caches and the embedding store. */
+public final class EmbeddingText {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private EmbeddingText() {}
+
+  /** Normalize a search query so trivially different spellings share one cache entry. */
+  public static String normalizeQuery(String query) {
+    if (query == null) {
+      return "";
+    }
+    String nfc = Normalizer.normalize(query, Normalizer.Form.NFC);
+    return WHITESPACE.matcher(nfc.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Normalize entity text before it is embedded and hashed. Case is kept because it carries
+   * meaning for document embeddings; only Unicode form and whitespace are canonicalized.
+   */
+  public static String normalizeDocument(String text) {
+    if (text == null) {
+      return "";
+    }
+    String nfc = Normalizer.normalize(text, Normalizer.Form.NFC);
+    return WHITESPACE.matcher(nfc.trim()).replaceAll(" ");
+  }
+
+  /** SHA-256 of (model, dimensions, text), hex encoded. */
+  public static String hash(String model, int dimensions, String normalizedText) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(model.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(Integer.toString(dimensions).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(normalizedText.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+}
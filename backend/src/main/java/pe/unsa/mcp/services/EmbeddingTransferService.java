@@ -0,0 +1,429 @@
+package pe.unsa.mcp.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unsa.mcp.dto.VectorCodec;
+import pe.unsa.mcp.model.EntityEmbedding.EmbeddingModel;
+import pe.unsa.mcp.model.converter.PgVectorType;
+import pe.unsa.mcp.search.InMemoryVectorSearchBackend;
+import pe.unsa.mcp.services.ToolResultCache.Source;
+
+/**
+ * Bulk export and import of {@code entity_embeddings} through Postgres {@code COPY}, to move
+ * vectors between environments without calling the embedding API again. Two file formats are
+ * supported, both gzip-compressed by default:
+ *
+ * <ul>
+ *   <li>{@code binary}: Postgres' binary COPY format of {@link #COLUMNS}. The fastest, but both
+ *       sides need the same pgvector version.
+ *   <li>{@code ndjson}: one JSON object per line with the vector as base64 little-endian float32
+ *       (a number array is accepted too). Imports convert it to binary COPY on the fly.
+ * </ul>
+ *
+ * <p>An import COPYs the file into a temporary staging table and rejects the whole file if any row
+ * has another model or dimension than this deployment. Rows of entities missing here are skipped
+ * and repeated keys keep their last occurrence. The rest is upserted on (entity_type, entity_id,
+ * field) in batches, all in one transaction. Content hashes travel with the vectors, so re-embed
+ * runs treat imported rows as current.
+ */
+@Service
+public class EmbeddingTransferService {
+
+  private static final Logger log = LoggerFactory.getLogger(EmbeddingTransferService.class);
+
+  private static final String COLUMNS =
+      "entity_type, entity_id, field, model, dim, content_hash, embedding";
+
+  private static final byte[] COPY_SIGNATURE =
+      "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private static final String CREATE_STAGING =
+      """
+      CREATE TEMP TABLE embedding_import (
+        ord bigserial, entity_type text, entity_id uuid, field text, model text, dim int,
+        content_hash text, embedding vector
+      ) ON COMMIT DROP
+      """;
+
+  private static final String INVALID_ROWS =
+      """
+      SELECT count(*) FILTER (WHERE dim IS DISTINCT FROM %1$d
+                                OR embedding IS NULL OR vector_dims(embedding) <> dim),
+             count(*) FILTER (WHERE model IS NULL OR model NOT IN (%2$s)),
+             count(*) FILTER (WHERE entity_id IS NULL OR entity_type IS NULL OR field IS NULL
+                                OR entity_type NOT IN ('speaker', 'session')
+                                OR field NOT IN ('bio', 'abstract', 'title', 'all'))
+      FROM embedding_import
+      """;
+
+  private static final String DELETE_ORPHANS =
+      """
+      DELETE FROM embedding_import i
+      WHERE NOT EXISTS (SELECT 1 FROM speakers s
+                        WHERE i.entity_type = 'speaker' AND s.id = i.entity_id)
+        AND NOT EXISTS (SELECT 1 FROM sessions s
+                        WHERE i.entity_type = 'session' AND s.id = i.entity_id)
+      """;
+
+  private static final String DELETE_DUPLICATES =
+      """
+      DELETE FROM embedding_import a USING embedding_import b
+      WHERE a.entity_type = b.entity_type AND a.entity_id = b.entity_id AND a.field = b.field
+        AND a.ord < b.ord
+      """;
+
+  /** Upsert one ord range; rows identical to the stored ones are left untouched. */
+  private static final String UPSERT_BATCH =
+      """
+      WITH upserted AS (
+        INSERT INTO entity_embeddings AS e (entity_type, entity_id, field, model, dim,
+                                            content_hash, embedding)
+        SELECT entity_type, entity_id, field, model, dim, content_hash, embedding
+        FROM embedding_import WHERE ord BETWEEN ? AND ?
+        ON CONFLICT (entity_type, entity_id, field) DO UPDATE
+          SET model = EXCLUDED.model, dim = EXCLUDED.dim, content_hash = EXCLUDED.content_hash,
+              embedding = EXCLUDED.embedding, created_at = now()
+          WHERE e.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+             OR e.embedding <> EXCLUDED.embedding
+        RETURNING (xmax = 0) AS inserted
+      )
+      SELECT count(*) FILTER (WHERE inserted), count(*) FILTER (WHERE NOT inserted) FROM upserted
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate readOnlyTransaction;
+  private final ObjectMapper objectMapper;
+  private final InMemoryVectorSearchBackend vectorIndex;
+  private final ToolResultCache toolResults;
+  private final int dimensions;
+  private final int batchSize;
+
+  public EmbeddingTransferService(
+      DataSource dataSource,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      InMemoryVectorSearchBackend vectorIndex,
+      ToolResultCache toolResults,
+      @Value("${mcp.embeddings.dimensions:1536}") int dimensions,
+      @Value("${mcp.embeddings.transfer.batch-size:10000}") int batchSize) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jdbcTemplate.setFetchSize(1000);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.objectMapper = objectMapper;
+    this.vectorIndex = vectorIndex;
+    this.toolResults = toolResults;
+    this.dimensions = dimensions;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  public enum Format {
+    binary,
+    ndjson
+  }
+
+  /** One NDJSON line; field and model use their stored values, e.g. "abstract". */
+  record TransferRow(
+      String entityType,
+      UUID entityId,
+      String field,
+      String model,
+      Integer dim,
+      String contentHash,
+      float[] embedding) {}
+
+  public record ImportReport(
+      long rows,
+      long inserted,
+      long updated,
+      long unchanged,
+      long skippedOrphans,
+      long duplicates,
+      long millis) {}
+
+  /** Write every embedding of the configured dimensions to the stream. */
+  public void export(Format format, boolean gzip, OutputStream out) throws IOException {
+    OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+    if (format == Format.binary) {
+      String sql =
+          "COPY (SELECT "
+              + COLUMNS
+              + " FROM entity_embeddings WHERE dim = "
+              + dimensions
+              + ") TO STDOUT (FORMAT binary)";
+      jdbcTemplate.execute(
+          (ConnectionCallback<Long>)
+              connection -> {
+                try {
+                  return copyApi(connection).copyOut(sql, target);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+    } else {
+      exportNdjson(target);
+    }
+    if (target instanceof GZIPOutputStream compressed) {
+      compressed.finish();
+    }
+    target.flush();
+  }
+
+  /**
+   * Load a file produced by {@link #export}, compressed or not. Throws IllegalArgumentException,
+   * leaving the table untouched, when the file is malformed or has rows of another model or
+   * dimension.
+   */
+  public ImportReport importFrom(Format format, InputStream in) throws IOException {
+    long started = System.nanoTime();
+    InputStream data = decompressed(in);
+    ImportReport report;
+    try {
+      report =
+          jdbcTemplate.execute(
+              (ConnectionCallback<ImportReport>)
+                  connection -> {
+                    boolean autoCommit = connection.getAutoCommit();
+                    connection.setAutoCommit(false);
+                    try {
+                      ImportReport loaded = load(connection, format, data, started);
+                      connection.commit();
+                      return loaded;
+                    } catch (SQLException | RuntimeException e) {
+                      connection.rollback();
+                      throw e;
+                    } finally {
+                      connection.setAutoCommit(autoCommit);
+                    }
+                  });
+    } catch (IllegalArgumentException e) {
+      log.warn("Rejected embedding import: {}", e.getMessage());
+      throw e;
+    }
+    if (report.inserted() + report.updated() > 0) {
+      // Imported rows bypass the entity listeners, so the memory backend reloads from the table
+      vectorIndex.load();
+      toolResults.changed(Source.embeddings);
+    }
+    log.info("Imported embeddings: {}", report);
+    return report;
+  }
+
+  private ImportReport load(Connection connection, Format format, InputStream data, long started)
+      throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_STAGING);
+      String copy = "COPY embedding_import (" + COLUMNS + ") FROM STDIN (FORMAT binary)";
+      long rows;
+      try {
+        rows =
+            format == Format.binary
+                ? copyApi(connection).copyIn(copy, data)
+                : copyNdjson(connection.unwrap(PGConnection.class), copy, data);
+      } catch (SQLException e) {
+        // Class 22 (data exception) covers a malformed COPY file or a value of the wrong type
+        if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+          throw new IllegalArgumentException("Invalid import file: " + e.getMessage(), e);
+        }
+        throw e;
+      }
+      validate(statement);
+      long orphans = statement.executeUpdate(DELETE_ORPHANS);
+      long duplicates = statement.executeUpdate(DELETE_DUPLICATES);
+
+      long inserted = 0;
+      long updated = 0;
+      try (ResultSet range =
+              statement.executeQuery("SELECT min(ord), max(ord) FROM embedding_import");
+          PreparedStatement upsert = connection.prepareStatement(UPSERT_BATCH)) {
+        range.next();
+        long first = range.getLong(1);
+        long last = range.getLong(2);
+        for (long from = first; !range.wasNull() && from <= last; from += batchSize) {
+          upsert.setLong(1, from);
+          upsert.setLong(2, from + batchSize - 1);
+          try (ResultSet counts = upsert.executeQuery()) {
+            counts.next();
+            inserted += counts.getLong(1);
+            updated += counts.getLong(2);
+          }
+        }
+      }
+      long unchanged = rows - orphans - duplicates - inserted - updated;
+      return new ImportReport(
+          rows,
+          inserted,
+          updated,
+          unchanged,
+          orphans,
+          duplicates,
+          (System.nanoTime() - started) / 1_000_000);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not read the import file: " + e.getMessage(), e);
+    }
+  }
+
+  private void validate(Statement statement) throws SQLException {
+    String models =
+        Arrays.stream(EmbeddingModel.values())
+            .map(model -> "'" + model.getValue() + "'")
+            .collect(Collectors.joining(", "));
+    try (ResultSet rs = statement.executeQuery(INVALID_ROWS.formatted(dimensions, models))) {
+      rs.next();
+      if (rs.getLong(1) > 0) {
+        throw new IllegalArgumentException(
+            rs.getLong(1) + " rows do not have " + dimensions + " dimensions");
+      }
+      if (rs.getLong(2) > 0) {
+        throw new IllegalArgumentException(rs.getLong(2) + " rows have an unknown model");
+      }
+      if (rs.getLong(3) > 0) {
+        throw new IllegalArgumentException(rs.getLong(3) + " rows have no valid entity or field");
+      }
+    }
+  }
+
+  /** Re-encode NDJSON rows as binary COPY, streaming, so both formats share the load path. */
+  private long copyNdjson(PGConnection connection, String copy, InputStream data)
+      throws SQLException, IOException {
+    long rows = 0;
+    try (MappingIterator<TransferRow> lines =
+            objectMapper.readerFor(TransferRow.class).readValues(data);
+        DataOutputStream out =
+            new DataOutputStream(
+                new BufferedOutputStream(
+                    new PGCopyOutputStream(connection, copy, BUFFER_SIZE), BUFFER_SIZE))) {
+      out.write(COPY_SIGNATURE);
+      out.writeInt(0); // flags
+      out.writeInt(0); // header extension length
+      while (lines.hasNextValue()) {
+        writeRow(out, lines.nextValue());
+        rows++;
+      }
+      out.writeShort(-1);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Malformed NDJSON row: " + e.getOriginalMessage(), e);
+    }
+    return rows;
+  }
+
+  private static void writeRow(DataOutputStream out, TransferRow row) throws IOException {
+    out.writeShort(7);
+    writeText(out, row.entityType());
+    if (row.entityId() == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(16);
+      out.writeLong(row.entityId().getMostSignificantBits());
+      out.writeLong(row.entityId().getLeastSignificantBits());
+    }
+    writeText(out, row.field());
+    writeText(out, row.model());
+    if (row.dim() == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(4);
+      out.writeInt(row.dim());
+    }
+    writeText(out, row.contentHash());
+    float[] vector = row.embedding();
+    if (vector == null) {
+      out.writeInt(-1);
+    } else {
+      // pgvector's binary form: int16 dimensions, int16 unused, then big-endian float4 values
+      out.writeInt(4 + vector.length * Float.BYTES);
+      out.writeShort(vector.length);
+      out.writeShort(0);
+      for (float value : vector) {
+        out.writeFloat(value);
+      }
+    }
+  }
+
+  private static void writeText(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private void exportNdjson(OutputStream out) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.setRootValueSeparator(null);
+    readOnlyTransaction.executeWithoutResult(
+        status ->
+            jdbcTemplate.query(
+                "SELECT entity_type, entity_id, field, model, dim, content_hash,"
+                    + " embedding::real[] AS embedding FROM entity_embeddings WHERE dim = ?",
+                ps -> ps.setInt(1, dimensions),
+                rs -> {
+                  try {
+                    generator.writeStartObject();
+                    generator.writeStringField("entityType", rs.getString("entity_type"));
+                    generator.writeStringField("entityId", rs.getString("entity_id"));
+                    generator.writeStringField("field", rs.getString("field"));
+                    generator.writeStringField("model", rs.getString("model"));
+                    generator.writeNumberField("dim", rs.getInt("dim"));
+                    generator.writeStringField("contentHash", rs.getString("content_hash"));
+                    generator.writeStringField(
+                        "embedding",
+                        VectorCodec.toBase64(PgVectorType.toFloats(rs.getArray("embedding"))));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }));
+    generator.flush();
+  }
+
+  private static CopyManager copyApi(Connection connection) throws SQLException {
+    return connection.unwrap(PGConnection.class).getCopyAPI();
+  }
+
+  private static InputStream decompressed(InputStream in) throws IOException {
+    BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+    buffered.mark(2);
+    int first = buffered.read();
+    int second = buffered.read();
+    buffered.reset();
+    return first == 0x1f && second == 0x8b ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+  }
+}
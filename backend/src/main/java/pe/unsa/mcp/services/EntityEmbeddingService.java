@@ -1,61 +1,123 @@
 package pe.unsa.mcp.services;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unsa.mcp.dto.EntityEmbeddingRequest;
 import pe.unsa.mcp.dto.EntityEmbeddingResponse;
+import pe.unsa.mcp.dto.PageResponse;
+import pe.unsa.mcp.dto.VectorFormat;
 import pe.unsa.mcp.dto.mapper.EntityEmbeddingMapper;
 import pe.unsa.mcp.model.EntityEmbedding;
 import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
 import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository.EmbeddingSummary;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+import pe.unsa.mcp.search.InMemoryVectorSearchBackend;
+import pe.unsa.mcp.search.PgVectorSearchBackend;
+import pe.unsa.mcp.search.SearchTuning;
+import pe.unsa.mcp.services.ToolResultCache.Source;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class EntityEmbeddingService {
 
     private final EntityEmbeddingRepository embeddingRepository;
-
-    public EntityEmbeddingService(EntityEmbeddingRepository embeddingRepository) {
+    private final VectorSearchRepository vectorSearchRepository;
+    private final InMemoryVectorSearchBackend vectorIndex;
+    private final ToolResultCache toolResults;
+    private final PgVectorSearchBackend pgVectorBackend;
+    private final EntityManager entityManager;
+
+    public EntityEmbeddingService(EntityEmbeddingRepository embeddingRepository,
+                                  VectorSearchRepository vectorSearchRepository,
+                                  InMemoryVectorSearchBackend vectorIndex,
+                                  ToolResultCache toolResults,
+                                  PgVectorSearchBackend pgVectorBackend,
+                                  EntityManager entityManager) {
         this.embeddingRepository = embeddingRepository;
+        this.vectorSearchRepository = vectorSearchRepository;
+        this.vectorIndex = vectorIndex;
+        this.toolResults = toolResults;
+        this.pgVectorBackend = pgVectorBackend;
+        this.entityManager = entityManager;
     }
 
-    public List<EntityEmbeddingResponse> findAll() {
-        return embeddingRepository.findAll()
-                .stream()
-                .map(EntityEmbeddingMapper::toResponse)
-                .collect(Collectors.toList());
+    /** One page in id order; with {@link VectorFormat#none} the vector column is not read. */
+    @Transactional(readOnly = true)
+    public PageResponse<EntityEmbeddingResponse> findPage(UUID after, int limit, VectorFormat format) {
+        UUID cursor = after != null ? after : PageResponse.START;
+        PageRequest page = PageRequest.of(0, limit);
+        List<EntityEmbeddingResponse> embeddings = format == VectorFormat.none
+                ? summaries(embeddingRepository.findSummariesByIdGreaterThanOrderByIdAsc(cursor, page))
+                : responses(embeddingRepository.findByIdGreaterThanOrderByIdAsc(cursor, page), format);
+        return PageResponse.of(embeddings, limit, EntityEmbeddingResponse::id);
     }
 
-    public EntityEmbeddingResponse findById(UUID id) {
-        EntityEmbedding embedding = embeddingRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Embedding not found with id: " + id));
-        return EntityEmbeddingMapper.toResponse(embedding);
+    /** Hand every embedding to the consumer in id order, detaching each one once written. */
+    @Transactional(readOnly = true)
+    public void streamAll(VectorFormat format, Consumer<EntityEmbeddingResponse> consumer) {
+        if (format == VectorFormat.none) {
+            try (Stream<EmbeddingSummary> summaries = embeddingRepository.streamSummariesByOrderByIdAsc()) {
+                summaries.forEach(summary -> consumer.accept(EntityEmbeddingMapper.toResponse(summary)));
+            }
+            return;
+        }
+        try (Stream<EntityEmbedding> embeddings = embeddingRepository.streamAllByOrderByIdAsc()) {
+            embeddings.forEach(embedding -> {
+                consumer.accept(EntityEmbeddingMapper.toResponse(embedding, format));
+                entityManager.detach(embedding);
+            });
+        }
     }
 
-    public EntityEmbeddingResponse findByEntityAndField(EntityType entityType, UUID entityId, EmbeddingField field) {
+    public EntityEmbeddingResponse findById(UUID id, VectorFormat format) {
+        return EntityEmbeddingMapper.toResponse(findEntity(id), format);
+    }
+
+    public float[] findVector(UUID id) {
+        return findEntity(id).getEmbedding();
+    }
+
+    public EntityEmbeddingResponse findByEntityAndField(EntityType entityType, UUID entityId, EmbeddingField field,
+                                                        VectorFormat format) {
         EntityEmbedding embedding = embeddingRepository.findByEntityTypeAndEntityIdAndField(entityType, entityId, field)
                 .orElseThrow(() -> new IllegalArgumentException("Embedding not found for entity"));
-        return EntityEmbeddingMapper.toResponse(embedding);
+        return EntityEmbeddingMapper.toResponse(embedding, format);
     }
 
-    public List<EntityEmbeddingResponse> findByEntity(EntityType entityType, UUID entityId) {
-        return embeddingRepository.findByEntityTypeAndEntityId(entityType, entityId)
-                .stream()
-                .map(EntityEmbeddingMapper::toResponse)
-                .collect(Collectors.toList());
+    public List<EntityEmbeddingResponse> findByEntity(EntityType entityType, UUID entityId, VectorFormat format) {
+        if (format == VectorFormat.none) {
+            return summaries(embeddingRepository.findSummariesByEntityTypeAndEntityId(entityType, entityId));
+        }
+        return responses(embeddingRepository.findByEntityTypeAndEntityId(entityType, entityId), format);
     }
 
-    public List<EntityEmbeddingResponse> findSimilar(EntityType entityType, float[] queryEmbedding, int limit) {
-        String vectorString = Arrays.toString(queryEmbedding);
-        return embeddingRepository.findSimilarEmbeddings(entityType.name(), vectorString, limit)
+    public List<EntityEmbeddingResponse> findSimilar(EntityType entityType, float[] queryEmbedding, int limit,
+                                                     SearchTuning tuning, VectorFormat format) {
+        pgVectorBackend.applyTuning(tuning, limit);
+        pgVectorBackend.applyIterativeScan();
+        List<UUID> ids = vectorSearchRepository.findSimilarEmbeddingIds(entityType.name(), queryEmbedding, limit);
+        Map<UUID, EntityEmbeddingResponse> byId =
+                (format == VectorFormat.none
+                        ? summaries(embeddingRepository.findSummariesByIdIn(ids))
+                        : responses(embeddingRepository.findAllById(ids), format))
                 .stream()
-                .map(EntityEmbeddingMapper::toResponse)
+                .collect(Collectors.toMap(EntityEmbeddingResponse::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -70,7 +132,9 @@ public class EntityEmbeddingService {
 
         EntityEmbedding embedding = EntityEmbeddingMapper.toEntity(request);
         EntityEmbedding saved = embeddingRepository.save(embedding);
-        return EntityEmbeddingMapper.toResponse(saved);
+        vectorIndex.onSaved(saved);
+        toolResults.changed(Source.embeddings);
+        return EntityEmbeddingMapper.toResponse(saved, VectorFormat.none);
     }
 
     public EntityEmbeddingResponse update(UUID id, EntityEmbeddingRequest request) {
@@ -87,20 +151,42 @@ public class EntityEmbeddingService {
             }
         });
 
+        vectorIndex.onRemoved(existing.getEntityType(), existing.getEntityId(), existing.getField());
         EntityEmbeddingMapper.updateEntity(existing, request);
         EntityEmbedding updated = embeddingRepository.save(existing);
-        return EntityEmbeddingMapper.toResponse(updated);
+        vectorIndex.onSaved(updated);
+        toolResults.changed(Source.embeddings);
+        return EntityEmbeddingMapper.toResponse(updated, VectorFormat.none);
     }
 
     public void delete(UUID id) {
-        if (!embeddingRepository.existsById(id)) {
-            throw new IllegalArgumentException("Embedding not found with id: " + id);
-        }
-        embeddingRepository.deleteById(id);
+        EntityEmbedding existing = embeddingRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Embedding not found with id: " + id));
+        embeddingRepository.delete(existing);
+        vectorIndex.onRemoved(existing.getEntityType(), existing.getEntityId(), existing.getField());
+        toolResults.changed(Source.embeddings);
     }
 
     public void deleteByEntity(EntityType entityType, UUID entityId) {
         embeddingRepository.deleteByEntityTypeAndEntityId(entityType, entityId);
+        vectorIndex.onEntityRemoved(entityType, entityId);
+        toolResults.changed(Source.embeddings);
+    }
+
+    private EntityEmbedding findEntity(UUID id) {
+        return embeddingRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Embedding not found with id: " + id));
     }
-}
 
+    private static List<EntityEmbeddingResponse> summaries(List<EmbeddingSummary> summaries) {
+        return summaries.stream()
+                .map(EntityEmbeddingMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    private static List<EntityEmbeddingResponse> responses(List<EntityEmbedding> embeddings, VectorFormat format) {
+        return embeddings.stream()
+                .map(embedding -> EntityEmbeddingMapper.toResponse(embedding, format))
+                .collect(Collectors.toList());
+    }
+}
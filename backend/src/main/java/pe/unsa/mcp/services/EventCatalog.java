@@ -0,0 +1,100 @@
+package pe.unsa.mcp.services;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import pe.unsa.mcp.model.Event;
+import pe.unsa.mcp.repository.EventRepository;
+
+/**
+ * In-memory year to event catalog used by the MCP tools. Events change a few times per edition, so
+ * the whole table is loaded once and kept until {@link EventService} reports a write.
+ */
+@Service
+public class EventCatalog {
+
+  private static final Logger log = LoggerFactory.getLogger(EventCatalog.class);
+
+  private final EventRepository eventRepository;
+  private final AtomicLong generation = new AtomicLong();
+  private final ReentrantLock loadLock = new ReentrantLock();
+  private volatile Snapshot snapshot;
+
+  public EventCatalog(EventRepository eventRepository) {
+    this.eventRepository = eventRepository;
+  }
+
+  public Optional<Event> findByYear(Integer year) {
+    return Optional.ofNullable(snapshot().byYear().get(year));
+  }
+
+  /** Resolve the event for a year, failing the same way the repository lookup used to. */
+  public Event getByYear(Integer year) {
+    return findByYear(year)
+        .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+  }
+
+  /** Distinct event years, most recent first. */
+  public List<Integer> years() {
+    return snapshot().years();
+  }
+
+  /** Drop the cached catalog once the current transaction commits. */
+  public void invalidate() {
+    TransactionHooks.afterCommit(
+        () -> {
+          generation.incrementAndGet();
+          snapshot = null;
+        });
+  }
+
+  private Snapshot snapshot() {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    // Not a monitor: the load blocks on JDBC and would pin a virtual thread to its carrier
+    loadLock.lock();
+    try {
+      current = snapshot;
+      if (current != null) {
+        return current;
+      }
+      long loadedAt = generation.get();
+      Snapshot loaded = load();
+      // An invalidation that raced with the load means the rows we read may already be stale
+      if (generation.get() == loadedAt) {
+        snapshot = loaded;
+      }
+      return loaded;
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  private Snapshot load() {
+    Map<Integer, Event> byYear = new HashMap<>();
+    for (Event event : eventRepository.findAll()) {
+      Event previous = byYear.putIfAbsent(event.getYear(), event);
+      if (previous != null) {
+        log.warn(
+            "Multiple events for year {}: keeping '{}', ignoring '{}'",
+            event.getYear(),
+            previous.getName(),
+            event.getName());
+      }
+    }
+    List<Integer> years = byYear.keySet().stream().sorted(Comparator.reverseOrder()).toList();
+    log.info("Loaded event catalog with {} editions", byYear.size());
+    return new Snapshot(Map.copyOf(byYear), years);
+  }
+
+  private record Snapshot(Map<Integer, Event> byYear, List<Integer> years) {}
+}
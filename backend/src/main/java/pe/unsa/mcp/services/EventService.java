@@ -1,32 +1,65 @@
 package pe.unsa.mcp.services;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unsa.mcp.dto.EventRequest;
 import pe.unsa.mcp.dto.EventResponse;
+import pe.unsa.mcp.dto.PageResponse;
 import pe.unsa.mcp.dto.mapper.EventMapper;
 import pe.unsa.mcp.model.Event;
 import pe.unsa.mcp.repository.EventRepository;
+import pe.unsa.mcp.services.ToolResultCache.Source;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class EventService {
 
     private final EventRepository eventRepository;
+    private final EventCatalog eventCatalog;
+    private final AgendaIndex agendaIndex;
+    private final ToolResultCache toolResults;
+    private final EntityManager entityManager;
 
-    public EventService(EventRepository eventRepository) {
+    public EventService(EventRepository eventRepository,
+                        EventCatalog eventCatalog,
+                        AgendaIndex agendaIndex,
+                        ToolResultCache toolResults,
+                        EntityManager entityManager) {
         this.eventRepository = eventRepository;
+        this.eventCatalog = eventCatalog;
+        this.agendaIndex = agendaIndex;
+        this.toolResults = toolResults;
+        this.entityManager = entityManager;
     }
 
-    public List<EventResponse> findAll() {
-        return eventRepository.findAll()
+    @Transactional(readOnly = true)
+    public PageResponse<EventResponse> findPage(UUID after, int limit) {
+        List<EventResponse> events = eventRepository
+                .findByIdGreaterThanOrderByIdAsc(after != null ? after : PageResponse.START,
+                        PageRequest.of(0, limit))
                 .stream()
                 .map(EventMapper::toResponse)
                 .collect(Collectors.toList());
+        return PageResponse.of(events, limit, EventResponse::id);
+    }
+
+    /** Hand every event to the consumer in id order, detaching each one once written. */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<EventResponse> consumer) {
+        try (Stream<Event> events = eventRepository.streamAllByOrderByIdAsc()) {
+            events.forEach(event -> {
+                consumer.accept(EventMapper.toResponse(event));
+                entityManager.detach(event);
+            });
+        }
     }
 
     public EventResponse findById(UUID id) {
@@ -41,6 +74,8 @@ public class EventService {
         }
         Event event = EventMapper.toEntity(request);
         Event saved = eventRepository.save(event);
+        eventCatalog.invalidate();
+        toolResults.changed(Source.events);
         return EventMapper.toResponse(saved);
     }
 
@@ -57,6 +92,8 @@ public class EventService {
 
         EventMapper.updateEntity(existing, request);
         Event updated = eventRepository.save(existing);
+        eventCatalog.invalidate();
+        toolResults.changed(Source.events);
         return EventMapper.toResponse(updated);
     }
 
@@ -65,6 +102,10 @@ public class EventService {
             throw new IllegalArgumentException("Event not found with id: " + id);
         }
         eventRepository.deleteById(id);
+        eventCatalog.invalidate();
+        agendaIndex.invalidate(id);
+        toolResults.changed(Source.events);
+        toolResults.changed(Source.sessions, id);
     }
 }
 
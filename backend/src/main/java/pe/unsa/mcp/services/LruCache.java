@@ -0,0 +1,65 @@
+package pe.unsa.mcp.services;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small bounded LRU map with optional time-to-live. Entries are evicted in access order once the
+ * size limit is reached and ignored once they are older than the TTL.
+ */
+public class LruCache<K, V> {
+
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  public LruCache(int maxSize, Duration ttl) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl == null || ttl.isZero() || ttl.isNegative() ? 0 : ttl.toNanos();
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            return size() > LruCache.this.maxSize;
+          }
+        };
+  }
+
+  public synchronized V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (ttlNanos > 0 && System.nanoTime() - entry.storedAt() > ttlNanos) {
+      entries.remove(key);
+      return null;
+    }
+    return entry.value();
+  }
+
+  public synchronized void put(K key, V value) {
+    entries.put(key, new Entry<>(value, System.nanoTime()));
+  }
+
+  public synchronized void remove(K key) {
+    entries.remove(key);
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public int maxSize() {
+    return maxSize;
+  }
+
+  private record Entry<V>(V value, long storedAt) {}
+}
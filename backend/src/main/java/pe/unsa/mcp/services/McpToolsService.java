@@ -2,59 +2,75 @@ package pe.unsa.mcp.services;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import pe.unsa.mcp.dto.mcp.*;
-import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import pe.unsa.mcp.model.Event;
 import pe.unsa.mcp.model.Session;
 import pe.unsa.mcp.model.Speaker;
 import pe.unsa.mcp.repository.EntityEmbeddingRepository;
 import pe.unsa.mcp.repository.EventRepository;
 import pe.unsa.mcp.repository.SessionRepository;
-import pe.unsa.mcp.repository.SpeakerRepository;
+import pe.unsa.mcp.search.SearchTuning;
+import pe.unsa.mcp.services.AgendaIndex.AgendaEntry;
+import pe.unsa.mcp.services.ToolResultCache.Source;
 
 @Service
 @Transactional(readOnly = true, propagation = Propagation.NOT_SUPPORTED)
 public class McpToolsService {
 
   private final EventRepository eventRepository;
+  private final EventCatalog eventCatalog;
   private final SessionRepository sessionRepository;
-  private final SpeakerRepository speakerRepository;
+  private final SpeakerNameIndex speakerNameIndex;
   private final EntityEmbeddingRepository embeddingRepository;
   private final EmbeddingGenerationService embeddingGenerationService;
+  private final VectorSearchService vectorSearchService;
+  private final AgendaIndex agendaIndex;
+  private final SearchTuning sessionSearchTuning;
+  private final SearchTuning speakerSearchTuning;
 
   public McpToolsService(
       EventRepository eventRepository,
+      EventCatalog eventCatalog,
       SessionRepository sessionRepository,
-      SpeakerRepository speakerRepository,
+      SpeakerNameIndex speakerNameIndex,
       EntityEmbeddingRepository embeddingRepository,
-      EmbeddingGenerationService embeddingGenerationService) {
+      EmbeddingGenerationService embeddingGenerationService,
+      VectorSearchService vectorSearchService,
+      AgendaIndex agendaIndex,
+      @Value("${mcp.search.tuning.session-search.ef-search:#{null}}") Integer sessionEfSearch,
+      @Value("${mcp.search.tuning.session-search.probes:#{null}}") Integer sessionProbes,
+      @Value("${mcp.search.tuning.speaker-search.ef-search:#{null}}") Integer speakerEfSearch,
+      @Value("${mcp.search.tuning.speaker-search.probes:#{null}}") Integer speakerProbes) {
     this.eventRepository = eventRepository;
+    this.eventCatalog = eventCatalog;
     this.sessionRepository = sessionRepository;
-    this.speakerRepository = speakerRepository;
+    this.speakerNameIndex = speakerNameIndex;
     this.embeddingRepository = embeddingRepository;
     this.embeddingGenerationService = embeddingGenerationService;
+    this.vectorSearchService = vectorSearchService;
+    this.agendaIndex = agendaIndex;
+    this.sessionSearchTuning = new SearchTuning(sessionEfSearch, sessionProbes);
+    this.speakerSearchTuning = new SearchTuning(speakerEfSearch, speakerProbes);
   }
 
   // 1. event.info.get
+  @CachedTool(dependsOn = Source.events)
   @Tool(
       name = "event.info.get",
       description = "Get basic information about an event for a specific year")
   public McpToolResponse getEventInfo(
       @ToolParam(description = "The year of the event", required = true) Integer year) {
     try {
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
       EventInfoResponse response =
           new EventInfoResponse(
@@ -76,32 +92,16 @@ public class McpToolsService {
   }
 
   // 2. event.agenda.list
+  @CachedTool(dependsOn = {Source.events, Source.sessions, Source.speakers})
   @Tool(name = "event.agenda.list", description = "Get the complete linear agenda for an event")
   public McpToolResponse getAgendaList(
       @ToolParam(description = "The year of the event", required = true) Integer year) {
     try {
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
       List<AgendaItemResponse> agenda =
-          sessionRepository.findByEventIdOrderBySeqAsc(event.getId()).stream()
-              .map(
-                  session ->
-                      AgendaItemResponse.fromSession(
-                          session.getSeq(),
-                          session.getId(),
-                          session.getTitle(),
-                          session.getAbstractText(),
-                          session.getStartsAt(),
-                          session.getEndsAt(),
-                          new AgendaItemResponse.SpeakerSummary(
-                              session.getSpeaker().getId(),
-                              session.getSpeaker().getFullName(),
-                              session.getSpeaker().getOrgName(),
-                              session.getSpeaker().getJobTitle(),
-                              session.getSpeaker().getProfileImageUrl())))
+          agendaIndex.forEvent(event.getId()).bySeq().stream()
+              .map(this::toAgendaItem)
               .collect(Collectors.toList());
 
       return McpToolResponse.agendaList("event.agenda.list", agenda);
@@ -112,6 +112,7 @@ public class McpToolsService {
   }
 
   // 3. session.get
+  @CachedTool(dependsOn = {Source.sessions, Source.speakers})
   @Tool(name = "session.get", description = "Get details of a specific session")
   public McpToolResponse getSession(
       @ToolParam(description = "The UUID of the session", required = true) String sessionId) {
@@ -129,6 +130,7 @@ public class McpToolsService {
   }
 
   // 4. session.find.by_time
+  @CachedTool(dependsOn = {Source.events, Source.sessions, Source.speakers})
   @Tool(
       name = "session.find.by_time",
       description = "Find the session occurring at a specific time")
@@ -136,18 +138,17 @@ public class McpToolsService {
       @ToolParam(description = "The year of the event", required = true) Integer year,
       @ToolParam(description = "The time to search", required = true) OffsetDateTime at) {
     try {
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
+      // With parallel tracks several sessions match; the earliest-starting one is returned
       SessionDetailResponse session =
-          sessionRepository
-              .findByEventIdAndAtTime(event.getId(), at)
+          agendaIndex.forEvent(event.getId()).at(at).stream()
+              .findFirst()
               .map(this::toSessionDetail)
               .orElse(null);
 
       if (session == null) {
+        ToolCallTimings.markEmpty();
         return McpToolResponse.text(
             "session.find.by_time", "No session found at the specified time");
       }
@@ -168,21 +169,19 @@ public class McpToolsService {
       @ToolParam(description = "Sequence number to start from", required = false) Integer fromSeq,
       @ToolParam(description = "Time to start from", required = false) OffsetDateTime fromTime) {
     try {
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
-      Session nextSession;
+      AgendaIndex.EventAgenda agenda = agendaIndex.forEvent(event.getId());
+      AgendaEntry nextSession;
       if (fromSeq != null) {
         nextSession =
-            sessionRepository
-                .findNextByEventIdAndSeq(event.getId(), fromSeq)
+            agenda
+                .nextAfterSeq(fromSeq)
                 .orElseThrow(() -> new IllegalArgumentException("No next session found"));
       } else if (fromTime != null) {
         nextSession =
-            sessionRepository
-                .findNextByEventIdAndTime(event.getId(), fromTime)
+            agenda
+                .nextAfter(fromTime)
                 .orElseThrow(() -> new IllegalArgumentException("No next session found"));
       } else {
         throw new IllegalArgumentException("Either fromSeq or fromTime must be provided");
@@ -196,58 +195,41 @@ public class McpToolsService {
   }
 
   // 7. session.search.semantic
+  @CachedTool(
+      dependsOn = {Source.events, Source.sessions, Source.speakers, Source.embeddings},
+      normalize = "query")
   @Tool(
       name = "session.search.semantic",
       description = "Search sessions by semantic similarity using embeddings")
   public McpToolResponse searchSessionsSemantic(
       @ToolParam(description = "The year of the event", required = true) Integer year,
       @ToolParam(description = "Query text", required = true) String query,
-      @ToolParam(description = "Top K results", required = true) int topK) {
+      @ToolParam(description = "Top K results", required = true) int topK,
+      @ToolParam(description = "Only sessions on this day", required = false) LocalDate day,
+      @ToolParam(description = "Only sessions in this track", required = false) String track) {
     try {
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
       // Generate embedding from the provided query text
       float[] queryEmbedding = embeddingGenerationService.generateEmbeddingFromText(query);
-      String vectorString = Arrays.toString(queryEmbedding);
-      List<EntityEmbeddingRepository.SimilarEmbeddingResult> similar =
-          embeddingRepository.findSimilarEntityIds(EntityType.session.name(), vectorString, topK);
-
-      // Preserve order and compute scores
-      java.util.LinkedHashMap<UUID, Double> idToScore = new java.util.LinkedHashMap<>();
-      java.util.LinkedHashSet<UUID> idSet = new java.util.LinkedHashSet<>();
-      for (EntityEmbeddingRepository.SimilarEmbeddingResult r : similar) {
-        if (!idSet.contains(r.getEntityId())) {
-          idSet.add(r.getEntityId());
-        }
-        // keep best (max) score per entityId
-        idToScore.merge(r.getEntityId(), 1.0 - r.getDistance(), Math::max);
-      }
-      java.util.List<UUID> ids = new java.util.ArrayList<>(idSet);
-
-      List<Session> sessionsFetched =
-          ids.isEmpty() ? java.util.List.of() : sessionRepository.findAllWithSpeakerByIdIn(ids);
-      java.util.Map<UUID, Session> sessionMap =
-          sessionsFetched.stream()
-              .collect(java.util.stream.Collectors.toMap(Session::getId, s -> s));
 
       List<SemanticSearchResponse> results =
-          ids.stream()
-              .map(id -> sessionMap.get(id))
-              .filter(s -> s != null && s.getEvent().getId().equals(event.getId()))
+          vectorSearchService
+              .findSessionsInEvent(
+                  event.getId(), day, track, queryEmbedding, topK, sessionSearchTuning)
+              .stream()
               .map(
-                  s ->
+                  hit ->
                       new SemanticSearchResponse(
-                          s.getId(),
-                          s.getTitle(),
-                          s.getAbstractText(),
-                          idToScore.get(s.getId()),
-                          new SemanticSearchResponse.SpeakerInfo(s.getSpeaker().getFullName())))
+                          hit.sessionId(),
+                          hit.title(),
+                          hit.abstractText(),
+                          hit.score(),
+                          new SemanticSearchResponse.SpeakerInfo(hit.speakerName())))
               .collect(Collectors.toList());
 
       if (results.isEmpty()) {
+        ToolCallTimings.markEmpty();
         return McpToolResponse.text(
             "session.search.semantic", "No sessions found for query: " + query);
       }
@@ -259,37 +241,73 @@ public class McpToolsService {
     }
   }
 
+  // 6. session.search.hybrid
+  @CachedTool(
+      dependsOn = {Source.events, Source.sessions, Source.speakers, Source.embeddings},
+      normalize = "query")
+  @Tool(
+      name = "session.search.hybrid",
+      description =
+          "Search sessions by keywords and meaning at once: exact words (names, acronyms,"
+              + " technologies) and related topics are ranked together. Prefer this over"
+              + " session.search.semantic when the query has specific terms")
+  public McpToolResponse searchSessionsHybrid(
+      @ToolParam(description = "The year of the event", required = true) Integer year,
+      @ToolParam(
+              description = "Query text; supports \"quoted phrases\", 'or' and -excluded words",
+              required = true)
+          String query,
+      @ToolParam(description = "Top K results", required = true) int topK,
+      @ToolParam(description = "Only sessions on this day", required = false) LocalDate day,
+      @ToolParam(description = "Only sessions in this track", required = false) String track) {
+    try {
+      Event event = eventCatalog.getByYear(year);
+      float[] queryEmbedding = embeddingGenerationService.generateEmbeddingFromText(query);
+
+      List<SemanticSearchResponse> results =
+          vectorSearchService
+              .findSessionsInEventHybrid(
+                  event.getId(), day, track, query, queryEmbedding, topK, sessionSearchTuning)
+              .stream()
+              .map(
+                  hit ->
+                      new SemanticSearchResponse(
+                          hit.sessionId(),
+                          hit.title(),
+                          hit.abstractText(),
+                          hit.score(),
+                          new SemanticSearchResponse.SpeakerInfo(hit.speakerName())))
+              .collect(Collectors.toList());
+
+      if (results.isEmpty()) {
+        ToolCallTimings.markEmpty();
+        return McpToolResponse.text(
+            "session.search.hybrid", "No sessions found for query: " + query);
+      }
+
+      return McpToolResponse.semanticSearch("session.search.hybrid", results);
+    } catch (Exception e) {
+      return McpToolResponse.error(
+          "session.search.hybrid", "Error performing hybrid search: " + e.getMessage());
+    }
+  }
+
   // 8. session.range.by_day
+  @CachedTool(dependsOn = {Source.events, Source.sessions, Source.speakers})
   @Tool(name = "session.range.by_day", description = "List all sessions for a specific day")
   public McpToolResponse getSessionsByDay(
       @ToolParam(description = "The year of the event", required = true) Integer year,
       @ToolParam(description = "The day to filter", required = true) LocalDate day) {
     try {
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
       List<AgendaItemResponse> agenda =
-          sessionRepository.findByEventIdAndDay(event.getId(), day).stream()
-              .map(
-                  session ->
-                      AgendaItemResponse.fromSession(
-                          session.getSeq(),
-                          session.getId(),
-                          session.getTitle(),
-                          session.getAbstractText(),
-                          session.getStartsAt(),
-                          session.getEndsAt(),
-                          new AgendaItemResponse.SpeakerSummary(
-                              session.getSpeaker().getId(),
-                              session.getSpeaker().getFullName(),
-                              session.getSpeaker().getOrgName(),
-                              session.getSpeaker().getJobTitle(),
-                              session.getSpeaker().getProfileImageUrl())))
+          agendaIndex.forEvent(event.getId()).onDay(day).stream()
+              .map(this::toAgendaItem)
               .collect(Collectors.toList());
 
       if (agenda.isEmpty()) {
+        ToolCallTimings.markEmpty();
         return McpToolResponse.text("session.range.by_day", "No sessions found for day: " + day);
       }
 
@@ -301,6 +319,7 @@ public class McpToolsService {
   }
 
   // 9. speaker.get
+  @CachedTool(dependsOn = {Source.speakers, Source.sessions}, normalize = "name")
   @Tool(
       name = "speaker.get",
       description =
@@ -313,7 +332,7 @@ public class McpToolsService {
           String name) {
 
     try {
-      List<Speaker> candidates = speakerRepository.findByNameTrigram(name.trim(), 0.3, 5);
+      List<Speaker> candidates = speakerNameIndex.findSimilar(name, 0.3, 5);
 
       if (candidates.isEmpty()) {
         return McpToolResponse.error("speaker.get", "No speaker found matching: " + name);
@@ -366,6 +385,7 @@ public class McpToolsService {
   }
 
   // 11. speaker.search.semantic
+  @CachedTool(dependsOn = {Source.speakers, Source.embeddings}, normalize = "query")
   @Tool(
       name = "speaker.search.semantic",
       description = "Search speakers by semantic similarity using embeddings")
@@ -374,29 +394,20 @@ public class McpToolsService {
       @ToolParam(description = "Top K results", required = true) int topK) {
     try {
       float[] queryEmbedding = embeddingGenerationService.generateEmbeddingFromText(query);
-      String vectorString = Arrays.toString(queryEmbedding);
-      List<EntityEmbeddingRepository.SimilarEmbeddingResult> embeddings =
-          embeddingRepository.findSimilarEntityIds(EntityType.speaker.name(), vectorString, topK);
-
       List<SpeakerSemanticResult> results =
-          embeddings.stream()
+          vectorSearchService.findSpeakers(queryEmbedding, topK, speakerSearchTuning).stream()
               .map(
-                  emb -> {
-                    Speaker speaker = speakerRepository.findById(emb.getEntityId()).orElse(null);
-                    if (speaker != null) {
-                      return new SpeakerSemanticResult(
-                          speaker.getId(),
-                          speaker.getFullName(),
-                          speaker.getOrgName(),
-                          speaker.getJobTitle(),
-                          1.0 - emb.getDistance());
-                    }
-                    return null;
-                  })
-              .filter(result -> result != null)
+                  hit ->
+                      new SpeakerSemanticResult(
+                          hit.speakerId(),
+                          hit.fullName(),
+                          hit.orgName(),
+                          hit.jobTitle(),
+                          hit.score()))
               .collect(Collectors.toList());
 
       if (results.isEmpty()) {
+        ToolCallTimings.markEmpty();
         return McpToolResponse.text(
             "speaker.search.semantic", "No speakers found for query: " + query);
       }
@@ -409,6 +420,7 @@ public class McpToolsService {
   }
 
   // 12. contact.get.for_speaker
+  @CachedTool(dependsOn = Source.speakers, normalize = "name")
   @Tool(
       name = "contact.get.for_speaker",
       description =
@@ -417,7 +429,7 @@ public class McpToolsService {
       @ToolParam(description = "Speaker name or partial name", required = true) String name) {
 
     try {
-      List<Speaker> candidates = speakerRepository.findByNameTrigram(name.trim(), 0.3, 5);
+      List<Speaker> candidates = speakerNameIndex.findSimilar(name, 0.3, 5);
 
       if (candidates.isEmpty()) {
         return McpToolResponse.error(
@@ -451,6 +463,39 @@ public class McpToolsService {
     }
   }
 
+  // 10. speaker.autocomplete
+  @CachedTool(dependsOn = Source.speakers, normalize = "prefix")
+  @Tool(
+      name = "speaker.autocomplete",
+      description =
+          "Suggest speakers whose first name, last name or full name starts with the given text,"
+              + " ignoring accents and case (e.g., 'ang', 'angel co')")
+  public McpToolResponse autocompleteSpeaker(
+      @ToolParam(description = "Beginning of the speaker's name", required = true) String prefix,
+      @ToolParam(description = "Maximum suggestions (default 10)", required = false)
+          Integer limit) {
+    try {
+      List<SpeakerSearchResult> suggestions =
+          speakerNameIndex.complete(prefix, limit != null && limit > 0 ? limit : 10).stream()
+              .map(
+                  s ->
+                      new SpeakerSearchResult(
+                          s.getId(), s.getFullName(), s.getOrgName(), s.getJobTitle(), "prefix"))
+              .toList();
+
+      if (suggestions.isEmpty()) {
+        ToolCallTimings.markEmpty();
+        return McpToolResponse.text(
+            "speaker.autocomplete", "No speaker name starts with: " + prefix);
+      }
+
+      return McpToolResponse.speakerSearch("speaker.autocomplete", suggestions);
+    } catch (Exception e) {
+      return McpToolResponse.error(
+          "speaker.autocomplete", "Error completing speaker name: " + e.getMessage());
+    }
+  }
+
   // 13. agenda.now
   @Tool(name = "agenda.now", description = "Get what is happening now - current and next sessions")
   public McpToolResponse getAgendaNow(
@@ -461,24 +506,17 @@ public class McpToolsService {
       OffsetDateTime effectiveNow =
           (now == null || now.equals("auto")) ? OffsetDateTime.now() : OffsetDateTime.parse(now);
 
-      Event event =
-          eventRepository
-              .findByYear(year)
-              .orElseThrow(() -> new IllegalArgumentException("Event not found for year: " + year));
+      Event event = eventCatalog.getByYear(year);
 
-      SessionDetailResponse current =
-          sessionRepository
-              .findByEventIdAndAtTime(event.getId(), effectiveNow)
-              .map(this::toSessionDetail)
-              .orElse(null);
+      AgendaIndex.EventAgenda agenda = agendaIndex.forEvent(event.getId());
+      List<SessionDetailResponse> ongoing =
+          agenda.at(effectiveNow).stream().map(this::toSessionDetail).toList();
 
       SessionDetailResponse next =
-          sessionRepository
-              .findNextByEventIdAndTime(event.getId(), effectiveNow)
-              .map(this::toSessionDetail)
-              .orElse(null);
+          agenda.nextAfter(effectiveNow).map(this::toSessionDetail).orElse(null);
 
-      AgendaNowResponse agendaNow = new AgendaNowResponse(current, next);
+      AgendaNowResponse agendaNow =
+          new AgendaNowResponse(ongoing.isEmpty() ? null : ongoing.get(0), next, ongoing);
 
       return McpToolResponse.agendaNow("agenda.now", agendaNow);
     } catch (Exception e) {
@@ -506,7 +544,7 @@ public class McpToolsService {
         embeddingsStatus = "ERROR";
       }
 
-      List<Integer> years = eventRepository.findAllDistinctYears();
+      List<Integer> years = eventCatalog.years();
 
       HealthStatusResponse health = new HealthStatusResponse(dbStatus, embeddingsStatus, years);
 
@@ -518,6 +556,38 @@ public class McpToolsService {
   }
 
   // Helper methods
+  private SessionDetailResponse toSessionDetail(AgendaEntry entry) {
+    return new SessionDetailResponse(
+        entry.sessionId(),
+        entry.title(),
+        entry.abstractText(),
+        entry.startsAt(),
+        entry.endsAt(),
+        entry.seq(),
+        new SessionDetailResponse.SpeakerDetail(
+            entry.speakerId(),
+            entry.speakerName(),
+            entry.speakerOrg(),
+            entry.speakerJobTitle(),
+            entry.speakerProfileImageUrl()));
+  }
+
+  private AgendaItemResponse toAgendaItem(AgendaEntry entry) {
+    return AgendaItemResponse.fromSession(
+        entry.seq(),
+        entry.sessionId(),
+        entry.title(),
+        entry.abstractText(),
+        entry.startsAt(),
+        entry.endsAt(),
+        new AgendaItemResponse.SpeakerSummary(
+            entry.speakerId(),
+            entry.speakerName(),
+            entry.speakerOrg(),
+            entry.speakerJobTitle(),
+            entry.speakerProfileImageUrl()));
+  }
+
   private SessionDetailResponse toSessionDetail(Session session) {
     return new SessionDetailResponse(
         session.getId(),
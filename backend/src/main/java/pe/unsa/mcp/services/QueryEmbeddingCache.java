@@ -0,0 +1,179 @@
+package pe.unsa.mcp.services;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.unsa.mcp.model.QueryEmbedding;
+import pe.unsa.mcp.repository.QueryEmbeddingRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+
+/**
+ * Two-tier cache for query embeddings. The first tier is a bounded LRU/TTL map in this process;
+ * the second is the {@code query_embedding_cache} table, which survives restarts and is shared by
+ * every node. Both are keyed by a hash of (model, dimensions, normalized query). Hits on either
+ * tier are counted in memory and written to the table's {@code hits}/{@code last_used_at} in one
+ * batched update per flush interval, so a cached read does not cost a write.
+ */
+@Service
+public class QueryEmbeddingCache {
+
+  private static final Logger log = LoggerFactory.getLogger(QueryEmbeddingCache.class);
+
+  private final QueryEmbeddingRepository repository;
+  private final VectorSearchRepository vectorSearchRepository;
+  private final LruCache<String, float[]> memory;
+  private final boolean persistentEnabled;
+  private final String model;
+  private final int dimensions;
+
+  private final LongAdder memoryHits = new LongAdder();
+  private final LongAdder persistentHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder persistentErrors = new LongAdder();
+  private final Map<String, Long> pendingHits = new ConcurrentHashMap<>();
+
+  public QueryEmbeddingCache(
+      QueryEmbeddingRepository repository,
+      VectorSearchRepository vectorSearchRepository,
+      @Value("${mcp.cache.query-embeddings.max-size:5000}") int maxSize,
+      @Value("${mcp.cache.query-embeddings.ttl:PT24H}") Duration ttl,
+      @Value("${mcp.cache.query-embeddings.persistent:true}") boolean persistentEnabled,
+      @Value("${spring.ai.openai.embedding.options.model:text-embedding-3-small}") String model,
+      @Value("${mcp.embeddings.dimensions:1536}") int dimensions) {
+    this.repository = repository;
+    this.vectorSearchRepository = vectorSearchRepository;
+    this.memory = new LruCache<>(maxSize, ttl);
+    this.persistentEnabled = persistentEnabled;
+    this.model = model;
+    this.dimensions = dimensions;
+  }
+
+  /** Return the cached embedding for the query, computing and storing it on a miss. */
+  public float[] get(String query, Function<String, float[]> loader) {
+    String normalized = EmbeddingText.normalizeQuery(query);
+    if (normalized.isEmpty()) {
+      return loader.apply(query);
+    }
+    String key = EmbeddingText.hash(model, dimensions, normalized);
+
+    float[] cached = memory.get(key);
+    if (cached != null) {
+      memoryHits.increment();
+      recordHit(key);
+      return cached;
+    }
+
+    if (persistentEnabled) {
+      float[] stored = readPersistent(key);
+      if (stored != null) {
+        persistentHits.increment();
+        recordHit(key);
+        memory.put(key, stored);
+        return stored;
+      }
+    }
+
+    misses.increment();
+    float[] computed = loader.apply(normalized);
+    memory.put(key, computed);
+    if (persistentEnabled) {
+      writePersistent(key, normalized, dimensions, computed);
+    }
+    return computed;
+  }
+
+  public Stats stats() {
+    long memory = memoryHits.sum();
+    long persistent = persistentHits.sum();
+    long miss = misses.sum();
+    long total = memory + persistent + miss;
+    return new Stats(
+        memory,
+        persistent,
+        miss,
+        persistentErrors.sum(),
+        this.memory.size(),
+        this.memory.maxSize(),
+        total == 0 ? 0.0 : (double) (memory + persistent) / total);
+  }
+
+  public void clearMemory() {
+    memory.clear();
+  }
+
+  /** Remove persistent entries that have not been used within the given window. */
+  public int evictPersistent(Duration unusedFor) {
+    flushHits();
+    return repository.deleteUnusedSince(OffsetDateTime.now().minus(unusedFor));
+  }
+
+  /** Write the hits counted since the last flush to the table. */
+  @Scheduled(fixedDelayString = "${mcp.cache.query-embeddings.hits-flush-interval:PT1M}")
+  @PreDestroy
+  public void flushHits() {
+    if (!persistentEnabled || pendingHits.isEmpty()) {
+      return;
+    }
+    List<String> keys = new ArrayList<>(pendingHits.size());
+    List<Long> hits = new ArrayList<>(pendingHits.size());
+    for (String key : List.copyOf(pendingHits.keySet())) {
+      Long pending = pendingHits.remove(key);
+      if (pending != null) {
+        keys.add(key);
+        hits.add(pending);
+      }
+    }
+    try {
+      vectorSearchRepository.touchQueryEmbeddings(
+          keys.toArray(String[]::new), hits.stream().mapToLong(Long::longValue).toArray());
+    } catch (Exception e) {
+      persistentErrors.increment();
+      log.warn("Could not record query embedding cache hits: {}", e.getMessage());
+    }
+  }
+
+  private void recordHit(String key) {
+    if (persistentEnabled) {
+      pendingHits.merge(key, 1L, Long::sum);
+    }
+  }
+
+  private float[] readPersistent(String key) {
+    try {
+      return repository.findById(key).map(QueryEmbedding::getEmbedding).orElse(null);
+    } catch (Exception e) {
+      persistentErrors.increment();
+      log.warn("Query embedding cache lookup failed, falling back to provider: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private void writePersistent(String key, String normalized, int dim, float[] embedding) {
+    try {
+      vectorSearchRepository.insertQueryEmbedding(key, normalized, model, dim, embedding);
+    } catch (Exception e) {
+      persistentErrors.increment();
+      log.warn("Could not persist query embedding: {}", e.getMessage());
+    }
+  }
+
+  public record Stats(
+      long memoryHits,
+      long persistentHits,
+      long misses,
+      long persistentErrors,
+      int memorySize,
+      int memoryMaxSize,
+      double hitRate) {}
+}
@@ -0,0 +1,423 @@
+package pe.unsa.mcp.services;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.ReembedRun;
+import pe.unsa.mcp.model.ReembedRun.Mode;
+import pe.unsa.mcp.model.ReembedRun.Status;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.repository.ReembedRunRepository;
+import pe.unsa.mcp.repository.SessionRepository;
+import pe.unsa.mcp.repository.SpeakerRepository;
+import pe.unsa.mcp.services.EmbeddingGenerationService.EmbeddingInput;
+import pe.unsa.mcp.services.EmbeddingGenerationService.Plan;
+
+/**
+ * Admin-triggered bulk (re)embedding of speakers and then sessions. Entities are walked in id
+ * order one page at a time; each page's vectors and the advanced cursor commit together, so a run
+ * interrupted by a restart resumes after the last stored page. Provider calls go through {@link
+ * EmbeddingRateLimiter}.
+ *
+ * <p>With several nodes, a run is executed by the node holding its lease in {@code reembed_runs},
+ * renewed with every page; another node takes the run over only after the lease expires. Cancel
+ * requests are stored on the run, so the holder sees them whichever node received the request.
+ */
+@Service
+public class ReembedService {
+
+  private static final Logger log = LoggerFactory.getLogger(ReembedService.class);
+
+  private static final UUID START_CURSOR = new UUID(0L, 0L);
+  private static final int MAX_ERROR_LENGTH = 2000;
+
+  private final ReembedRunRepository runRepository;
+  private final EntityEmbeddingRepository embeddingRepository;
+  private final SpeakerRepository speakerRepository;
+  private final SessionRepository sessionRepository;
+  private final EmbeddingGenerationService embeddingService;
+  private final TaskExecutor executor;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final int pageSize;
+  private final int maxRetries;
+  private final Duration retryBackoff;
+  private final Duration lease;
+  private final String node = UUID.randomUUID().toString();
+  /** Runs this node is executing, so the periodic takeover check does not launch them twice. */
+  private final Set<UUID> executing = ConcurrentHashMap.newKeySet();
+  /** Serializes the running-run check and insert; a lock so virtual threads are not pinned. */
+  private final ReentrantLock startLock = new ReentrantLock();
+
+  public ReembedService(
+      ReembedRunRepository runRepository,
+      EntityEmbeddingRepository embeddingRepository,
+      SpeakerRepository speakerRepository,
+      SessionRepository sessionRepository,
+      EmbeddingGenerationService embeddingService,
+      @Qualifier("reembedExecutor") TaskExecutor executor,
+      PlatformTransactionManager transactionManager,
+      @Value("${mcp.embeddings.reembed.page-size:256}") int pageSize,
+      @Value("${mcp.embeddings.reembed.max-retries:3}") int maxRetries,
+      @Value("${mcp.embeddings.reembed.retry-backoff:PT5S}") Duration retryBackoff,
+      @Value("${mcp.embeddings.reembed.lease:PT5M}") Duration lease) {
+    this.runRepository = runRepository;
+    this.embeddingRepository = embeddingRepository;
+    this.speakerRepository = speakerRepository;
+    this.sessionRepository = sessionRepository;
+    this.embeddingService = embeddingService;
+    this.executor = executor;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.pageSize = pageSize;
+    this.maxRetries = maxRetries;
+    this.retryBackoff = retryBackoff;
+    this.lease = lease;
+  }
+
+  public record Progress(
+      UUID id,
+      Mode mode,
+      Status status,
+      EntityType phase,
+      long totalEntities,
+      long processed,
+      long embeddedFields,
+      long failed,
+      long requests,
+      double percent,
+      double entitiesPerSecond,
+      OffsetDateTime startedAt,
+      OffsetDateTime updatedAt,
+      OffsetDateTime finishedAt,
+      String lastError) {
+
+    static Progress of(ReembedRun run) {
+      long total = run.getTotalSpeakers() + run.getTotalSessions();
+      OffsetDateTime end = run.getFinishedAt() != null ? run.getFinishedAt() : OffsetDateTime.now();
+      double seconds =
+          run.getStartedAt() != null
+              ? Math.max(1, Duration.between(run.getStartedAt(), end).toSeconds())
+              : 1;
+      return new Progress(
+          run.getId(),
+          run.getMode(),
+          run.getStatus(),
+          run.getPhase(),
+          total,
+          run.getProcessed(),
+          run.getEmbeddedFields(),
+          run.getFailed(),
+          run.getRequests(),
+          total == 0 ? 100 : Math.min(100, 100.0 * run.getProcessed() / total),
+          run.getProcessed() / seconds,
+          run.getStartedAt(),
+          run.getUpdatedAt(),
+          run.getFinishedAt(),
+          run.getLastError());
+    }
+  }
+
+  /**
+   * Runs left 'running' by a stopped node continue from their checkpoint once their lease expires.
+   * Checked at startup and then once per lease period; runs held by a live node are left alone.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      initialDelayString = "${mcp.embeddings.reembed.lease:PT5M}",
+      fixedDelayString = "${mcp.embeddings.reembed.lease:PT5M}")
+  public void resumeInterruptedRuns() {
+    for (ReembedRun run : runRepository.findByStatus(Status.running)) {
+      if (!executing.contains(run.getId())) {
+        launch(run.getId());
+      }
+    }
+  }
+
+  public Progress start(Mode mode) {
+    startLock.lock();
+    try {
+      return startRun(mode);
+    } finally {
+      startLock.unlock();
+    }
+  }
+
+  /** Continue a cancelled or failed run from its checkpoint. */
+  public Progress resume(UUID id) {
+    startLock.lock();
+    try {
+      return resumeRun(id);
+    } finally {
+      startLock.unlock();
+    }
+  }
+
+  private Progress startRun(Mode mode) {
+    if (runRepository.existsByStatus(Status.running)) {
+      throw new IllegalArgumentException("A re-embedding run is already in progress");
+    }
+    boolean onlyMissing = mode == Mode.missing;
+    int dimensions = embeddingService.dimensions();
+
+    ReembedRun run = new ReembedRun();
+    run.setMode(mode);
+    run.setStatus(Status.running);
+    run.setPhase(EntityType.speaker);
+    run.setCursorId(START_CURSOR);
+    run.setTotalSpeakers(embeddingRepository.countSpeakersToEmbed(onlyMissing, dimensions));
+    run.setTotalSessions(embeddingRepository.countSessionsToEmbed(onlyMissing, dimensions));
+    run.setProcessed(0L);
+    run.setEmbeddedFields(0L);
+    run.setFailed(0L);
+    run.setRequests(0L);
+    run = runRepository.save(run);
+
+    launch(run.getId());
+    return Progress.of(run);
+  }
+
+  private Progress resumeRun(UUID id) {
+    ReembedRun run = findRun(id);
+    if (run.getStatus() == Status.running || run.getStatus() == Status.completed) {
+      throw new IllegalArgumentException("Run " + id + " is " + run.getStatus());
+    }
+    if (runRepository.existsByStatus(Status.running)) {
+      throw new IllegalArgumentException("A re-embedding run is already in progress");
+    }
+    run.setStatus(Status.running);
+    run.setFinishedAt(null);
+    run.setLastError(null);
+    run = runRepository.save(run);
+    runRepository.release(id);
+
+    launch(run.getId());
+    return Progress.of(run);
+  }
+
+  /** The run stops after the page in flight; its checkpoint is kept for {@link #resume}. */
+  public void cancel(UUID id) {
+    ReembedRun run = findRun(id);
+    if (run.getStatus() != Status.running || runRepository.requestCancel(id) == 0) {
+      throw new IllegalArgumentException("Run " + id + " is " + run.getStatus());
+    }
+  }
+
+  public Progress progress(UUID id) {
+    return Progress.of(findRun(id));
+  }
+
+  public Progress latest() {
+    return runRepository
+        .findFirstByOrderByStartedAtDesc()
+        .map(Progress::of)
+        .orElseThrow(() -> new IllegalArgumentException("No re-embedding run found"));
+  }
+
+  private ReembedRun findRun(UUID id) {
+    return runRepository
+        .findById(id)
+        .orElseThrow(
+            () -> new IllegalArgumentException("Re-embedding run not found with id: " + id));
+  }
+
+  private void launch(UUID runId) {
+    if (!executing.add(runId)) {
+      return;
+    }
+    executor.execute(
+        () -> {
+          try {
+            execute(runId);
+          } finally {
+            executing.remove(runId);
+          }
+        });
+  }
+
+  private void execute(UUID runId) {
+    if (runRepository.claim(runId, node, leaseEnd()) == 0) {
+      log.debug("Re-embedding run {} is held by another node", runId);
+      return;
+    }
+    ReembedRun run = findRun(runId);
+    log.info("Executing re-embedding run {} from {} {}", runId, run.getPhase(), run.getCursorId());
+    boolean onlyMissing = run.getMode() == Mode.missing;
+    try {
+      while (true) {
+        if (runRepository.isCancelRequested(runId)) {
+          finish(run, Status.cancelled, null);
+          log.info("Re-embedding run {} cancelled after {} entities", runId, run.getProcessed());
+          return;
+        }
+        if (runRepository.renewLease(runId, node, leaseEnd()) == 0) {
+          log.warn("Re-embedding run {} was taken over by another node", runId);
+          return;
+        }
+
+        EntityType phase = run.getPhase();
+        UUID cursor = run.getCursorId();
+        List<UUID> ids =
+            phase == EntityType.speaker
+                ? embeddingRepository.findSpeakerIdsToEmbed(
+                    onlyMissing, embeddingService.dimensions(), cursor, pageSize)
+                : embeddingRepository.findSessionIdsToEmbed(
+                    onlyMissing, embeddingService.dimensions(), cursor, pageSize);
+
+        if (ids.isEmpty()) {
+          if (phase == EntityType.speaker) {
+            run.setPhase(EntityType.session);
+            run.setCursorId(START_CURSOR);
+            run = runRepository.save(run);
+            continue;
+          }
+          finish(run, Status.completed, null);
+          Progress progress = Progress.of(run);
+          log.info(
+              "Re-embedding run {} completed: {} entities, {} fields, {} failed, {} entities/s",
+              runId,
+              progress.processed(),
+              progress.embeddedFields(),
+              progress.failed(),
+              String.format("%.1f", progress.entitiesPerSecond()));
+          return;
+        }
+
+        run = processPage(run, ids);
+        if (run == null) {
+          log.warn("Re-embedding run {} was taken over by another node", runId);
+          return;
+        }
+      }
+    } catch (Exception e) {
+      log.error("Re-embedding run {} failed", runId, e);
+      finish(run, Status.failed, e.getMessage());
+    }
+  }
+
+  private ReembedRun processPage(ReembedRun run, List<UUID> ids) {
+    EntityType phase = run.getPhase();
+    List<EmbeddingInput> inputs =
+        readOnlyTransactionTemplate.execute(status -> inputsFor(phase, ids));
+
+    // 'all' re-embeds every field; 'missing' skips unchanged texts and reuses identical ones
+    Plan plan =
+        run.getMode() == Mode.missing ? embeddingService.plan(inputs) : Plan.embedAll(inputs);
+
+    List<EmbeddingInput> embeddedTexts = new ArrayList<>();
+    List<float[]> embeddedVectors = new ArrayList<>();
+    int requests = 0;
+    for (List<EmbeddingInput> batch : embeddingService.batches(plan.toEmbed())) {
+      List<float[]> batchVectors = null;
+      for (int attempt = 0; batchVectors == null && attempt <= maxRetries; attempt++) {
+        requests++;
+        try {
+          batchVectors = embeddingService.embed(batch);
+        } catch (Exception e) {
+          if (attempt == maxRetries) {
+            log.warn("Giving up on a batch of {} inputs: {}", batch.size(), e.getMessage());
+            run.setLastError(truncate(e.getMessage()));
+          } else {
+            sleep(retryBackoff.multipliedBy(1L << attempt));
+          }
+        }
+      }
+      if (batchVectors != null) {
+        embeddedTexts.addAll(batch);
+        embeddedVectors.addAll(batchVectors);
+      }
+    }
+
+    Map<String, float[]> vectorsByHash = plan.vectorsByHash(embeddedTexts, embeddedVectors);
+    List<EmbeddingInput> embedded = new ArrayList<>(plan.writes().size());
+    List<float[]> vectors = new ArrayList<>(plan.writes().size());
+    Set<UUID> failedEntities = new HashSet<>();
+    for (EmbeddingInput input : plan.writes()) {
+      float[] vector = vectorsByHash.get(input.contentHash());
+      if (vector != null) {
+        embedded.add(input);
+        vectors.add(vector);
+      } else {
+        failedEntities.add(input.entityId());
+      }
+    }
+
+    ReembedRun current = run;
+    current.setCursorId(ids.get(ids.size() - 1));
+    current.setProcessed(current.getProcessed() + ids.size());
+    current.setEmbeddedFields(current.getEmbeddedFields() + embedded.size());
+    current.setFailed(current.getFailed() + failedEntities.size());
+    current.setRequests(current.getRequests() + requests);
+    // The provider calls may outlast the lease; only the holder may write the page
+    return transactionTemplate.execute(
+        status -> {
+          if (runRepository.renewLease(current.getId(), node, leaseEnd()) == 0) {
+            return null;
+          }
+          embeddingService.store(embedded, vectors);
+          return runRepository.save(current);
+        });
+  }
+
+  private List<EmbeddingInput> inputsFor(EntityType phase, List<UUID> ids) {
+    List<EmbeddingInput> inputs = new ArrayList<>();
+    if (phase == EntityType.speaker) {
+      speakerRepository
+          .findAllById(ids)
+          .forEach(speaker -> inputs.addAll(embeddingService.speakerInputs(speaker)));
+    } else {
+      sessionRepository
+          .findAllWithSpeakerByIdIn(ids)
+          .forEach(session -> inputs.addAll(embeddingService.sessionInputs(session)));
+    }
+    return inputs;
+  }
+
+  private void finish(ReembedRun run, Status status, String error) {
+    run.setStatus(status);
+    run.setFinishedAt(OffsetDateTime.now());
+    if (error != null) {
+      run.setLastError(truncate(error));
+    }
+    runRepository.save(run);
+    runRepository.release(run.getId());
+  }
+
+  private OffsetDateTime leaseEnd() {
+    return OffsetDateTime.now().plus(lease);
+  }
+
+  private static String truncate(String message) {
+    String text = String.valueOf(message);
+    return text.length() > MAX_ERROR_LENGTH ? text.substring(0, MAX_ERROR_LENGTH) : text;
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while retrying embeddings", e);
+    }
+  }
+}
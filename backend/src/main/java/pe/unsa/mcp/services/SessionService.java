@@ -1,20 +1,27 @@
 package pe.unsa.mcp.services;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.dto.PageResponse;
 import pe.unsa.mcp.dto.SessionRequest;
 import pe.unsa.mcp.dto.SessionResponse;
 import pe.unsa.mcp.dto.mapper.SessionMapper;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import pe.unsa.mcp.model.Event;
 import pe.unsa.mcp.model.Session;
 import pe.unsa.mcp.model.Speaker;
 import pe.unsa.mcp.repository.EventRepository;
 import pe.unsa.mcp.repository.SessionRepository;
 import pe.unsa.mcp.repository.SpeakerRepository;
+import pe.unsa.mcp.services.ToolResultCache.Source;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -24,22 +31,53 @@ public class SessionService {
     private final EventRepository eventRepository;
     private final SpeakerRepository speakerRepository;
     private final EmbeddingGenerationService embeddingService;
+    private final EmbeddingJobQueue embeddingJobs;
+    private final AgendaIndex agendaIndex;
+    private final ToolResultCache toolResults;
+    private final EntityManager entityManager;
 
     public SessionService(SessionRepository sessionRepository,
                           EventRepository eventRepository,
                           SpeakerRepository speakerRepository,
-                          EmbeddingGenerationService embeddingService) {
+                          EmbeddingGenerationService embeddingService,
+                          EmbeddingJobQueue embeddingJobs,
+                          AgendaIndex agendaIndex,
+                          ToolResultCache toolResults,
+                          EntityManager entityManager) {
         this.sessionRepository = sessionRepository;
         this.eventRepository = eventRepository;
         this.speakerRepository = speakerRepository;
         this.embeddingService = embeddingService;
+        this.embeddingJobs = embeddingJobs;
+        this.agendaIndex = agendaIndex;
+        this.toolResults = toolResults;
+        this.entityManager = entityManager;
     }
 
-    public List<SessionResponse> findAll() {
-        return sessionRepository.findAll()
+    /** One page in id order, starting after the given cursor (or at the beginning). */
+    @Transactional(readOnly = true)
+    public PageResponse<SessionResponse> findPage(UUID after, int limit) {
+        List<SessionResponse> sessions = sessionRepository
+                .findByIdGreaterThanOrderByIdAsc(after != null ? after : PageResponse.START,
+                        PageRequest.of(0, limit))
                 .stream()
                 .map(SessionMapper::toResponse)
                 .collect(Collectors.toList());
+        return PageResponse.of(sessions, limit, SessionResponse::id);
+    }
+
+    /**
+     * Hand every session to the consumer in id order. Rows are read through a cursor with a JDBC
+     * fetch size and detached once written, so memory stays flat regardless of the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<SessionResponse> consumer) {
+        try (Stream<Session> sessions = sessionRepository.streamAllByOrderByIdAsc()) {
+            sessions.forEach(session -> {
+                consumer.accept(SessionMapper.toResponse(session));
+                entityManager.detach(session);
+            });
+        }
     }
 
     public SessionResponse findById(UUID id) {
@@ -79,9 +117,11 @@ public class SessionService {
 
         Session session = SessionMapper.toEntity(request, event, speaker);
         Session saved = sessionRepository.save(session);
+        agendaIndex.invalidate(event.getId());
+        toolResults.changed(Source.sessions, event.getId());
         
-        // Generate embeddings after save
-        embeddingService.generateSessionEmbeddings(saved);
+        // Embeddings are generated by the job worker once this transaction commits
+        embeddingJobs.enqueueSession(saved.getId());
         
         return SessionMapper.toResponse(saved);
     }
@@ -109,11 +149,16 @@ public class SessionService {
             }
         }
 
+        // The session may move to another event; both agendas change
+        agendaIndex.invalidate(existing.getEvent().getId());
+        toolResults.changed(Source.sessions, existing.getEvent().getId());
         SessionMapper.updateEntity(existing, request, event, speaker);
         Session updated = sessionRepository.save(existing);
+        agendaIndex.invalidate(event.getId());
+        toolResults.changed(Source.sessions, event.getId());
         
-        // Regenerate embeddings after update
-        embeddingService.generateSessionEmbeddings(updated);
+        // Regenerate embeddings once this transaction commits
+        embeddingJobs.enqueueSession(updated.getId());
         
         return SessionMapper.toResponse(updated);
     }
@@ -124,8 +169,11 @@ public class SessionService {
         
         // Delete embeddings first
         embeddingService.deleteSessionEmbeddings(session);
+        embeddingJobs.cancel(EntityType.session, id);
         
         sessionRepository.deleteById(id);
+        agendaIndex.invalidate(session.getEvent().getId());
+        toolResults.changed(Source.sessions, session.getEvent().getId());
     }
 }
 
@@ -0,0 +1,234 @@
+package pe.unsa.mcp.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import pe.unsa.mcp.model.Speaker;
+import pe.unsa.mcp.repository.SpeakerRepository;
+
+/**
+ * In-memory speaker name index used by the MCP tools that resolve a person by name. Names are
+ * folded (accents stripped, lower case, punctuation collapsed to single spaces) and indexed twice:
+ * by trigram, following pg_trgm, so {@link #findSimilar} ranks the way {@code similarity()} does,
+ * and as the sorted list of the suffixes starting at each word, so {@link #complete} is a binary
+ * search followed by a scan of the matching range. Built when the application is ready and again
+ * after a speaker write commits; readers always see one complete snapshot.
+ */
+@Service
+public class SpeakerNameIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(SpeakerNameIndex.class);
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final SpeakerRepository speakerRepository;
+  private final AtomicLong generation = new AtomicLong();
+  private final ReentrantLock loadLock = new ReentrantLock();
+  private volatile Snapshot snapshot;
+
+  public SpeakerNameIndex(SpeakerRepository speakerRepository) {
+    this.speakerRepository = speakerRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    snapshot();
+  }
+
+  /** Speakers whose folded name has a trigram similarity above the threshold, best first. */
+  public List<Speaker> findSimilar(String name, double threshold, int limit) {
+    return snapshot().similar(fold(name), threshold, limit);
+  }
+
+  /**
+   * Speakers with a name word starting with the prefix, which may span several words ("angel
+   * co"), in alphabetical order of the matched text.
+   */
+  public List<Speaker> complete(String prefix, int limit) {
+    return snapshot().complete(fold(prefix), limit);
+  }
+
+  /** Rebuild the index from the table once the current transaction commits. */
+  public void invalidate() {
+    TransactionHooks.afterCommit(
+        () -> {
+          generation.incrementAndGet();
+          snapshot = null;
+        });
+  }
+
+  static String fold(String text) {
+    String stripped =
+        COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+  }
+
+  /** pg_trgm trigrams: each word padded with two spaces in front and one behind. */
+  static Set<String> trigrams(String folded) {
+    Set<String> trigrams = new LinkedHashSet<>();
+    for (String word : folded.split(" ")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+      String padded = "  " + word + " ";
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+        trigrams.add(padded.substring(i, i + 3));
+      }
+    }
+    return trigrams;
+  }
+
+  private Snapshot snapshot() {
+    Snapshot current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    loadLock.lock();
+    try {
+      current = snapshot;
+      if (current != null) {
+        return current;
+      }
+      long loadedAt = generation.get();
+      long started = System.nanoTime();
+      Snapshot loaded = new Snapshot(speakerRepository.findAll());
+      log.info(
+          "Indexed {} speaker names in {} ms",
+          loaded.speakers.length,
+          (System.nanoTime() - started) / 1_000_000);
+      // An invalidation that raced with the load means the rows we read may already be stale
+      if (generation.get() == loadedAt) {
+        snapshot = loaded;
+      }
+      return loaded;
+    } finally {
+      loadLock.unlock();
+    }
+  }
+
+  private static final class Snapshot {
+
+    private static final int[] NO_SPEAKERS = new int[0];
+
+    private final Speaker[] speakers;
+    private final String[] folded;
+    private final int[] trigramCounts;
+    private final Map<String, int[]> postings;
+    private final String[] suffixes;
+    private final int[] suffixOwners;
+
+    Snapshot(List<Speaker> all) {
+      speakers = all.toArray(Speaker[]::new);
+      folded = new String[speakers.length];
+      trigramCounts = new int[speakers.length];
+
+      Map<String, List<Integer>> byTrigram = new HashMap<>();
+      List<Suffix> allSuffixes = new ArrayList<>();
+      for (int s = 0; s < speakers.length; s++) {
+        folded[s] = fold(speakers[s].getFullName());
+        Set<String> trigrams = trigrams(folded[s]);
+        trigramCounts[s] = trigrams.size();
+        for (String trigram : trigrams) {
+          byTrigram.computeIfAbsent(trigram, t -> new ArrayList<>()).add(s);
+        }
+        for (int i = 0; i < folded[s].length(); i++) {
+          if (i == 0 || folded[s].charAt(i - 1) == ' ') {
+            allSuffixes.add(new Suffix(folded[s].substring(i), s));
+          }
+        }
+      }
+
+      Map<String, int[]> lists = new HashMap<>();
+      byTrigram.forEach(
+          (trigram, owners) ->
+              lists.put(trigram, owners.stream().mapToInt(Integer::intValue).toArray()));
+      postings = Map.copyOf(lists);
+
+      allSuffixes.sort(Comparator.comparing(Suffix::text));
+      suffixes = allSuffixes.stream().map(Suffix::text).toArray(String[]::new);
+      suffixOwners = allSuffixes.stream().mapToInt(Suffix::owner).toArray();
+    }
+
+    List<Speaker> similar(String query, double threshold, int limit) {
+      Set<String> trigrams = trigrams(query);
+      if (trigrams.isEmpty()) {
+        return List.of();
+      }
+      int[] shared = new int[speakers.length];
+      int[] touched = new int[speakers.length];
+      int touchedCount = 0;
+      for (String trigram : trigrams) {
+        for (int s : postings.getOrDefault(trigram, NO_SPEAKERS)) {
+          if (shared[s]++ == 0) {
+            touched[touchedCount++] = s;
+          }
+        }
+      }
+
+      List<Match> matches = new ArrayList<>();
+      for (int i = 0; i < touchedCount; i++) {
+        int s = touched[i];
+        double similarity =
+            shared[s] / (double) (trigrams.size() + trigramCounts[s] - shared[s]);
+        if (similarity > threshold) {
+          matches.add(new Match(s, similarity));
+        }
+      }
+      return matches.stream()
+          .sorted(
+              Comparator.comparingDouble(Match::similarity)
+                  .reversed()
+                  .thenComparing(match -> folded[match.speaker()]))
+          .limit(limit)
+          .map(match -> speakers[match.speaker()])
+          .toList();
+    }
+
+    List<Speaker> complete(String prefix, int limit) {
+      if (prefix.isEmpty()) {
+        return List.of();
+      }
+      Set<Integer> found = new LinkedHashSet<>();
+      for (int i = lowerBound(prefix);
+          i < suffixes.length && suffixes[i].startsWith(prefix) && found.size() < limit;
+          i++) {
+        found.add(suffixOwners[i]);
+      }
+      return found.stream().map(s -> speakers[s]).toList();
+    }
+
+    /** Index of the first suffix not less than the key; equal suffixes may repeat. */
+    private int lowerBound(String key) {
+      int low = 0;
+      int high = suffixes.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (suffixes[mid].compareTo(key) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  private record Suffix(String text, int owner) {}
+
+  private record Match(int speaker, double similarity) {}
+}
@@ -1,16 +1,23 @@
 package pe.unsa.mcp.services;
 
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.dto.PageResponse;
 import pe.unsa.mcp.dto.SpeakerRequest;
 import pe.unsa.mcp.dto.SpeakerResponse;
 import pe.unsa.mcp.dto.mapper.SpeakerMapper;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
 import pe.unsa.mcp.model.Speaker;
 import pe.unsa.mcp.repository.SpeakerRepository;
+import pe.unsa.mcp.services.ToolResultCache.Source;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -18,18 +25,48 @@ public class SpeakerService {
 
     private final SpeakerRepository speakerRepository;
     private final EmbeddingGenerationService embeddingService;
+    private final EmbeddingJobQueue embeddingJobs;
+    private final AgendaIndex agendaIndex;
+    private final SpeakerNameIndex speakerNameIndex;
+    private final ToolResultCache toolResults;
+    private final EntityManager entityManager;
 
     public SpeakerService(SpeakerRepository speakerRepository,
-                          EmbeddingGenerationService embeddingService) {
+                          EmbeddingGenerationService embeddingService,
+                          EmbeddingJobQueue embeddingJobs,
+                          AgendaIndex agendaIndex,
+                          SpeakerNameIndex speakerNameIndex,
+                          ToolResultCache toolResults,
+                          EntityManager entityManager) {
         this.speakerRepository = speakerRepository;
         this.embeddingService = embeddingService;
+        this.embeddingJobs = embeddingJobs;
+        this.agendaIndex = agendaIndex;
+        this.speakerNameIndex = speakerNameIndex;
+        this.toolResults = toolResults;
+        this.entityManager = entityManager;
     }
 
-    public List<SpeakerResponse> findAll() {
-        return speakerRepository.findAll()
+    @Transactional(readOnly = true)
+    public PageResponse<SpeakerResponse> findPage(UUID after, int limit) {
+        List<SpeakerResponse> speakers = speakerRepository
+                .findByIdGreaterThanOrderByIdAsc(after != null ? after : PageResponse.START,
+                        PageRequest.of(0, limit))
                 .stream()
                 .map(SpeakerMapper::toResponse)
                 .collect(Collectors.toList());
+        return PageResponse.of(speakers, limit, SpeakerResponse::id);
+    }
+
+    /** Hand every speaker to the consumer in id order, detaching each one once written. */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<SpeakerResponse> consumer) {
+        try (Stream<Speaker> speakers = speakerRepository.streamAllByOrderByIdAsc()) {
+            speakers.forEach(speaker -> {
+                consumer.accept(SpeakerMapper.toResponse(speaker));
+                entityManager.detach(speaker);
+            });
+        }
     }
 
     public SpeakerResponse findById(UUID id) {
@@ -49,8 +86,10 @@ public class SpeakerService {
         Speaker speaker = SpeakerMapper.toEntity(request);
         Speaker saved = speakerRepository.save(speaker);
         
-        // Generate embeddings asynchronously after save
-        embeddingService.generateSpeakerEmbeddings(saved);
+        // Embeddings are generated by the job worker once this transaction commits
+        embeddingJobs.enqueueSpeaker(saved.getId());
+        speakerNameIndex.invalidate();
+        toolResults.changed(Source.speakers);
         
         return SpeakerMapper.toResponse(saved);
     }
@@ -62,8 +101,14 @@ public class SpeakerService {
         SpeakerMapper.updateEntity(existing, request);
         Speaker updated = speakerRepository.save(existing);
         
-        // Regenerate embeddings after update
-        embeddingService.generateSpeakerEmbeddings(updated);
+        // Regenerate embeddings once this transaction commits; session 'all' texts
+        // include the speaker's name and organization, so they are refreshed too
+        embeddingJobs.enqueueSpeaker(updated.getId());
+        embeddingJobs.enqueueSessionsOfSpeaker(updated.getId());
+        // Agendas carry the speaker's name and organization
+        agendaIndex.invalidateAll();
+        speakerNameIndex.invalidate();
+        toolResults.changed(Source.speakers);
         
         return SpeakerMapper.toResponse(updated);
     }
@@ -74,8 +119,12 @@ public class SpeakerService {
         
         // Delete embeddings first
         embeddingService.deleteSpeakerEmbeddings(speaker);
+        embeddingJobs.cancel(EntityType.speaker, id);
         
         speakerRepository.deleteById(id);
+        agendaIndex.invalidateAll();
+        speakerNameIndex.invalidate();
+        toolResults.changed(Source.speakers);
     }
 }
 
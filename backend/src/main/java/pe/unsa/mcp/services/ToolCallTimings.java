@@ -0,0 +1,96 @@
+package pe.unsa.mcp.services;
+
+/**
+ * Database and embedding-provider time spent by the MCP tool call running on the current thread,
+ * and whether the tool found nothing. {@link ToolMetricsAspect} opens one per tool call and times
+ * repository calls into it; the embedding client reports its own time through {@link #embedding}
+ * and tools flag an empty result through {@link #markEmpty}. Outside a tool call all are no-ops.
+ * None of it reaches the tool response sent to clients.
+ */
+public final class ToolCallTimings {
+
+  private static final ThreadLocal<ToolCallTimings> CURRENT = new ThreadLocal<>();
+
+  private final ToolCallTimings previous;
+  private long databaseNanos;
+  private long embeddingNanos;
+  private int databaseDepth;
+  private boolean empty;
+
+  private ToolCallTimings(ToolCallTimings previous) {
+    this.previous = previous;
+  }
+
+  static ToolCallTimings start() {
+    ToolCallTimings timings = new ToolCallTimings(CURRENT.get());
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  void finish() {
+    if (previous == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(previous);
+    }
+  }
+
+  long databaseNanos() {
+    return databaseNanos;
+  }
+
+  long embeddingNanos() {
+    return embeddingNanos;
+  }
+
+  boolean empty() {
+    return empty;
+  }
+
+  /** The tool call running on the current thread, or {@code null} outside one. */
+  static ToolCallTimings current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Start timing a repository call, or return {@code false} when one is already being timed so a
+   * repository calling another is counted once.
+   */
+  boolean enterDatabase() {
+    if (databaseDepth > 0) {
+      return false;
+    }
+    databaseDepth++;
+    return true;
+  }
+
+  void exitDatabase(long nanos) {
+    databaseNanos += nanos;
+    databaseDepth--;
+  }
+
+  /**
+   * Record that the current tool call succeeded without finding anything, e.g. a search without
+   * results, for the {@code empty} outcome of its metrics.
+   */
+  public static void markEmpty() {
+    ToolCallTimings timings = CURRENT.get();
+    if (timings != null) {
+      timings.empty = true;
+    }
+  }
+
+  /** Whether the current tool call was marked with {@link #markEmpty}. */
+  static boolean currentIsEmpty() {
+    ToolCallTimings timings = CURRENT.get();
+    return timings != null && timings.empty;
+  }
+
+  /** Add time spent waiting for or calling the embedding provider. */
+  public static void embedding(long nanos) {
+    ToolCallTimings timings = CURRENT.get();
+    if (timings != null) {
+      timings.embeddingNanos += nanos;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package pe.unsa.mcp.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import pe.unsa.mcp.dto.mcp.McpToolResponse;
+
+/**
+ * Micrometer timers for every MCP tool call, tagged by tool and outcome ({@code success},
+ * {@code empty} when the tool called {@link ToolCallTimings#markEmpty}, or {@code error}): {@code
+ * mcp.tool.calls} is the whole call, {@code mcp.tool.db} the part spent in repositories and {@code
+ * mcp.tool.embedding} the part spent on the embedding provider. Runs outside {@link
+ * ToolResultCacheAspect}, so cache hits are timed as clients see them. Percentiles and histogram
+ * buckets are set under {@code management.metrics.distribution}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ToolMetricsAspect {
+
+  private final MeterRegistry registry;
+
+  public ToolMetricsAspect(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Around("@annotation(tool)")
+  public Object timed(ProceedingJoinPoint joinPoint, Tool tool) throws Throwable {
+    String name =
+        tool.name().isEmpty()
+            ? ((MethodSignature) joinPoint.getSignature()).getMethod().getName()
+            : tool.name();
+    ToolCallTimings timings = ToolCallTimings.start();
+    long started = System.nanoTime();
+    String outcome = "error";
+    try {
+      Object result = joinPoint.proceed();
+      outcome = outcome(result, timings);
+      return result;
+    } finally {
+      long elapsed = System.nanoTime() - started;
+      timings.finish();
+      Tags tags = Tags.of("tool", name, "outcome", outcome);
+      record("mcp.tool.calls", "MCP tool call latency", tags, elapsed);
+      record("mcp.tool.db", "Repository time per MCP tool call", tags, timings.databaseNanos());
+      record(
+          "mcp.tool.embedding",
+          "Embedding provider time per MCP tool call",
+          tags,
+          timings.embeddingNanos());
+    }
+  }
+
+  /**
+   * Times repository calls made during a tool call. Spring AOP has no {@code cflow}, so the
+   * pointcut also matches background work such as embedding jobs and cache flushes; outside a tool
+   * call the advice costs one thread-local read and proceeds without timing.
+   */
+  @Around(
+      "execution(* pe.unsa.mcp.repository..*.*(..))"
+          + " || execution(* org.springframework.data.repository.Repository+.*(..))")
+  public Object database(ProceedingJoinPoint joinPoint) throws Throwable {
+    ToolCallTimings timings = ToolCallTimings.current();
+    if (timings == null || !timings.enterDatabase()) {
+      // Not in a tool call, or nested in a repository call that is already being timed
+      return joinPoint.proceed();
+    }
+    long started = System.nanoTime();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      timings.exitDatabase(System.nanoTime() - started);
+    }
+  }
+
+  private void record(String metric, String description, Tags tags, long nanos) {
+    Timer.builder(metric)
+        .description(description)
+        .tags(tags)
+        .register(registry)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static String outcome(Object result, ToolCallTimings timings) {
+    if (result instanceof McpToolResponse response
+        && response.type() == McpToolResponse.ResponseType.ERROR) {
+      return "error";
+    }
+    return timings.empty() ? "empty" : "success";
+  }
+}
@@ -0,0 +1,172 @@
+package pe.unsa.mcp.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.unsa.mcp.dto.mcp.McpToolResponse;
+
+/**
+ * Bounded LRU/TTL cache of MCP tool responses keyed by tool name and normalized arguments. Each
+ * entry records the version of every data source it was built from, read before the tool ran;
+ * writes bump those versions once they commit, so an entry is never served after a change to
+ * what it depends on, and a write racing with the tool invalidates the result it is computing.
+ * Session versions are kept per event as well, so editing one edition's agenda leaves the
+ * others cached. Error responses are not cached. Hits, misses and stale entries per tool are
+ * exported as the {@code mcp.tool.cache} counter, next to the {@code mcp.tool.calls} timers.
+ */
+@Service
+public class ToolResultCache {
+
+  /** Data a tool response can depend on. */
+  public enum Source {
+    events,
+    sessions,
+    speakers,
+    embeddings
+  }
+
+  /** A source, or the sessions of one event when {@code eventId} is set. */
+  public record Tag(Source source, UUID eventId) {}
+
+  private record Key(String tool, List<Object> arguments) {}
+
+  private record Entry(McpToolResponse response, boolean empty, List<Tag> tags, long[] versions) {}
+
+  private static final class Counter {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+  }
+
+  private final MeterRegistry registry;
+  private final boolean enabled;
+  private final LruCache<Key, Entry> entries;
+  private final Map<Tag, AtomicLong> versions = new ConcurrentHashMap<>();
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+  public ToolResultCache(
+      MeterRegistry registry,
+      @Value("${mcp.cache.tool-results.enabled:true}") boolean enabled,
+      @Value("${mcp.cache.tool-results.max-size:2000}") int maxSize,
+      @Value("${mcp.cache.tool-results.ttl:PT1H}") Duration ttl) {
+    this.registry = registry;
+    this.enabled = enabled;
+    this.entries = new LruCache<>(maxSize, ttl);
+  }
+
+  /** Cached response of the tool for these arguments, or the computed one stored for later. */
+  public McpToolResponse get(
+      String tool, List<Object> arguments, List<Tag> tags, Supplier<McpToolResponse> compute) {
+    if (!enabled) {
+      return compute.get();
+    }
+    Counter counter = counters.computeIfAbsent(tool, this::registerCounter);
+    Key key = new Key(tool, arguments);
+    Entry cached = entries.get(key);
+    if (cached != null) {
+      if (isCurrent(cached)) {
+        counter.hits.increment();
+        if (cached.empty()) {
+          // The tool did not run, so repeat its empty mark for the call's metrics
+          ToolCallTimings.markEmpty();
+        }
+        return cached.response();
+      }
+      counter.stale.increment();
+      entries.remove(key);
+    }
+    counter.misses.increment();
+
+    long[] seen = new long[tags.size()];
+    for (int i = 0; i < seen.length; i++) {
+      seen[i] = version(tags.get(i)).get();
+    }
+    McpToolResponse response = compute.get();
+    if (response != null && response.type() != McpToolResponse.ResponseType.ERROR) {
+      entries.put(
+          key, new Entry(response, ToolCallTimings.currentIsEmpty(), List.copyOf(tags), seen));
+    }
+    return response;
+  }
+
+  /** Invalidate responses depending on the source once the current transaction commits. */
+  public void changed(Source source) {
+    TransactionHooks.afterCommit(() -> version(new Tag(source, null)).incrementAndGet());
+  }
+
+  /** Same as {@link #changed(Source)}, also for the responses scoped to one event. */
+  public void changed(Source source, UUID eventId) {
+    TransactionHooks.afterCommit(
+        () -> {
+          version(new Tag(source, null)).incrementAndGet();
+          version(new Tag(source, eventId)).incrementAndGet();
+        });
+  }
+
+  public Stats stats() {
+    List<ToolStats> tools =
+        counters.entrySet().stream()
+            .map(
+                entry -> {
+                  Counter counter = entry.getValue();
+                  long hits = counter.hits.sum();
+                  long misses = counter.misses.sum();
+                  return new ToolStats(
+                      entry.getKey(),
+                      hits,
+                      misses,
+                      counter.stale.sum(),
+                      hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+                })
+            .sorted(Comparator.comparing(ToolStats::tool))
+            .toList();
+    return new Stats(enabled, entries.size(), entries.maxSize(), tools);
+  }
+
+  public void clear() {
+    entries.clear();
+  }
+
+  /** Counters of one tool, exported as {@code mcp.tool.cache} tagged by tool and result. */
+  private Counter registerCounter(String tool) {
+    Counter counter = new Counter();
+    register(tool, "hit", counter.hits);
+    register(tool, "miss", counter.misses);
+    register(tool, "stale", counter.stale);
+    return counter;
+  }
+
+  private void register(String tool, String result, LongAdder adder) {
+    FunctionCounter.builder("mcp.tool.cache", adder, LongAdder::sum)
+        .description("MCP tool result cache lookups by tool and result")
+        .tags("tool", tool, "result", result)
+        .register(registry);
+  }
+
+  private boolean isCurrent(Entry entry) {
+    for (int i = 0; i < entry.versions().length; i++) {
+      if (version(entry.tags().get(i)).get() != entry.versions()[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private AtomicLong version(Tag tag) {
+    return versions.computeIfAbsent(tag, t -> new AtomicLong());
+  }
+
+  public record ToolStats(String tool, long hits, long misses, long stale, double hitRate) {}
+
+  public record Stats(boolean enabled, int size, int maxSize, List<ToolStats> tools) {}
+}
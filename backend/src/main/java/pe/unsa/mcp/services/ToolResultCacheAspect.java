@@ -0,0 +1,81 @@
+package pe.unsa.mcp.services;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.stereotype.Component;
+import pe.unsa.mcp.dto.mcp.McpToolResponse;
+import pe.unsa.mcp.model.Event;
+import pe.unsa.mcp.services.ToolResultCache.Source;
+import pe.unsa.mcp.services.ToolResultCache.Tag;
+
+/**
+ * Serves {@link CachedTool} methods from {@link ToolResultCache}. The key is the tool name and its
+ * arguments, with the free-text arguments listed in {@link CachedTool#normalize} trimmed,
+ * lower-cased and whitespace-collapsed so that spelling variants of one question share an entry.
+ * Filters such as a track are keyed as given. A {@code year} argument is resolved through the
+ * in-memory {@link EventCatalog} to scope the {@code sessions} dependency to that event.
+ */
+@Aspect
+@Component
+public class ToolResultCacheAspect {
+
+  private final ToolResultCache cache;
+  private final EventCatalog eventCatalog;
+
+  public ToolResultCacheAspect(ToolResultCache cache, EventCatalog eventCatalog) {
+    this.cache = cache;
+    this.eventCatalog = eventCatalog;
+  }
+
+  @Around("@annotation(cachedTool) && @annotation(tool)")
+  public Object cached(ProceedingJoinPoint joinPoint, CachedTool cachedTool, Tool tool)
+      throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    if (method.getReturnType() != McpToolResponse.class) {
+      return joinPoint.proceed();
+    }
+    Parameter[] parameters = method.getParameters();
+    Object[] args = joinPoint.getArgs();
+    List<String> freeText = List.of(cachedTool.normalize());
+    List<Object> arguments = new ArrayList<>(args.length);
+    UUID eventId = null;
+    for (int i = 0; i < args.length; i++) {
+      arguments.add(
+          args[i] instanceof String text && freeText.contains(parameters[i].getName())
+              ? normalize(text)
+              : args[i]);
+      if (args[i] instanceof Integer year && "year".equals(parameters[i].getName())) {
+        eventId = eventCatalog.findByYear(year).map(Event::getId).orElse(null);
+      }
+    }
+    List<Tag> tags = new ArrayList<>();
+    for (Source source : cachedTool.dependsOn()) {
+      tags.add(new Tag(source, source == Source.sessions ? eventId : null));
+    }
+    String name = tool.name().isEmpty() ? method.getName() : tool.name();
+    return cache.get(name, arguments, tags, () -> proceed(joinPoint));
+  }
+
+  private static McpToolResponse proceed(ProceedingJoinPoint joinPoint) {
+    try {
+      return (McpToolResponse) joinPoint.proceed();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String normalize(String text) {
+    return text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+}
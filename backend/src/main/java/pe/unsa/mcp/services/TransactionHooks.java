@@ -0,0 +1,28 @@
+package pe.unsa.mcp.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Helpers to defer in-memory side effects until the surrounding transaction commits. */
+public final class TransactionHooks {
+
+  private TransactionHooks() {}
+
+  /**
+   * Run the action after the current transaction commits, or immediately when there is no active
+   * transaction. Rolled back writes never reach the in-memory caches.
+   */
+  public static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            action.run();
+          }
+        });
+  }
+}
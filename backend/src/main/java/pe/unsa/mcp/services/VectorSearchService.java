@@ -0,0 +1,141 @@
+package pe.unsa.mcp.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.model.Session;
+import pe.unsa.mcp.model.Speaker;
+import pe.unsa.mcp.repository.SessionRepository;
+import pe.unsa.mcp.repository.SpeakerRepository;
+import pe.unsa.mcp.search.HybridSessionHit;
+import pe.unsa.mcp.search.InMemoryVectorSearchBackend;
+import pe.unsa.mcp.search.PgVectorSearchBackend;
+import pe.unsa.mcp.search.SearchTuning;
+import pe.unsa.mcp.search.SessionSearchHit;
+import pe.unsa.mcp.search.SimilarEntity;
+import pe.unsa.mcp.search.SpeakerSearchHit;
+
+/**
+ * Routes similarity queries to the configured backend. {@code mcp.search.backend=memory} uses the
+ * in-process index once it has loaded; pgvector serves every query until then and whenever the
+ * in-memory backend is not selected. The {@link SearchTuning} of each call applies to pgvector;
+ * the in-memory index uses its own {@code mcp.search.memory.hnsw-ef-search}.
+ */
+@Service
+public class VectorSearchService {
+
+  private final boolean preferMemory;
+  private final InMemoryVectorSearchBackend memoryBackend;
+  private final PgVectorSearchBackend pgVectorBackend;
+  private final SessionRepository sessionRepository;
+  private final SpeakerRepository speakerRepository;
+
+  public VectorSearchService(
+      @Value("${mcp.search.backend:pgvector}") String backend,
+      InMemoryVectorSearchBackend memoryBackend,
+      PgVectorSearchBackend pgVectorBackend,
+      SessionRepository sessionRepository,
+      SpeakerRepository speakerRepository) {
+    this.preferMemory = "memory".equalsIgnoreCase(backend);
+    this.memoryBackend = memoryBackend;
+    this.pgVectorBackend = pgVectorBackend;
+    this.sessionRepository = sessionRepository;
+    this.speakerRepository = speakerRepository;
+  }
+
+  public List<SimilarEntity> findSimilarEntities(
+      EntityType entityType, float[] query, int limit, SearchTuning tuning) {
+    if (useMemory()) {
+      return memoryBackend.findSimilarEntities(entityType, query, limit);
+    }
+    return pgVectorBackend.findSimilarEntities(entityType, query, limit, tuning);
+  }
+
+  /** Sessions of one event (optionally one day or track) closest to the query. */
+  public List<SessionSearchHit> findSessionsInEvent(
+      UUID eventId, LocalDate day, String track, float[] query, int limit, SearchTuning tuning) {
+    if (!useMemory()) {
+      return pgVectorBackend.findSessionsInEvent(eventId, day, track, query, limit, tuning);
+    }
+    List<UUID> inScope = sessionRepository.findIdsByEventIdAndScope(eventId, day, track);
+    List<SimilarEntity> similar =
+        memoryBackend.findSimilarAmong(EntityType.session, query, inScope, limit);
+    if (similar.isEmpty()) {
+      return List.of();
+    }
+    Map<UUID, Session> sessions =
+        sessionRepository
+            .findAllWithSpeakerByIdIn(similar.stream().map(SimilarEntity::entityId).toList())
+            .stream()
+            .collect(Collectors.toMap(Session::getId, Function.identity()));
+    return similar.stream()
+        .map(
+            match -> {
+              Session session = sessions.get(match.entityId());
+              return session == null
+                  ? null
+                  : new SessionSearchHit(
+                      session.getId(),
+                      session.getTitle(),
+                      session.getAbstractText(),
+                      session.getSpeaker().getFullName(),
+                      match.distance());
+            })
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  /**
+   * Sessions of one event ranked by fusing full-text and semantic rankings. Fusion happens in
+   * one SQL statement, so this always runs on pgvector, whichever backend is selected.
+   */
+  public List<HybridSessionHit> findSessionsInEventHybrid(
+      UUID eventId,
+      LocalDate day,
+      String track,
+      String text,
+      float[] query,
+      int limit,
+      SearchTuning tuning) {
+    return pgVectorBackend.findSessionsInEventHybrid(
+        eventId, day, track, text, query, limit, tuning);
+  }
+
+  /** Speakers closest to the query, hydrated with one batch lookup. */
+  public List<SpeakerSearchHit> findSpeakers(float[] query, int limit, SearchTuning tuning) {
+    List<SimilarEntity> similar = findSimilarEntities(EntityType.speaker, query, limit, tuning);
+    if (similar.isEmpty()) {
+      return List.of();
+    }
+    Map<UUID, Speaker> speakers =
+        speakerRepository.findAllById(similar.stream().map(SimilarEntity::entityId).toList())
+            .stream()
+            .collect(Collectors.toMap(Speaker::getId, Function.identity()));
+    return similar.stream()
+        .map(
+            match -> {
+              Speaker speaker = speakers.get(match.entityId());
+              return speaker == null
+                  ? null
+                  : new SpeakerSearchHit(
+                      speaker.getId(),
+                      speaker.getFullName(),
+                      speaker.getOrgName(),
+                      speaker.getJobTitle(),
+                      match.distance());
+            })
+        .filter(Objects::nonNull)
+        .toList();
+  }
+
+  private boolean useMemory() {
+    return preferMemory && memoryBackend.isReady();
+  }
+}
@@ -0,0 +1,20 @@
+-- Outbox of pending embedding work, written in the same transaction as the entity change
+-- One row per entity: successive edits bump generation instead of queueing duplicates
+CREATE TABLE embedding_jobs (
+  id              uuid PRIMARY KEY DEFAULT uuid_generate_v4(),
+  entity_type     text        NOT NULL CHECK (entity_type IN ('speaker','session')),
+  entity_id       uuid        NOT NULL,
+  generation      bigint      NOT NULL DEFAULT 1,   -- incremented on every enqueue
+  status          text        NOT NULL DEFAULT 'pending'
+                              CHECK (status IN ('pending','running','failed')),
+  attempts        int         NOT NULL DEFAULT 0,
+  next_attempt_at timestamptz NOT NULL DEFAULT now(),
+  locked_until    timestamptz,                      -- lease of the worker running the job
+  last_error      text,
+  created_at      timestamptz NOT NULL DEFAULT now(),
+  updated_at      timestamptz NOT NULL DEFAULT now(),
+  UNIQUE(entity_type, entity_id)
+);
+
+-- Workers poll for due jobs in next_attempt_at order
+CREATE INDEX embedding_jobs_due_idx ON embedding_jobs(status, next_attempt_at);
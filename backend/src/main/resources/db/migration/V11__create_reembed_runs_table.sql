@@ -0,0 +1,21 @@
+-- Bulk (re)embedding runs started by an admin
+-- The keyset cursor is committed together with each page of vectors so a restart resumes there
+CREATE TABLE reembed_runs (
+  id               uuid PRIMARY KEY DEFAULT uuid_generate_v4(),
+  mode             text        NOT NULL CHECK (mode IN ('missing','all')),
+  status           text        NOT NULL CHECK (status IN ('running','completed','cancelled','failed')),
+  phase            text        NOT NULL CHECK (phase IN ('speaker','session')),
+  cursor_id        uuid        NOT NULL,        -- last entity id processed in the current phase
+  total_speakers   bigint      NOT NULL DEFAULT 0,
+  total_sessions   bigint      NOT NULL DEFAULT 0,
+  processed        bigint      NOT NULL DEFAULT 0,  -- entities visited
+  embedded_fields  bigint      NOT NULL DEFAULT 0,  -- embedding rows written
+  failed           bigint      NOT NULL DEFAULT 0,  -- entities that could not be embedded
+  requests         bigint      NOT NULL DEFAULT 0,  -- provider requests issued
+  last_error       text,
+  started_at       timestamptz NOT NULL DEFAULT now(),
+  updated_at       timestamptz NOT NULL DEFAULT now(),
+  finished_at      timestamptz
+);
+
+CREATE INDEX reembed_runs_status_idx ON reembed_runs(status);
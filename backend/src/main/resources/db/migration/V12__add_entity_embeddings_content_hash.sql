@@ -0,0 +1,5 @@
+-- Content address of the embedded text: sha-256 of (model, dim, normalized input text)
+-- Unchanged fields are skipped and identical texts reuse an existing vector
+ALTER TABLE entity_embeddings ADD COLUMN content_hash text;
+
+CREATE INDEX entity_embeddings_content_hash_idx ON entity_embeddings(content_hash);
@@ -0,0 +1,12 @@
+-- Embedding dimension becomes configurable (mcp.embeddings.dimensions, e.g. 256/512/1536)
+-- The column is untyped so rows of several sizes can coexist while an edition is re-embedded;
+-- ANN indexes are partial expression indexes per dimension and queries filter on dim
+-- The full-vector index is dropped before the column rewrite so it is built only once, in V14
+DROP INDEX IF EXISTS entity_embeddings_ivf_cos;
+
+ALTER TABLE entity_embeddings ALTER COLUMN embedding TYPE vector;
+ALTER TABLE entity_embeddings DROP CONSTRAINT IF EXISTS entity_embeddings_dim_check;
+ALTER TABLE entity_embeddings ADD CONSTRAINT entity_embeddings_dim_check
+  CHECK (dim = vector_dims(embedding));
+
+ALTER TABLE query_embedding_cache ALTER COLUMN embedding TYPE vector;
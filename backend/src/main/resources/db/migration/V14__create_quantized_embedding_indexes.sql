@@ -0,0 +1,22 @@
+-- ANN indexes for the default 1536 dimensions; other sizes are created at startup
+-- Expression indexes: the table keeps only the full vector, candidates are re-ranked against it
+CREATE INDEX entity_embeddings_ivf_cos_1536 ON entity_embeddings
+  USING ivfflat ((CAST(embedding AS vector(1536))) vector_cosine_ops) WITH (lists = 100)
+  WHERE dim = 1536;
+
+-- Compact indexes for mcp.search.pgvector.storage=halfvec|binary
+-- halfvec and binary_quantize need pgvector 0.7+; older installations keep the full-vector index only
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_type WHERE typname = 'halfvec') THEN
+    -- float16: half the size of the full index, near-identical ordering
+    EXECUTE 'CREATE INDEX entity_embeddings_halfvec_hnsw_1536 ON entity_embeddings
+               USING hnsw ((CAST(embedding AS halfvec(1536))) halfvec_cosine_ops)
+               WHERE dim = 1536';
+    -- one bit per dimension: 32x smaller, needs a larger re-rank factor
+    EXECUTE 'CREATE INDEX entity_embeddings_binary_hnsw_1536 ON entity_embeddings
+               USING hnsw ((CAST(binary_quantize(embedding) AS bit(1536))) bit_hamming_ops)
+               WHERE dim = 1536';
+  END IF;
+END
+$$;
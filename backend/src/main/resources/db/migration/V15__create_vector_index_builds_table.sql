@@ -0,0 +1,21 @@
+-- IVFFlat rebuilds done by the index maintenance component
+-- Row counts drive the drift check; recall/latency before and after show the effect of each build
+CREATE TABLE vector_index_builds (
+  id                 uuid PRIMARY KEY DEFAULT uuid_generate_v4(),
+  index_name         text        NOT NULL,
+  reason             text        NOT NULL CHECK (reason IN ('initial','drift','manual')),
+  status             text        NOT NULL CHECK (status IN ('running','completed','failed')),
+  lists              int         NOT NULL,
+  row_count          bigint      NOT NULL,          -- indexed rows when the build started
+  changed_rows       bigint      NOT NULL DEFAULT 0, -- rows written or removed since the previous build
+  recall_before      double precision,
+  recall_after       double precision,
+  latency_before_ms  double precision,              -- mean approximate search latency
+  latency_after_ms   double precision,
+  build_ms           bigint,
+  last_error         text,
+  started_at         timestamptz NOT NULL DEFAULT now(),
+  finished_at        timestamptz
+);
+
+CREATE INDEX vector_index_builds_index_name_idx ON vector_index_builds(index_name, started_at DESC);
@@ -0,0 +1,9 @@
+-- unaccent() is only STABLE because it resolves its dictionary through search_path, so it cannot
+-- be used in an index. This wrapper names the dictionary explicitly and can be declared IMMUTABLE.
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+  LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+-- Accent-insensitive fuzzy name lookup: f_unaccent(full_name) % f_unaccent(:q)
+-- (pg_trgm folds case itself)
+CREATE INDEX speakers_name_folded_trgm ON speakers USING gin (f_unaccent(full_name) gin_trgm_ops);
@@ -0,0 +1,24 @@
+-- Full-text search over sessions and speakers
+-- Each text is indexed with the spanish configuration (stemmed, stop words removed) and with
+-- simple (exact words), so both "inteligencias" -> "inteligent" and names, acronyms or English
+-- terms match. Accents are folded with f_unaccent (V16), which is IMMUTABLE as generated columns
+-- require. Queries OR the websearch_to_tsquery of both configurations over the same folding.
+ALTER TABLE sessions ADD COLUMN search_tsv tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('spanish', f_unaccent(title)), 'A') ||
+  setweight(to_tsvector('simple', f_unaccent(title)), 'A') ||
+  setweight(to_tsvector('spanish', f_unaccent(coalesce(abstract, ''))), 'B') ||
+  setweight(to_tsvector('simple', f_unaccent(coalesce(abstract, ''))), 'B')
+) STORED;
+
+CREATE INDEX sessions_search_tsv_idx ON sessions USING gin (search_tsv);
+
+-- Names are not stemmed
+ALTER TABLE speakers ADD COLUMN search_tsv tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', f_unaccent(full_name)), 'A') ||
+  setweight(to_tsvector('spanish', f_unaccent(coalesce(org_name, '') || ' ' || coalesce(job_title, ''))), 'B') ||
+  setweight(to_tsvector('simple', f_unaccent(coalesce(org_name, '') || ' ' || coalesce(job_title, ''))), 'B') ||
+  setweight(to_tsvector('spanish', f_unaccent(coalesce(bio, ''))), 'C') ||
+  setweight(to_tsvector('simple', f_unaccent(coalesce(bio, ''))), 'C')
+) STORED;
+
+CREATE INDEX speakers_search_tsv_idx ON speakers USING gin (search_tsv);
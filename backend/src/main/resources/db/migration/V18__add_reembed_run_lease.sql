@@ -0,0 +1,6 @@
+-- A run is executed by one node at a time: the node holding an unexpired lease. Another node
+-- takes the run over only once the lease expires, e.g. after the holder crashed.
+ALTER TABLE reembed_runs
+  ADD COLUMN locked_by        text,                          -- node executing the run
+  ADD COLUMN locked_until     timestamptz,                   -- renewed with every page
+  ADD COLUMN cancel_requested boolean NOT NULL DEFAULT false; -- seen by the holder between pages
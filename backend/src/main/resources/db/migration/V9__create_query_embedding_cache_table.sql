@@ -0,0 +1,15 @@
+-- Persistent tier of the query embedding cache, shared by every server node
+-- Avoids calling the embedding provider again for queries agents already sent
+CREATE TABLE query_embedding_cache (
+  cache_key    text PRIMARY KEY,              -- sha-256 of (model, dim, normalized query)
+  query_text   text         NOT NULL,         -- normalized query text
+  model        text         NOT NULL,         -- embedding model that produced the vector
+  dim          int          NOT NULL,         -- vector dimension
+  embedding    vector(1536) NOT NULL,
+  hits         bigint       NOT NULL DEFAULT 0,
+  created_at   timestamptz  NOT NULL DEFAULT now(),
+  last_used_at timestamptz  NOT NULL DEFAULT now()
+);
+
+-- Supports pruning entries that have not been used for a while
+CREATE INDEX query_embedding_cache_last_used_idx ON query_embedding_cache(last_used_at);
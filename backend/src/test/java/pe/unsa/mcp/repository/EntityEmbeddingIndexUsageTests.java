@@ -0,0 +1,42 @@
+package pe.unsa.mcp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.repository.VectorSearchRepository.VectorStorage;
+
+@SpringBootTest
+@Transactional
+class EntityEmbeddingIndexUsageTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private VectorSearchRepository vectorSearchRepository;
+
+	@Test
+	void nearestPerFieldQueryIsAnsweredByTheVectorIndex() {
+		// Small test tables make a sequential scan cheaper; we only check the index is usable
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+		float[] query = new float[vectorSearchRepository.dimensions()];
+		Arrays.fill(query, 0.01f);
+
+		List<String> plan = jdbcTemplate.query(
+				"EXPLAIN " + vectorSearchRepository.nearestPerFieldSql(VectorStorage.full),
+				ps -> VectorSearchRepository.bindNearestPerField(ps, "session", "title,abstract,all", query, 30),
+				(rs, rowNum) -> rs.getString(1));
+
+		assertThat(String.join("\n", plan))
+				.contains("Index Scan using " + vectorSearchRepository.indexName(VectorStorage.full))
+				.doesNotContain("Seq Scan on entity_embeddings");
+	}
+
+}
@@ -0,0 +1,36 @@
+package pe.unsa.mcp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+class SpeakerNameIndexUsageTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void nameSimilarityQueryIsAnsweredByTheFoldedTrigramIndex() {
+		// Small test tables make a sequential scan cheaper; we only check the index is usable
+		jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+		List<String> plan = new NamedParameterJdbcTemplate(jdbcTemplate).query(
+				"EXPLAIN " + SpeakerRepository.NAME_SIMILARITY_QUERY,
+				Map.of("name", "José Pérez", "limit", 10),
+				(rs, rowNum) -> rs.getString(1));
+
+		assertThat(String.join("\n", plan))
+				.contains("speakers_name_folded_trgm")
+				.doesNotContain("Seq Scan on speakers");
+	}
+
+}
@@ -0,0 +1,106 @@
+package pe.unsa.mcp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class HnswGraphTests {
+
+	private static final int DIMENSIONS = 32;
+
+	@Test
+	void topKMatchesBruteForceOnRandomData() {
+		SplittableRandom random = new SplittableRandom(7);
+		VectorStore store = new VectorStore(DIMENSIONS);
+		HnswGraph graph = new HnswGraph(store, 16, 200);
+		for (int i = 0; i < 3000; i++) {
+			graph.add(store.add(randomUnitVector(random)));
+		}
+
+		int k = 10;
+		int queries = 100;
+		int found = 0;
+		for (int q = 0; q < queries; q++) {
+			float[] query = randomUnitVector(random);
+			Set<Integer> approximate = new HashSet<>();
+			graph.search(query, k, 64).forEach(candidate -> approximate.add(candidate.node()));
+			for (int node : bruteForce(store, query, k)) {
+				if (approximate.contains(node)) {
+					found++;
+				}
+			}
+		}
+
+		assertThat((double) found / (queries * k)).isGreaterThanOrEqualTo(0.95);
+	}
+
+	@Test
+	void resultsAreSortedClosestFirstWithExactDistances() {
+		SplittableRandom random = new SplittableRandom(11);
+		VectorStore store = new VectorStore(DIMENSIONS);
+		HnswGraph graph = new HnswGraph(store, 8, 100);
+		for (int i = 0; i < 500; i++) {
+			graph.add(store.add(randomUnitVector(random)));
+		}
+		float[] query = randomUnitVector(random);
+
+		List<HnswGraph.Candidate> results = graph.search(query, 20, 50);
+
+		assertThat(results).hasSize(20);
+		for (int i = 0; i < results.size(); i++) {
+			HnswGraph.Candidate candidate = results.get(i);
+			assertThat((double) candidate.distance())
+					.isCloseTo(1.0 - store.dot(query, candidate.node()), within(1e-6));
+			if (i > 0) {
+				assertThat(candidate.distance()).isGreaterThanOrEqualTo(results.get(i - 1).distance());
+			}
+		}
+	}
+
+	@Test
+	void findsAnExactlyStoredVectorFirst() {
+		SplittableRandom random = new SplittableRandom(3);
+		VectorStore store = new VectorStore(DIMENSIONS);
+		HnswGraph graph = new HnswGraph(store, 16, 200);
+		float[][] vectors = new float[1000][];
+		for (int i = 0; i < vectors.length; i++) {
+			vectors[i] = randomUnitVector(random);
+			graph.add(store.add(vectors[i]));
+		}
+
+		for (int node : new int[] {0, 123, 500, 999}) {
+			assertThat(graph.search(vectors[node], 1, 64).get(0).node()).isEqualTo(node);
+		}
+	}
+
+	@Test
+	void emptyGraphReturnsNothing() {
+		HnswGraph graph = new HnswGraph(new VectorStore(DIMENSIONS), 16, 200);
+
+		assertThat(graph.search(new float[DIMENSIONS], 5, 50)).isEmpty();
+	}
+
+	static float[] randomUnitVector(SplittableRandom random) {
+		float[] vector = new float[DIMENSIONS];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return VectorMath.normalize(vector);
+	}
+
+	private static int[] bruteForce(VectorStore store, float[] query, int k) {
+		return IntStream.range(0, store.size())
+				.boxed()
+				.sorted((a, b) -> Float.compare(store.dot(query, b), store.dot(query, a)))
+				.mapToInt(Integer::intValue)
+				.limit(k)
+				.toArray();
+	}
+
+}
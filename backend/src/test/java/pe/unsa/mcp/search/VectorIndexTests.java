@@ -0,0 +1,156 @@
+package pe.unsa.mcp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+
+class VectorIndexTests {
+
+	private static final int DIMENSIONS = 32;
+	private static final Executor SAME_THREAD = Runnable::run;
+
+	private final SplittableRandom random = new SplittableRandom(5);
+
+	@Test
+	void searchReturnsEntitiesByTheirBestField() {
+		VectorIndex index = new VectorIndex(DIMENSIONS, 1000, 16, 200, 64, SAME_THREAD);
+		UUID near = UUID.randomUUID();
+		UUID far = UUID.randomUUID();
+		float[] query = unit(0);
+		index.upsert(near, "title", unit(1));
+		index.upsert(near, "abstract", query.clone());
+		index.upsert(far, "title", unit(2));
+
+		List<SimilarEntity> results = index.search(query, 5);
+
+		assertThat(results).extracting(SimilarEntity::entityId).containsExactly(near, far);
+		assertThat(results.get(0).distance()).isCloseTo(0.0, within(1e-5));
+		assertThat(index.size()).isEqualTo(3);
+	}
+
+	@Test
+	void upsertReplacesTheFieldVector() {
+		VectorIndex index = new VectorIndex(DIMENSIONS, 1000, 16, 200, 64, SAME_THREAD);
+		UUID entity = UUID.randomUUID();
+		index.upsert(entity, "title", unit(0));
+		index.upsert(entity, "title", unit(1));
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.search(unit(0), 1).get(0).distance()).isCloseTo(1.0, within(1e-5));
+		assertThat(index.search(unit(1), 1).get(0).distance()).isCloseTo(0.0, within(1e-5));
+	}
+
+	@Test
+	void removedFieldsAndEntitiesAreNotReturned() {
+		VectorIndex index = new VectorIndex(DIMENSIONS, 1000, 16, 200, 64, SAME_THREAD);
+		UUID kept = UUID.randomUUID();
+		UUID removed = UUID.randomUUID();
+		index.upsert(kept, "title", unit(0));
+		index.upsert(kept, "abstract", unit(1));
+		index.upsert(removed, "title", unit(1));
+
+		index.remove(kept, "abstract");
+		index.removeEntity(removed);
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.search(unit(1), 5)).extracting(SimilarEntity::entityId).containsExactly(kept);
+		assertThat(index.searchAmong(unit(1), List.of(kept, removed), 5))
+				.extracting(SimilarEntity::entityId)
+				.containsExactly(kept);
+	}
+
+	@Test
+	void compactionReclaimsTombstonedSlots() {
+		VectorIndex index = new VectorIndex(DIMENSIONS, 100_000, 16, 200, 64, SAME_THREAD);
+		List<UUID> entities = new ArrayList<>();
+		for (int i = 0; i < 1024; i++) {
+			UUID entity = UUID.randomUUID();
+			entities.add(entity);
+			index.upsert(entity, "title", randomUnitVector());
+		}
+		float[] latest = null;
+		for (int i = 0; i < 400; i++) {
+			latest = randomUnitVector();
+			index.upsert(entities.get(i), "title", latest);
+		}
+
+		assertThat(index.size()).isEqualTo(1024);
+		assertThat(index.storedSlots()).isLessThan(1024 + 400);
+		assertThat(index.search(latest, 1).get(0).entityId()).isEqualTo(entities.get(399));
+	}
+
+	@Test
+	void switchesToTheGraphAboveTheThresholdAndBackBelowHalf() {
+		VectorIndex index = new VectorIndex(DIMENSIONS, 200, 16, 200, 64, SAME_THREAD);
+		List<UUID> entities = new ArrayList<>();
+		List<float[]> vectors = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			entities.add(UUID.randomUUID());
+			vectors.add(randomUnitVector());
+			index.upsert(entities.get(i), "title", vectors.get(i));
+		}
+
+		assertThat(index.usesGraph()).isTrue();
+		assertThat(index.search(vectors.get(42), 1).get(0).entityId()).isEqualTo(entities.get(42));
+
+		for (int i = 0; i < 250; i++) {
+			index.removeEntity(entities.get(i));
+		}
+
+		assertThat(index.usesGraph()).isFalse();
+		assertThat(index.size()).isEqualTo(50);
+		assertThat(index.search(vectors.get(260), 1).get(0).entityId()).isEqualTo(entities.get(260));
+	}
+
+	@Test
+	void writesDuringABackgroundRebuildAreKept() {
+		List<Runnable> pending = new ArrayList<>();
+		VectorIndex index = new VectorIndex(DIMENSIONS, 200, 16, 200, 64, pending::add);
+		List<UUID> entities = new ArrayList<>();
+		List<float[]> vectors = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			entities.add(UUID.randomUUID());
+			vectors.add(randomUnitVector());
+			index.upsert(entities.get(i), "title", vectors.get(i));
+		}
+
+		// Only the first crossing schedules a rebuild; searches keep scanning meanwhile
+		assertThat(pending).hasSize(1);
+		assertThat(index.usesGraph()).isFalse();
+		assertThat(index.search(vectors.get(900), 1).get(0).entityId()).isEqualTo(entities.get(900));
+
+		float[] replaced = randomUnitVector();
+		index.upsert(entities.get(10), "title", replaced);
+		index.removeEntity(entities.get(20));
+		index.removeEntity(entities.get(950));
+		pending.remove(0).run();
+
+		assertThat(index.usesGraph()).isTrue();
+		assertThat(index.size()).isEqualTo(998);
+		assertThat(index.search(replaced, 1).get(0).entityId()).isEqualTo(entities.get(10));
+		assertThat(index.search(vectors.get(900), 1).get(0).entityId()).isEqualTo(entities.get(900));
+		assertThat(index.search(vectors.get(20), 5))
+				.extracting(SimilarEntity::entityId)
+				.doesNotContain(entities.get(20));
+		assertThat(index.search(vectors.get(950), 5))
+				.extracting(SimilarEntity::entityId)
+				.doesNotContain(entities.get(950));
+	}
+
+	private float[] randomUnitVector() {
+		return HnswGraphTests.randomUnitVector(random);
+	}
+
+	private static float[] unit(int axis) {
+		float[] vector = new float[DIMENSIONS];
+		vector[axis] = 1f;
+		return vector;
+	}
+
+}
@@ -0,0 +1,52 @@
+package pe.unsa.mcp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class VectorMathTests {
+
+	private final SplittableRandom random = new SplittableRandom(13);
+
+	@Test
+	void simdKernelIsUsedUnderTheTestJvm() {
+		// surefire starts the JVM with --add-modules jdk.incubator.vector
+		assertThat(VectorMath.SIMD_AVAILABLE).isTrue();
+	}
+
+	@Test
+	void simdDotMatchesTheScalarLoop() {
+		// Lengths around the lane counts exercise both the vector loop and the scalar tail
+		for (int length : new int[] {0, 1, 3, 7, 8, 9, 15, 16, 17, 31, 33, 256, 1535, 1536}) {
+			float[] a = randomVector(length + 5);
+			float[] b = randomVector(length + 9);
+			for (int[] offsets : new int[][] {{0, 0}, {5, 9}, {2, 4}}) {
+				float simd = VectorMath.dot(a, offsets[0], b, offsets[1], length);
+				float scalar = VectorMath.scalarDot(a, offsets[0], b, offsets[1], length);
+
+				assertThat((double) simd)
+						.isCloseTo(scalar, within(1e-3 * Math.max(1, Math.sqrt(length))));
+			}
+		}
+	}
+
+	@Test
+	void normalizeProducesUnitVectors() {
+		float[] vector = VectorMath.normalize(randomVector(1536));
+
+		assertThat((double) VectorMath.scalarDot(vector, 0, vector, 0, vector.length))
+				.isCloseTo(1.0, within(1e-4));
+		assertThat(VectorMath.normalize(new float[4])).isEqualTo(new float[4]);
+	}
+
+	private float[] randomVector(int length) {
+		float[] vector = new float[length];
+		for (int i = 0; i < length; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+
+}
@@ -0,0 +1,109 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import pe.unsa.mcp.services.AgendaIndex.AgendaEntry;
+import pe.unsa.mcp.services.AgendaIndex.EventAgenda;
+
+class AgendaIndexTests {
+
+	private static final ZoneOffset LIMA = ZoneOffset.ofHours(-5);
+	private static final LocalDate DAY_ONE = LocalDate.of(2025, 10, 20);
+	private static final LocalDate DAY_TWO = LocalDate.of(2025, 10, 21);
+
+	// Day one: a long keynote overlapping two track talks, then a gap before the last talk
+	private final AgendaEntry keynote = entry(1, DAY_ONE, "09:00", "12:00", "main");
+	private final AgendaEntry trackA = entry(2, DAY_ONE, "09:30", "10:30", "A");
+	private final AgendaEntry trackB = entry(3, DAY_ONE, "09:30", "10:00", "B");
+	private final AgendaEntry afternoon = entry(5, DAY_ONE, "14:00", "15:00", "A");
+	private final AgendaEntry dayTwo = entry(4, DAY_TWO, "09:00", "10:00", "A");
+
+	private final EventAgenda agenda =
+			new EventAgenda(List.of(afternoon, dayTwo, trackB, keynote, trackA));
+
+	@Test
+	void sessionsAreListedBySeq() {
+		assertThat(agenda.bySeq()).containsExactly(keynote, trackA, trackB, dayTwo, afternoon);
+	}
+
+	@Test
+	void ongoingIncludesParallelTracksAndALongEarlierSession() {
+		assertThat(agenda.at(at(DAY_ONE, "09:45"))).containsExactly(keynote, trackA, trackB);
+		assertThat(agenda.at(at(DAY_ONE, "11:00"))).containsExactly(keynote);
+	}
+
+	@Test
+	void startIsInclusiveAndEndExclusive() {
+		assertThat(agenda.at(at(DAY_ONE, "09:30"))).containsExactly(keynote, trackA, trackB);
+		assertThat(agenda.at(at(DAY_ONE, "10:00"))).containsExactly(keynote, trackA);
+		assertThat(agenda.at(at(DAY_ONE, "12:00"))).isEmpty();
+		assertThat(agenda.at(at(DAY_ONE, "08:59"))).isEmpty();
+	}
+
+	@Test
+	void nothingIsOngoingInAGap() {
+		assertThat(agenda.at(at(DAY_ONE, "13:00"))).isEmpty();
+		assertThat(agenda.nextAfter(at(DAY_ONE, "13:00"))).contains(afternoon);
+	}
+
+	@Test
+	void nextStartsStrictlyAfterTheGivenTime() {
+		assertThat(agenda.nextAfter(at(DAY_ONE, "08:00"))).contains(keynote);
+		assertThat(agenda.nextAfter(at(DAY_ONE, "09:00"))).contains(trackA);
+		assertThat(agenda.nextAfter(at(DAY_ONE, "14:00"))).contains(dayTwo);
+		assertThat(agenda.nextAfter(at(DAY_TWO, "09:00"))).isEmpty();
+	}
+
+	@Test
+	void sameStartIsOrderedBySeq() {
+		assertThat(agenda.nextAfter(at(DAY_ONE, "09:15"))).contains(trackA);
+	}
+
+	@Test
+	void nextBySeqSkipsGaps() {
+		assertThat(agenda.nextAfterSeq(1)).contains(trackA);
+		assertThat(agenda.nextAfterSeq(3)).contains(dayTwo);
+		assertThat(agenda.nextAfterSeq(0)).contains(keynote);
+		assertThat(agenda.nextAfterSeq(5)).isEmpty();
+	}
+
+	@Test
+	void sessionsOfADayAreOrderedByStart() {
+		assertThat(agenda.onDay(DAY_ONE)).containsExactly(keynote, trackA, trackB, afternoon);
+		assertThat(agenda.onDay(DAY_TWO)).containsExactly(dayTwo);
+		assertThat(agenda.onDay(DAY_TWO.plusDays(1))).isEmpty();
+	}
+
+	@Test
+	void timesInAnotherOffsetAreCompared() {
+		OffsetDateTime utc = at(DAY_ONE, "09:45").withOffsetSameInstant(ZoneOffset.UTC);
+
+		assertThat(agenda.at(utc)).containsExactly(keynote, trackA, trackB);
+	}
+
+	@Test
+	void emptyAgendaFindsNothing() {
+		EventAgenda empty = new EventAgenda(List.of());
+
+		assertThat(empty.at(at(DAY_ONE, "09:00"))).isEmpty();
+		assertThat(empty.nextAfter(at(DAY_ONE, "09:00"))).isEmpty();
+		assertThat(empty.nextAfterSeq(1)).isEmpty();
+	}
+
+	private static AgendaEntry entry(int seq, LocalDate day, String start, String end, String track) {
+		return new AgendaEntry(UUID.randomUUID(), seq, "Session " + seq, null, day, track,
+				at(day, start), at(day, end), UUID.randomUUID(), "Speaker " + seq, null, null, null);
+	}
+
+	private static OffsetDateTime at(LocalDate day, String time) {
+		return OffsetDateTime.of(day, LocalTime.parse(time), LIMA);
+	}
+
+}
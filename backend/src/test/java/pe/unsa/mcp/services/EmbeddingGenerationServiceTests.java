@@ -0,0 +1,67 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import pe.unsa.mcp.model.EntityEmbedding;
+import pe.unsa.mcp.model.EntityEmbedding.EmbeddingField;
+import pe.unsa.mcp.model.EntityEmbedding.EntityType;
+import pe.unsa.mcp.repository.EntityEmbeddingRepository;
+import pe.unsa.mcp.services.EmbeddingGenerationService.EmbeddingInput;
+
+@SpringBootTest
+@Transactional
+class EmbeddingGenerationServiceTests {
+
+	@Autowired
+	private EmbeddingGenerationService embeddingService;
+
+	@Autowired
+	private EntityEmbeddingRepository embeddingRepository;
+
+	@Test
+	void reembeddingAnEmbeddedFieldReplacesItsRow() {
+		UUID speakerId = UUID.randomUUID();
+		EmbeddingInput first = input(speakerId, "Works on distributed databases");
+		EmbeddingInput second = input(speakerId, "Works on compilers");
+
+		embeddingService.store(List.of(first), List.of(vector(0.1f)));
+		embeddingService.store(List.of(second), List.of(vector(0.2f)));
+
+		EntityEmbedding stored = embeddingRepository
+				.findByEntityTypeAndEntityIdAndField(EntityType.speaker, speakerId, EmbeddingField.bio)
+				.orElseThrow();
+		assertThat(stored.getContentHash()).isEqualTo(second.contentHash());
+		assertThat(stored.getEmbedding()[0]).isEqualTo(0.2f);
+	}
+
+	@Test
+	void storingTheSameInputTwiceKeepsOneRow() {
+		UUID speakerId = UUID.randomUUID();
+		EmbeddingInput input = input(speakerId, "Works on distributed databases");
+
+		embeddingService.store(List.of(input), List.of(vector(0.1f)));
+		embeddingService.store(List.of(input), List.of(vector(0.1f)));
+
+		assertThat(embeddingRepository.findByEntityTypeAndEntityIdAndField(EntityType.speaker, speakerId,
+				EmbeddingField.bio)).isPresent();
+	}
+
+	private EmbeddingInput input(UUID speakerId, String text) {
+		return EmbeddingInput.of(EntityType.speaker, speakerId, EmbeddingField.bio, text,
+				embeddingService.dimensions());
+	}
+
+	private float[] vector(float value) {
+		float[] vector = new float[embeddingService.dimensions()];
+		Arrays.fill(vector, value);
+		return vector;
+	}
+
+}
@@ -0,0 +1,47 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LruCacheTests {
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntryOnceFull() {
+		LruCache<String, Integer> cache = new LruCache<>(2, Duration.ZERO);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		// Reading "a" makes "b" the eldest
+		assertThat(cache.get("a")).isEqualTo(1);
+		cache.put("c", 3);
+
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("a")).isEqualTo(1);
+		assertThat(cache.get("c")).isEqualTo(3);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	void replacingAKeyDoesNotEvictAnother() {
+		LruCache<String, Integer> cache = new LruCache<>(2, Duration.ZERO);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		cache.put("a", 10);
+
+		assertThat(cache.get("a")).isEqualTo(10);
+		assertThat(cache.get("b")).isEqualTo(2);
+	}
+
+	@Test
+	void expiredEntriesAreNotReturned() throws InterruptedException {
+		LruCache<String, Integer> cache = new LruCache<>(10, Duration.ofMillis(1));
+		cache.put("a", 1);
+		Thread.sleep(5);
+
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+}
@@ -0,0 +1,110 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.unsa.mcp.model.QueryEmbedding;
+import pe.unsa.mcp.repository.QueryEmbeddingRepository;
+import pe.unsa.mcp.repository.VectorSearchRepository;
+
+class QueryEmbeddingCacheTests {
+
+	private static final float[] VECTOR = {0.1f, 0.2f, 0.3f};
+
+	private QueryEmbeddingRepository repository;
+	private VectorSearchRepository vectorSearchRepository;
+	private QueryEmbeddingCache cache;
+	private final AtomicInteger providerCalls = new AtomicInteger();
+	private final Function<String, float[]> provider = text -> {
+		providerCalls.incrementAndGet();
+		return VECTOR;
+	};
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(QueryEmbeddingRepository.class);
+		vectorSearchRepository = mock(VectorSearchRepository.class);
+		cache = new QueryEmbeddingCache(repository, vectorSearchRepository, 10, Duration.ofHours(1), true,
+				"text-embedding-3-small", 3);
+	}
+
+	@Test
+	void missCallsTheProviderAndStoresInBothTiers() {
+		when(repository.findById(anyString())).thenReturn(Optional.empty());
+
+		assertThat(cache.get("Machine Learning", provider)).isEqualTo(VECTOR);
+
+		assertThat(providerCalls).hasValue(1);
+		verify(vectorSearchRepository).insertQueryEmbedding(anyString(), eq("machine learning"),
+				eq("text-embedding-3-small"), eq(3), eq(VECTOR));
+		assertThat(cache.stats().misses()).isEqualTo(1);
+	}
+
+	@Test
+	void persistentHitSkipsTheProviderAndFillsMemory() {
+		QueryEmbedding stored = new QueryEmbedding();
+		stored.setEmbedding(VECTOR);
+		when(repository.findById(anyString())).thenReturn(Optional.of(stored));
+
+		assertThat(cache.get("machine learning", provider)).isEqualTo(VECTOR);
+		assertThat(cache.get("machine learning", provider)).isEqualTo(VECTOR);
+
+		assertThat(providerCalls).hasValue(0);
+		verify(repository).findById(anyString());
+		assertThat(cache.stats().persistentHits()).isEqualTo(1);
+		assertThat(cache.stats().memoryHits()).isEqualTo(1);
+	}
+
+	@Test
+	void persistentFailureFallsBackToTheProvider() {
+		when(repository.findById(anyString())).thenThrow(new IllegalStateException("database down"));
+
+		assertThat(cache.get("machine learning", provider)).isEqualTo(VECTOR);
+
+		assertThat(providerCalls).hasValue(1);
+		assertThat(cache.stats().persistentErrors()).isEqualTo(1);
+	}
+
+	@Test
+	void hitsAreWrittenInOneBatchOnFlush() {
+		when(repository.findById(anyString())).thenReturn(Optional.empty());
+		cache.get("machine learning", provider);
+		cache.get("machine learning", provider);
+		cache.get("Machine  Learning", provider);
+
+		verify(vectorSearchRepository, never()).touchQueryEmbeddings(any(), any());
+		cache.flushHits();
+
+		verify(vectorSearchRepository).touchQueryEmbeddings(any(String[].class),
+				eq(new long[] {2}));
+		cache.flushHits();
+		verify(vectorSearchRepository).touchQueryEmbeddings(any(), any());
+	}
+
+	@Test
+	void disabledPersistenceNeverTouchesTheTable() {
+		cache = new QueryEmbeddingCache(repository, vectorSearchRepository, 10, Duration.ofHours(1), false,
+				"text-embedding-3-small", 3);
+
+		cache.get("machine learning", provider);
+		cache.get("machine learning", provider);
+		cache.flushHits();
+
+		assertThat(providerCalls).hasValue(1);
+		verifyNoInteractions(repository, vectorSearchRepository);
+	}
+
+}
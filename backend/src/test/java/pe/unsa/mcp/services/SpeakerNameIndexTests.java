@@ -0,0 +1,100 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.unsa.mcp.model.Speaker;
+import pe.unsa.mcp.repository.SpeakerRepository;
+
+class SpeakerNameIndexTests {
+
+	private final Speaker josePerez = speaker("José Pérez");
+	private final Speaker joseAlvarez = speaker("José Álvarez");
+	private final Speaker mariaPeralta = speaker("María Peralta-Núñez");
+	private final Speaker anaAnaya = speaker("Ana Anaya");
+
+	private SpeakerRepository speakerRepository;
+	private SpeakerNameIndex index;
+
+	@BeforeEach
+	void setUp() {
+		speakerRepository = mock(SpeakerRepository.class);
+		when(speakerRepository.findAll())
+				.thenReturn(List.of(josePerez, joseAlvarez, mariaPeralta, anaAnaya));
+		index = new SpeakerNameIndex(speakerRepository);
+	}
+
+	@Test
+	void foldingStripsAccentsCaseAndPunctuation() {
+		assertThat(SpeakerNameIndex.fold("  María  Peralta-NÚÑEZ ")).isEqualTo("maria peralta nunez");
+		assertThat(SpeakerNameIndex.fold("O'Brien, J.")).isEqualTo("o brien j");
+	}
+
+	@Test
+	void trigramsArePaddedLikePgTrgm() {
+		assertThat(SpeakerNameIndex.trigrams("ab cd"))
+				.containsExactly("  a", " ab", "ab ", "  c", " cd", "cd ");
+	}
+
+	@Test
+	void similarNamesMatchWithoutAccentsAndWithTypos() {
+		assertThat(index.findSimilar("jose perez", 0.3, 5)).first().isEqualTo(josePerez);
+		assertThat(index.findSimilar("Jose Peres", 0.3, 5)).first().isEqualTo(josePerez);
+		assertThat(index.findSimilar("MARIA PERALTA NUNEZ", 0.3, 5)).containsExactly(mariaPeralta);
+	}
+
+	@Test
+	void closerNamesRankFirstAndTheThresholdCutsTheRest() {
+		assertThat(index.findSimilar("José Pérez", 0.2, 5)).containsExactly(josePerez, joseAlvarez);
+		assertThat(index.findSimilar("José", 0.2, 5)).containsExactlyInAnyOrder(josePerez, joseAlvarez);
+		assertThat(index.findSimilar("José", 0.9, 5)).isEmpty();
+		assertThat(index.findSimilar("Zoe Zapata", 0.3, 5)).isEmpty();
+		assertThat(index.findSimilar("", 0.3, 5)).isEmpty();
+	}
+
+	@Test
+	void completionMatchesTheStartOfAnyWord() {
+		assertThat(index.complete("per", 10)).containsExactly(mariaPeralta, josePerez);
+		assertThat(index.complete("Núñ", 10)).containsExactly(mariaPeralta);
+		assertThat(index.complete("alv", 10)).containsExactly(joseAlvarez);
+	}
+
+	@Test
+	void completionCanSpanWords() {
+		assertThat(index.complete("jose p", 10)).containsExactly(josePerez);
+		assertThat(index.complete("jose", 10)).containsExactly(joseAlvarez, josePerez);
+	}
+
+	@Test
+	void completionReturnsEachSpeakerOnceAndHonoursTheLimit() {
+		assertThat(index.complete("ana", 10)).containsExactly(anaAnaya);
+		assertThat(index.complete("jose", 1)).containsExactly(joseAlvarez);
+		assertThat(index.complete("", 10)).isEmpty();
+		assertThat(index.complete("xyz", 10)).isEmpty();
+	}
+
+	@Test
+	void invalidationRebuildsFromTheTable() {
+		assertThat(index.complete("zoe", 10)).isEmpty();
+
+		Speaker zoe = speaker("Zoë Zapata");
+		when(speakerRepository.findAll()).thenReturn(List.of(josePerez, zoe));
+		index.invalidate();
+
+		assertThat(index.complete("zoe", 10)).containsExactly(zoe);
+		assertThat(index.complete("maria", 10)).isEmpty();
+	}
+
+	private static Speaker speaker(String fullName) {
+		Speaker speaker = new Speaker();
+		speaker.setId(UUID.randomUUID());
+		speaker.setFullName(fullName);
+		return speaker;
+	}
+
+}
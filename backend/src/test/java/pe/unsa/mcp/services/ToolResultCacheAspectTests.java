@@ -0,0 +1,69 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import pe.unsa.mcp.dto.mcp.McpToolResponse;
+import pe.unsa.mcp.services.ToolResultCache.Source;
+
+class ToolResultCacheAspectTests {
+
+	private Tools target;
+	private Tools tools;
+
+	@BeforeEach
+	void setUp() {
+		ToolResultCache cache = new ToolResultCache(new SimpleMeterRegistry(), true, 100, Duration.ofHours(1));
+		target = new Tools();
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.setProxyTargetClass(true);
+		factory.addAspect(new ToolResultCacheAspect(cache, mock(EventCatalog.class)));
+		tools = factory.getProxy();
+	}
+
+	@Test
+	void filtersDifferingOnlyInCaseReachTheTool() {
+		tools.search(2024, "cloud", "Main");
+		tools.search(2024, "cloud", "main");
+
+		assertThat(target.calls).containsExactly("cloud|Main", "cloud|main");
+	}
+
+	@Test
+	void freeTextVariantsShareAnEntry() {
+		tools.search(2024, "  Cloud   Native ", "Main");
+		tools.search(2024, "cloud native", "Main");
+
+		assertThat(target.calls).containsExactly("  Cloud   Native |Main");
+	}
+
+	@Test
+	void otherYearsAreCachedSeparately() {
+		tools.search(2024, "cloud", "Main");
+		tools.search(2025, "cloud", "Main");
+
+		assertThat(target.calls).hasSize(2);
+	}
+
+	static class Tools {
+
+		final List<String> calls = new ArrayList<>();
+
+		@CachedTool(dependsOn = Source.sessions, normalize = "query")
+		@Tool(name = "session.search", description = "Search sessions")
+		public McpToolResponse search(Integer year, String query, String track) {
+			calls.add(query + "|" + track);
+			return McpToolResponse.text("session.search", query);
+		}
+
+	}
+
+}
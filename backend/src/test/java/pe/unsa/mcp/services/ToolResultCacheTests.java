@@ -0,0 +1,86 @@
+package pe.unsa.mcp.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.unsa.mcp.dto.mcp.McpToolResponse;
+
+class ToolResultCacheTests {
+
+	private SimpleMeterRegistry registry;
+	private ToolResultCache cache;
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		cache = new ToolResultCache(registry, true, 100, Duration.ofHours(1));
+	}
+
+	@Test
+	void hitOfAnEmptyResultMarksTheCallEmptyAgain() {
+		assertThat(call(() -> {
+			ToolCallTimings.markEmpty();
+			return McpToolResponse.text("speaker.autocomplete", "No speaker name starts with: zz");
+		})).isTrue();
+
+		assertThat(call(() -> McpToolResponse.text("speaker.autocomplete", "unused"))).isTrue();
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void hitOfAResultWithMatchesIsNotMarkedEmpty() {
+		call(() -> McpToolResponse.text("speaker.autocomplete", "Angel Concha"));
+
+		assertThat(call(() -> McpToolResponse.text("speaker.autocomplete", "unused"))).isFalse();
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void errorResponsesAreNotCached() {
+		call(() -> McpToolResponse.error("speaker.autocomplete", "Error"));
+		call(() -> McpToolResponse.error("speaker.autocomplete", "Error"));
+
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void lookupsAreExportedAsCountersPerTool() {
+		call(() -> McpToolResponse.text("speaker.autocomplete", "Angel Concha"));
+		call(() -> McpToolResponse.text("speaker.autocomplete", "unused"));
+		call(() -> McpToolResponse.text("speaker.autocomplete", "unused"));
+
+		assertThat(lookups("hit")).isEqualTo(2);
+		assertThat(lookups("miss")).isEqualTo(1);
+		assertThat(lookups("stale")).isZero();
+	}
+
+	private double lookups(String result) {
+		return registry.get("mcp.tool.cache")
+				.tags("tool", "speaker.autocomplete", "result", result)
+				.functionCounter()
+				.count();
+	}
+
+	/** Run a cached call inside a tool-call context and return whether it was marked empty. */
+	private boolean call(Supplier<McpToolResponse> tool) {
+		ToolCallTimings timings = ToolCallTimings.start();
+		try {
+			cache.get("speaker.autocomplete", List.of("zz"), List.of(), () -> {
+				calls.incrementAndGet();
+				return tool.get();
+			});
+			return timings.empty();
+		}
+		finally {
+			timings.finish();
+		}
+	}
+
+}